@@ -0,0 +1,172 @@
+package com.vbank.account.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vbank.account.dto.AccountResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of account views by id, and of account ids by user.
+ *
+ * Every key hashes to an invalidation epoch. A loader samples the epoch before
+ * reading the database and drops its own entry if the epoch moved by the time
+ * it was stored, so a load racing with a committed write can never leave a
+ * stale value behind. Writers must therefore evict only after their commit.
+ */
+@Component
+public class AccountCache {
+
+    private static final int EPOCH_STRIPES = 1024;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.cache.max-size:100000}")
+    private long maxSize;
+
+    @Value("${vbank.account.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<UUID, AccountResponseDto> accountsById;
+    private Cache<UUID, List<UUID>> accountIdsByUser;
+    private final AtomicLongArray epochs = new AtomicLongArray(EPOCH_STRIPES);
+
+    @PostConstruct
+    void init() {
+        accountsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        accountIdsByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, accountsById, "accounts.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, accountIdsByUser, "accounts.byUser");
+    }
+
+    public AccountResponseDto get(UUID accountId, Function<UUID, AccountResponseDto> loader) {
+        AccountResponseDto cached = accountsById.getIfPresent(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = epoch(accountId);
+        AccountResponseDto loaded = loader.apply(accountId);
+        put(accountsById, accountId, loaded, stamp);
+        return loaded;
+    }
+
+    /**
+     * Returns the views for all ids in order, loading every miss with one call to the bulk loader.
+     * Ids the loader does not return are skipped.
+     */
+    public List<AccountResponseDto> getAll(List<UUID> accountIds,
+                                           Function<Collection<UUID>, List<AccountResponseDto>> bulkLoader) {
+        Map<UUID, AccountResponseDto> found = new HashMap<>(accountsById.getAllPresent(accountIds));
+        if (found.size() < accountIds.size()) {
+            Map<UUID, Long> stamps = new HashMap<>();
+            for (UUID accountId : accountIds) {
+                if (!found.containsKey(accountId)) {
+                    stamps.put(accountId, epoch(accountId));
+                }
+            }
+            for (AccountResponseDto loaded : bulkLoader.apply(stamps.keySet())) {
+                found.put(loaded.getAccountId(), loaded);
+                put(accountsById, loaded.getAccountId(), loaded, stamps.get(loaded.getAccountId()));
+            }
+        }
+
+        List<AccountResponseDto> result = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            AccountResponseDto account = found.get(accountId);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    public List<UUID> getUserAccountIds(UUID userId, Function<UUID, List<UUID>> loader) {
+        List<UUID> cached = accountIdsByUser.getIfPresent(userId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = epoch(userId);
+        List<UUID> loaded = List.copyOf(loader.apply(userId));
+        put(accountIdsByUser, userId, loaded, stamp);
+        return loaded;
+    }
+
+    private <V> void put(Cache<UUID, V> cache, UUID key, V value, long stamp) {
+        cache.put(key, value);
+        if (epoch(key) != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Evicts the accounts once the surrounding transaction commits, or immediately if there is none.
+     */
+    public void evictAccountsAfterCommit(Collection<UUID> accountIds) {
+        afterCommit(() -> accountIds.forEach(this::evictAccount));
+    }
+
+    public void evictUserAfterCommit(UUID userId) {
+        afterCommit(() -> evictUser(userId));
+    }
+
+    public void evictAccount(UUID accountId) {
+        bumpEpoch(accountId);
+        accountsById.invalidate(accountId);
+    }
+
+    public void evictUser(UUID userId) {
+        bumpEpoch(userId);
+        accountIdsByUser.invalidate(userId);
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private long epoch(UUID key) {
+        return epochs.get(stripe(key));
+    }
+
+    private void bumpEpoch(UUID key) {
+        epochs.incrementAndGet(stripe(key));
+    }
+
+    private static int stripe(UUID key) {
+        long h = key.getMostSignificantBits() ^ key.getLeastSignificantBits();
+        return (int) (h ^ (h >>> 32)) & (EPOCH_STRIPES - 1);
+    }
+}
@@ -0,0 +1,151 @@
+package com.vbank.account.cluster;
+
+import com.vbank.account.repository.JobLeaseRepository;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs scheduled jobs on a single replica per interval using leases stored
+ * in the job_leases table. Wrap the body of a {@code @Scheduled} method with
+ * {@link #runExclusive} or {@link #runSharded}; replicas that do not win the
+ * lease skip the run.
+ *
+ * A lease is not released when the job finishes, so replicas whose timers fire
+ * later in the same interval still skip. Lease durations should therefore be a
+ * little shorter than the job's schedule interval.
+ */
+@Component
+public class ClusterJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobRunner.class);
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.cluster.node-id:}")
+    private String nodeId;
+
+    @PostConstruct
+    void initNodeId() {
+        if (nodeId == null || nodeId.isBlank()) {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (Exception e) {
+                host = "unknown";
+            }
+            nodeId = host + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Runs the job if this replica holds (or can take) its lease.
+     *
+     * @return true if the job ran on this replica
+     */
+    public boolean runExclusive(String jobName, Duration lease, Runnable job) {
+        return runLeased(jobName, jobName, lease, job);
+    }
+
+    /**
+     * Splits the account id space into {@code shards} ranges with one lease each.
+     * Every replica walks the shards starting from a random offset and runs the
+     * ones it manages to lease, so the work spreads across the cluster.
+     *
+     * @return number of shards run on this replica
+     */
+    public int runSharded(String jobName, int shards, Duration lease, Consumer<IdRange> job) {
+        if (shards <= 1) {
+            return runExclusive(jobName, lease, () -> job.accept(IdRange.ALL)) ? 1 : 0;
+        }
+        int ran = 0;
+        int offset = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            int shard = (offset + i) % shards;
+            IdRange range = IdRange.shard(shard, shards);
+            if (runLeased(jobName, jobName + "#" + shard, lease, () -> job.accept(range))) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    /**
+     * Gives up a lease held by this replica so another can take it without waiting for it to expire.
+     */
+    public void release(String jobName) {
+        try {
+            shardRouter.onDirectory(() -> transactionTemplate.execute(status ->
+                    jobLeaseRepository.release(jobName, nodeId)));
+        } catch (RuntimeException e) {
+            logger.warn("Could not release lease {}: {}", jobName, e.getMessage());
+        }
+    }
+
+    private boolean runLeased(String jobName, String leaseName, Duration lease, Runnable job) {
+        if (!tryAcquire(leaseName, lease)) {
+            meterRegistry.counter("cluster.job.skipped", "job", jobName).increment();
+            return false;
+        }
+        meterRegistry.counter("cluster.job.lease.acquired", "job", jobName).increment();
+
+        long start = System.nanoTime();
+        try {
+            job.run();
+        } finally {
+            meterRegistry.timer("cluster.job.lease.hold", "job", jobName)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    private boolean tryAcquire(String leaseName, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(lease);
+        try {
+            // Leases live on the directory shard
+            Boolean acquired = shardRouter.onDirectory(() -> transactionTemplate.execute(status -> {
+                if (jobLeaseRepository.tryAcquire(leaseName, nodeId, now, until) == 1) {
+                    return true;
+                }
+                if (jobLeaseRepository.existsById(leaseName)) {
+                    return false;
+                }
+                return jobLeaseRepository.insertLease(leaseName, nodeId, now, until) == 1;
+            }));
+            return Boolean.TRUE.equals(acquired);
+        } catch (DataIntegrityViolationException e) {
+            // Another replica inserted the lease row first
+            return false;
+        }
+    }
+}
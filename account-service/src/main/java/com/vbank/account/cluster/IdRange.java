@@ -0,0 +1,27 @@
+package com.vbank.account.cluster;
+
+/**
+ * Slice of the account id space, for splitting a scan across replicas.
+ * Ids are bucketed by their last two hex digits, which are random in both
+ * v4 and v7 UUIDs, so slices stay even however the ids are ordered in time.
+ * Buckets are compared as lowercase hex strings, inclusive.
+ */
+public record IdRange(String fromBucket, String toBucket) {
+
+    static final int BUCKETS = 256;
+
+    public static final IdRange ALL = new IdRange("00", "ff");
+
+    /**
+     * Returns shard {@code index} of {@code count} ranges with equal bucket counts.
+     * With more than 256 shards the surplus ones are empty.
+     */
+    public static IdRange shard(int index, int count) {
+        if (count <= 1) {
+            return ALL;
+        }
+        int from = (int) ((long) BUCKETS * index / count);
+        int to = (int) ((long) BUCKETS * (index + 1) / count) - 1;
+        return new IdRange(String.format("%02x", from), String.format("%02x", to));
+    }
+}
@@ -0,0 +1,66 @@
+package com.vbank.account.config;
+
+import com.vbank.account.shard.ShardRouter;
+import com.vbank.account.shard.ShardRoutingDataSource;
+import com.vbank.account.shard.ShardSchemaReplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single account datasource with one pool per shard when
+ * vbank.account.shards.count is above 1. Shard URLs come from the url
+ * template; credentials and driver from spring.datasource.
+ */
+@Configuration
+@ConditionalOnExpression("${vbank.account.shards.count:1} > 1")
+public class ShardDataSourceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDataSourceConfig.class);
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${vbank.account.shards.count}") int shardCount,
+                                 @Value("${vbank.account.shards.url-template}") String urlTemplate,
+                                 @Value("${vbank.account.ledger.enabled:false}") boolean ledgerEnabled) {
+        // The ledger is also limited to a single replica (lease in BalanceLedger) and
+        // turns off holds and balance slots (HoldService, BalanceSlotService)
+        if (ledgerEnabled) {
+            throw new IllegalStateException("The balance ledger holds every account in one process and "
+                    + "cannot be combined with vbank.account.shards.count > 1.");
+        }
+        Map<Object, Object> shards = new HashMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.put(shard, properties.initializeDataSourceBuilder()
+                    .url(urlTemplate.replace("{shard}", String.valueOf(shard)))
+                    .build());
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource();
+        routing.setTargetDataSources(shards);
+        routing.setDefaultTargetDataSource(shards.get(ShardRouter.DIRECTORY));
+        routing.afterPropertiesSet();
+        logger.info("Account storage split across {} shards", shardCount);
+
+        // Transactions begin before the service knows which account they touch,
+        // so the shard is only resolved when the first statement runs.
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public static ShardSchemaReplicator shardSchemaReplicator(ObjectProvider<DataSource> dataSource,
+                                                              @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaReplicator(dataSource, ddlAuto);
+    }
+}
@@ -1,17 +1,54 @@
 package com.vbank.account.controller;
 import com.vbank.account.dto.AccountCreationDto;
+import com.vbank.account.dto.AccountImportResultDto;
+import com.vbank.account.dto.AccountImportSummaryDto;
+import com.vbank.account.dto.AccountLookupDto;
+import com.vbank.account.dto.AccountLookupResponseDto;
+import com.vbank.account.dto.AccountPageDto;
 import com.vbank.account.dto.AccountResponseDto;
+import com.vbank.account.dto.BalanceAsOfDto;
+import com.vbank.account.dto.BalanceSlotsDto;
+import com.vbank.account.dto.BatchTransferDto;
+import com.vbank.account.dto.BatchTransferResponseDto;
+import com.vbank.account.dto.HoldCaptureDto;
+import com.vbank.account.dto.HoldRequestDto;
+import com.vbank.account.dto.HoldResponseDto;
+import com.vbank.account.dto.InterestAccrualRunDto;
+import com.vbank.account.dto.SnapshotExportDto;
+import com.vbank.account.export.EodSnapshotExporter;
 import com.vbank.account.dto.TransferDto;
+import com.vbank.account.dto.UserAccountSummaryDto;
+import com.vbank.account.history.BalanceHistoryService;
+import com.vbank.account.idempotency.IdempotencyService;
+import com.vbank.account.interest.InterestAccrualEngine;
+import com.vbank.account.model.Account;
+import com.vbank.account.service.AccountImportService;
 import com.vbank.account.service.AccountService;
+import com.vbank.account.service.HoldService;
 import com.vbank.account.kafka.LoggingProducer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.annotation.Validated;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -26,18 +63,42 @@ public class AccountController {
     @Autowired
     private LoggingProducer loggingProducer;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountImportService accountImportService;
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private EodSnapshotExporter eodSnapshotExporter;
+
+    @Autowired
+    private InterestAccrualEngine interestAccrualEngine;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @PostMapping
-    public ResponseEntity<AccountResponseDto> createAccount(@Valid @RequestBody AccountCreationDto creationDto
-                                                           ) {
+    public ResponseEntity<AccountResponseDto> createAccount(@Valid @RequestBody AccountCreationDto creationDto,
+                                                            @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                            String idempotencyKey) {
         // Log request
         loggingProducer.logRequest(creationDto.toString(), "POST /accounts");
 
-        AccountResponseDto response = accountService.createAccount(creationDto);
+        ResponseEntity<AccountResponseDto> result = idempotencyService.execute("POST /accounts", idempotencyKey,
+                creationDto, new TypeReference<AccountResponseDto>() {},
+                () -> new ResponseEntity<>(accountService.createAccount(creationDto), HttpStatus.CREATED));
 
         // Log response
-        loggingProducer.logResponse(response.toString(), "POST /accounts");
+        loggingProducer.logResponse(String.valueOf(result.getBody()), "POST /accounts");
 
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+        return result;
     }
 
     @GetMapping("/{accountId}")
@@ -53,6 +114,58 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping
+    public ResponseEntity<AccountPageDto> listAccounts(
+            @RequestParam(required = false) Account.AccountStatus status,
+            @RequestParam(required = false) Account.AccountType accountType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit) {
+        // Log request
+        loggingProducer.logRequest("GET /accounts?status=" + status + "&accountType=" + accountType
+                + "&cursor=" + cursor + "&limit=" + limit, "GET /accounts");
+
+        AccountPageDto response = accountService.listAccounts(status, accountType, createdFrom, createdTo,
+                cursor, limit);
+
+        // Log response
+        loggingProducer.logResponse("Page of " + response.getAccounts().size() + " accounts", "GET /accounts");
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<AccountLookupResponseDto> lookupAccounts(@Valid @RequestBody AccountLookupDto lookupDto) {
+        // Log request
+        loggingProducer.logRequest("Lookup of " + lookupDto.getAccountIds().size() + " accounts",
+                "POST /accounts/lookup");
+
+        AccountLookupResponseDto response = accountService.lookupAccounts(lookupDto.getAccountIds(),
+                lookupDto.isCompact());
+
+        // Log response
+        loggingProducer.logResponse("Missing: " + response.getMissing().size(), "POST /accounts/lookup");
+
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<BalanceAsOfDto> getBalanceAsOf(@PathVariable UUID accountId,
+                                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                         LocalDateTime asOf) {
+        // Log request
+        loggingProducer.logRequest("GET /accounts/" + accountId + "/balance?asOf=" + asOf,
+                "GET /accounts/{accountId}/balance");
+
+        BalanceAsOfDto response = balanceHistoryService.balanceAsOf(accountId, asOf);
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "GET /accounts/{accountId}/balance");
+
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/users/{userId}/accounts")
     public ResponseEntity<List<AccountResponseDto>> getUserAccounts(@PathVariable UUID userId) {
         // Log request
@@ -66,17 +179,203 @@ public class AccountController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/users/{userId}/accounts/summary")
+    public ResponseEntity<UserAccountSummaryDto> getUserAccountSummary(@PathVariable UUID userId) {
+        // Log request
+        loggingProducer.logRequest("GET /users/" + userId + "/accounts/summary", "GET /users/{userId}/accounts/summary");
+
+        UserAccountSummaryDto response = accountService.getUserAccountSummary(userId);
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "GET /users/{userId}/accounts/summary");
+
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/transfer")
-    public ResponseEntity<Map<String, String>> transferFunds(@Valid @RequestBody TransferDto transferDto) {
+    public ResponseEntity<Map<String, String>> transferFunds(@Valid @RequestBody TransferDto transferDto,
+                                                             @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                             String idempotencyKey) {
         // Log request
         loggingProducer.logRequest(transferDto.toString(), "PUT /accounts/transfer");
 
-        String message = accountService.transferFunds(transferDto);
-        Map<String, String> response = Map.of("message", message);
+        ResponseEntity<Map<String, String>> result = idempotencyService.execute("PUT /accounts/transfer",
+                idempotencyKey, transferDto, new TypeReference<Map<String, String>>() {},
+                () -> ResponseEntity.ok(Map.of("message", accountService.transferFunds(transferDto))));
 
         // Log response
-        loggingProducer.logResponse(response.toString(), "PUT /accounts/transfer");
+        loggingProducer.logResponse(String.valueOf(result.getBody()), "PUT /accounts/transfer");
+
+        return result;
+    }
+
+    @PutMapping("/transfer/batch")
+    public ResponseEntity<BatchTransferResponseDto> transferBatch(@Valid @RequestBody BatchTransferDto batchDto) {
+        // Log request
+        loggingProducer.logRequest("Batch of " + batchDto.getTransfers().size() + " transfers",
+                "PUT /accounts/transfer/batch");
+
+        BatchTransferResponseDto response = accountService.transferBatch(batchDto.getTransfers());
+
+        // Log response
+        loggingProducer.logResponse("Succeeded: " + response.getSucceeded() + ", failed: " + response.getFailed(),
+                "PUT /accounts/transfer/batch");
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    @PostMapping("/{accountId}/holds")
+    public ResponseEntity<HoldResponseDto> placeHold(@PathVariable UUID accountId,
+                                                     @Valid @RequestBody HoldRequestDto holdDto,
+                                                     @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                     String idempotencyKey) {
+        // Log request
+        loggingProducer.logRequest("Hold " + holdDto.getAmount() + " on account " + accountId,
+                "POST /accounts/{accountId}/holds");
+
+        ResponseEntity<HoldResponseDto> result = idempotencyService.execute("POST /accounts/" + accountId + "/holds",
+                idempotencyKey, holdDto, new TypeReference<HoldResponseDto>() {},
+                () -> new ResponseEntity<>(holdService.placeHold(accountId, holdDto), HttpStatus.CREATED));
+
+        // Log response
+        loggingProducer.logResponse(String.valueOf(result.getBody()), "POST /accounts/{accountId}/holds");
+
+        return result;
+    }
+
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<HoldResponseDto> getHold(@PathVariable UUID holdId) {
+        // Log request
+        loggingProducer.logRequest("GET /accounts/holds/" + holdId, "GET /accounts/holds/{holdId}");
+
+        HoldResponseDto response = holdService.getHold(holdId);
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "GET /accounts/holds/{holdId}");
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<Map<String, String>> captureHold(@PathVariable UUID holdId,
+                                                           @Valid @RequestBody HoldCaptureDto captureDto) {
+        // Log request
+        loggingProducer.logRequest("Capture hold " + holdId + " into " + captureDto.getToAccountId(),
+                "POST /accounts/holds/{holdId}/capture");
+
+        String message = holdService.captureHold(holdId, captureDto.getToAccountId());
+
+        // Log response
+        loggingProducer.logResponse(message, "POST /accounts/holds/{holdId}/capture");
+
+        return ResponseEntity.ok(Map.of("message", message));
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<HoldResponseDto> releaseHold(@PathVariable UUID holdId) {
+        // Log request
+        loggingProducer.logRequest("Release hold " + holdId, "DELETE /accounts/holds/{holdId}");
+
+        HoldResponseDto response = holdService.releaseHold(holdId);
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "DELETE /accounts/holds/{holdId}");
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{accountId}/balance-slots")
+    public ResponseEntity<AccountResponseDto> setBalanceSlots(@PathVariable UUID accountId,
+                                                              @Valid @RequestBody BalanceSlotsDto slotsDto) {
+        // Log request
+        loggingProducer.logRequest("Split account " + accountId + " into " + slotsDto.getSlots() + " slots",
+                "PUT /accounts/{accountId}/balance-slots");
+
+        AccountResponseDto response = accountService.setBalanceSlots(accountId, slotsDto.getSlots());
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "PUT /accounts/{accountId}/balance-slots");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Imports accounts from an NDJSON or CSV body. Per-record results are written
+     * back as NDJSON after each batch commits, followed by a summary line.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public void importAccounts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Log request
+        loggingProducer.logRequest("Import of " + request.getContentType(), "POST /accounts/import");
+
+        AccountImportService.Format format = request.getContentType().startsWith("text/csv")
+                ? AccountImportService.Format.CSV
+                : AccountImportService.Format.NDJSON;
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        OutputStream out = response.getOutputStream();
+        AccountImportSummaryDto summary = accountImportService.importAccounts(request.getInputStream(), format,
+                new AccountImportService.ResultSink() {
+                    @Override
+                    public void accept(AccountImportResultDto result) throws IOException {
+                        writeLine(out, result);
+                    }
+
+                    @Override
+                    public void batchCompleted() throws IOException {
+                        out.flush();
+                    }
+                });
+        writeLine(out, Map.of("summary", summary));
+        out.flush();
+
+        // Log response
+        loggingProducer.logResponse(summary.toString(), "POST /accounts/import");
+    }
+
+    @PostMapping("/snapshots")
+    public ResponseEntity<SnapshotExportDto> exportSnapshot() throws IOException {
+        // Log request
+        loggingProducer.logRequest("Export end-of-day balance snapshot", "POST /accounts/snapshots");
+
+        SnapshotExportDto response = eodSnapshotExporter.export();
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "POST /accounts/snapshots");
+
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    @GetMapping("/snapshots/{fileName}")
+    public ResponseEntity<Resource> downloadSnapshot(@PathVariable String fileName) {
+        // Log request
+        loggingProducer.logRequest("GET /accounts/snapshots/" + fileName, "GET /accounts/snapshots/{fileName}");
+
+        Path file = eodSnapshotExporter.resolve(fileName);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(new FileSystemResource(file));
+    }
+
+    @PostMapping("/interest/accruals")
+    public ResponseEntity<InterestAccrualRunDto> accrueInterest(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        // Log request
+        loggingProducer.logRequest("Accrue savings interest for " + date, "POST /accounts/interest/accruals");
+
+        InterestAccrualRunDto response = interestAccrualEngine.accrue(date);
+
+        // Log response
+        loggingProducer.logResponse(response.toString(), "POST /accounts/interest/accruals");
+
+        return ResponseEntity.ok(response);
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
@@ -2,6 +2,7 @@ package com.vbank.account.dto;
 
 import com.vbank.account.model.Account;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -15,6 +16,7 @@ public class AccountCreationDto {
 
     @NotNull(message = "Initial balance is required")
     @DecimalMin(value = "0.0", inclusive = true, message = "Initial balance cannot be negative")
+    @Digits(integer = 17, fraction = 2, message = "Initial balance cannot have more than 2 decimal places")
     private BigDecimal initialBalance;
 
     // Constructors
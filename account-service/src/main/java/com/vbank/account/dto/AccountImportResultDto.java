@@ -0,0 +1,41 @@
+package com.vbank.account.dto;
+
+import java.util.UUID;
+public class AccountImportResultDto {
+    private long line;
+    private boolean success;
+    private UUID accountId;
+    private String accountNumber;
+    private String message;
+
+    // Constructors
+    public AccountImportResultDto() {}
+
+    public AccountImportResultDto(long line, boolean success, UUID accountId, String accountNumber, String message) {
+        this.line = line;
+        this.success = success;
+        this.accountId = accountId;
+        this.accountNumber = accountNumber;
+        this.message = message;
+    }
+
+    public static AccountImportResultDto rejected(long line, String message) {
+        return new AccountImportResultDto(line, false, null, null, message);
+    }
+
+    // Getters and Setters
+    public long getLine() { return line; }
+    public void setLine(long line) { this.line = line; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public String getAccountNumber() { return accountNumber; }
+    public void setAccountNumber(String accountNumber) { this.accountNumber = accountNumber; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
@@ -0,0 +1,42 @@
+package com.vbank.account.dto;
+
+public class AccountImportSummaryDto {
+    private long total;
+    private long created;
+    private long rejected;
+    private long elapsedMillis;
+    private double recordsPerSecond;
+
+    // Constructors
+    public AccountImportSummaryDto() {}
+
+    public AccountImportSummaryDto(long created, long rejected, long elapsedMillis) {
+        this.total = created + rejected;
+        this.created = created;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.recordsPerSecond = elapsedMillis == 0 ? total : total * 1000.0 / elapsedMillis;
+    }
+
+    // Getters and Setters
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public long getCreated() { return created; }
+    public void setCreated(long created) { this.created = created; }
+
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRecordsPerSecond() { return recordsPerSecond; }
+    public void setRecordsPerSecond(double recordsPerSecond) { this.recordsPerSecond = recordsPerSecond; }
+
+    @Override
+    public String toString() {
+        return "Imported " + created + " of " + total + " accounts in " + elapsedMillis + " ms ("
+                + Math.round(recordsPerSecond) + " records/s)";
+    }
+}
@@ -0,0 +1,31 @@
+package com.vbank.account.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import java.util.UUID;
+public class AccountLookupDto {
+
+    @NotEmpty(message = "At least one account ID is required")
+    @Size(max = 1000, message = "A lookup cannot contain more than 1000 account IDs")
+    private List<@NotNull UUID> accountIds;
+
+    // Return only existence and status instead of full account views
+    private boolean compact;
+
+    // Constructors
+    public AccountLookupDto() {}
+
+    public AccountLookupDto(List<UUID> accountIds, boolean compact) {
+        this.accountIds = accountIds;
+        this.compact = compact;
+    }
+
+    // Getters and Setters
+    public List<UUID> getAccountIds() { return accountIds; }
+    public void setAccountIds(List<UUID> accountIds) { this.accountIds = accountIds; }
+
+    public boolean isCompact() { return compact; }
+    public void setCompact(boolean compact) { this.compact = compact; }
+}
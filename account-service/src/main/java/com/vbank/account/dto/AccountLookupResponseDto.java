@@ -0,0 +1,39 @@
+package com.vbank.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vbank.account.repository.AccountStatusView;
+import java.util.List;
+import java.util.UUID;
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AccountLookupResponseDto {
+    private List<AccountResponseDto> accounts;
+    private List<AccountStatusView> statuses;
+    private List<UUID> missing;
+
+    // Constructors
+    public AccountLookupResponseDto() {}
+
+    public static AccountLookupResponseDto full(List<AccountResponseDto> accounts, List<UUID> missing) {
+        AccountLookupResponseDto response = new AccountLookupResponseDto();
+        response.accounts = accounts;
+        response.missing = missing;
+        return response;
+    }
+
+    public static AccountLookupResponseDto compact(List<AccountStatusView> statuses, List<UUID> missing) {
+        AccountLookupResponseDto response = new AccountLookupResponseDto();
+        response.statuses = statuses;
+        response.missing = missing;
+        return response;
+    }
+
+    // Getters and Setters
+    public List<AccountResponseDto> getAccounts() { return accounts; }
+    public void setAccounts(List<AccountResponseDto> accounts) { this.accounts = accounts; }
+
+    public List<AccountStatusView> getStatuses() { return statuses; }
+    public void setStatuses(List<AccountStatusView> statuses) { this.statuses = statuses; }
+
+    public List<UUID> getMissing() { return missing; }
+    public void setMissing(List<UUID> missing) { this.missing = missing; }
+}
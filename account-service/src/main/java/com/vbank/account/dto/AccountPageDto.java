@@ -0,0 +1,23 @@
+package com.vbank.account.dto;
+
+import com.vbank.account.repository.AccountSummaryView;
+import java.util.List;
+public class AccountPageDto {
+    private List<AccountSummaryView> accounts;
+    private String nextCursor;
+
+    // Constructors
+    public AccountPageDto() {}
+
+    public AccountPageDto(List<AccountSummaryView> accounts, String nextCursor) {
+        this.accounts = accounts;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<AccountSummaryView> getAccounts() { return accounts; }
+    public void setAccounts(List<AccountSummaryView> accounts) { this.accounts = accounts; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
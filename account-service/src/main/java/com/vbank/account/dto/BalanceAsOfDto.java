@@ -0,0 +1,39 @@
+package com.vbank.account.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+public class BalanceAsOfDto {
+    private UUID accountId;
+    private LocalDateTime asOf;
+    private BigDecimal balance;
+    private LocalDateTime checkpointAt;
+
+    // Constructors
+    public BalanceAsOfDto() {}
+
+    public BalanceAsOfDto(UUID accountId, LocalDateTime asOf, BigDecimal balance, LocalDateTime checkpointAt) {
+        this.accountId = accountId;
+        this.asOf = asOf;
+        this.balance = balance;
+        this.checkpointAt = checkpointAt;
+    }
+
+    // Getters and Setters
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public LocalDateTime getAsOf() { return asOf; }
+    public void setAsOf(LocalDateTime asOf) { this.asOf = asOf; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+
+    public LocalDateTime getCheckpointAt() { return checkpointAt; }
+    public void setCheckpointAt(LocalDateTime checkpointAt) { this.checkpointAt = checkpointAt; }
+
+    @Override
+    public String toString() {
+        return "BalanceAsOfDto{accountId=" + accountId + ", asOf=" + asOf + ", balance=" + balance + "}";
+    }
+}
@@ -0,0 +1,21 @@
+package com.vbank.account.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+public class BalanceSlotsDto {
+
+    @Min(value = 1, message = "Slot count must be at least 1")
+    @Max(value = 64, message = "Slot count cannot exceed 64")
+    private int slots;
+
+    // Constructors
+    public BalanceSlotsDto() {}
+
+    public BalanceSlotsDto(int slots) {
+        this.slots = slots;
+    }
+
+    // Getters and Setters
+    public int getSlots() { return slots; }
+    public void setSlots(int slots) { this.slots = slots; }
+}
@@ -0,0 +1,23 @@
+package com.vbank.account.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+public class BatchTransferDto {
+
+    @NotEmpty(message = "At least one transfer is required")
+    @Size(max = 10000, message = "A batch cannot contain more than 10000 transfers")
+    private List<@Valid TransferDto> transfers;
+
+    // Constructors
+    public BatchTransferDto() {}
+
+    public BatchTransferDto(List<TransferDto> transfers) {
+        this.transfers = transfers;
+    }
+
+    // Getters and Setters
+    public List<TransferDto> getTransfers() { return transfers; }
+    public void setTransfers(List<TransferDto> transfers) { this.transfers = transfers; }
+}
@@ -0,0 +1,27 @@
+package com.vbank.account.dto;
+
+import java.util.List;
+public class BatchTransferResponseDto {
+    private int succeeded;
+    private int failed;
+    private List<TransferLegResultDto> results;
+
+    // Constructors
+    public BatchTransferResponseDto() {}
+
+    public BatchTransferResponseDto(List<TransferLegResultDto> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(TransferLegResultDto::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    // Getters and Setters
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<TransferLegResultDto> getResults() { return results; }
+    public void setResults(List<TransferLegResultDto> results) { this.results = results; }
+}
@@ -0,0 +1,20 @@
+package com.vbank.account.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.UUID;
+public class HoldCaptureDto {
+
+    @NotNull(message = "To account ID is required")
+    private UUID toAccountId;
+
+    // Constructors
+    public HoldCaptureDto() {}
+
+    public HoldCaptureDto(UUID toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    // Getters and Setters
+    public UUID getToAccountId() { return toAccountId; }
+    public void setToAccountId(UUID toAccountId) { this.toAccountId = toAccountId; }
+}
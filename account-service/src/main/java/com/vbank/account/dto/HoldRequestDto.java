@@ -0,0 +1,33 @@
+package com.vbank.account.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import java.math.BigDecimal;
+public class HoldRequestDto {
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    // Optional; the configured default applies when absent
+    @Min(value = 1, message = "Hold TTL must be at least 1 second")
+    @Max(value = 604800, message = "Hold TTL cannot exceed 7 days")
+    private Integer ttlSeconds;
+
+    // Constructors
+    public HoldRequestDto() {}
+
+    public HoldRequestDto(BigDecimal amount, Integer ttlSeconds) {
+        this.amount = amount;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    // Getters and Setters
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public Integer getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Integer ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+}
@@ -0,0 +1,59 @@
+package com.vbank.account.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.vbank.account.model.FundsHold;
+import com.vbank.account.model.FundsHold.HoldStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HoldResponseDto {
+    private UUID holdId;
+    private UUID accountId;
+    private BigDecimal amount;
+    private HoldStatus status;
+    private LocalDateTime expiresAt;
+    private LocalDateTime settledAt;
+    private UUID capturedToAccountId;
+
+    // Constructors
+    public HoldResponseDto() {}
+
+    public HoldResponseDto(FundsHold hold) {
+        this.holdId = hold.getId();
+        this.accountId = hold.getAccountId();
+        this.amount = hold.getAmount();
+        this.status = hold.getStatus();
+        this.expiresAt = hold.getExpiresAt();
+        this.settledAt = hold.getSettledAt();
+        this.capturedToAccountId = hold.getCapturedToAccountId();
+    }
+
+    // Getters and Setters
+    public UUID getHoldId() { return holdId; }
+    public void setHoldId(UUID holdId) { this.holdId = holdId; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) { this.status = status; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getSettledAt() { return settledAt; }
+    public void setSettledAt(LocalDateTime settledAt) { this.settledAt = settledAt; }
+
+    public UUID getCapturedToAccountId() { return capturedToAccountId; }
+    public void setCapturedToAccountId(UUID capturedToAccountId) { this.capturedToAccountId = capturedToAccountId; }
+
+    @Override
+    public String toString() {
+        return "Hold " + holdId + " on " + accountId + " for " + amount + " is " + status;
+    }
+}
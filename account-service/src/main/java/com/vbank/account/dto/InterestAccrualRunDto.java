@@ -0,0 +1,45 @@
+package com.vbank.account.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class InterestAccrualRunDto {
+    private LocalDate runDate;
+    private long rows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<InterestPartitionResultDto> partitions;
+
+    // Constructors
+    public InterestAccrualRunDto() {}
+
+    public InterestAccrualRunDto(LocalDate runDate, List<InterestPartitionResultDto> partitions, long elapsedMillis) {
+        this.runDate = runDate;
+        this.partitions = partitions;
+        this.rows = partitions.stream().mapToLong(InterestPartitionResultDto::getRows).sum();
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    // Getters and Setters
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    public List<InterestPartitionResultDto> getPartitions() { return partitions; }
+    public void setPartitions(List<InterestPartitionResultDto> partitions) { this.partitions = partitions; }
+
+    @Override
+    public String toString() {
+        return "Accrued interest for " + runDate + " on " + rows + " accounts across " + partitions.size()
+                + " partitions in " + elapsedMillis + " ms";
+    }
+}
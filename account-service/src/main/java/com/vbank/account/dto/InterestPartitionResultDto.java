@@ -0,0 +1,60 @@
+package com.vbank.account.dto;
+
+import java.util.UUID;
+
+public class InterestPartitionResultDto {
+    private int partition;
+    private UUID fromId;
+    private UUID toId;
+    private String worker;
+    private boolean resumed;
+    private long rows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    // Constructors
+    public InterestPartitionResultDto() {}
+
+    public InterestPartitionResultDto(int partition, UUID fromId, UUID toId, String worker, boolean resumed,
+                                      long rows, long elapsedMillis) {
+        this.partition = partition;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.worker = worker;
+        this.resumed = resumed;
+        this.rows = rows;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    // Getters and Setters
+    public int getPartition() { return partition; }
+    public void setPartition(int partition) { this.partition = partition; }
+
+    public UUID getFromId() { return fromId; }
+    public void setFromId(UUID fromId) { this.fromId = fromId; }
+
+    public UUID getToId() { return toId; }
+    public void setToId(UUID toId) { this.toId = toId; }
+
+    public String getWorker() { return worker; }
+    public void setWorker(String worker) { this.worker = worker; }
+
+    public boolean isResumed() { return resumed; }
+    public void setResumed(boolean resumed) { this.resumed = resumed; }
+
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    @Override
+    public String toString() {
+        return "Interest partition " + partition + " on " + worker + ": " + rows + " accounts in "
+                + elapsedMillis + " ms (" + Math.round(rowsPerSecond) + " rows/s)" + (resumed ? ", resumed" : "");
+    }
+}
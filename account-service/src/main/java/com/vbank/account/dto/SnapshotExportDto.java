@@ -0,0 +1,41 @@
+package com.vbank.account.dto;
+
+public class SnapshotExportDto {
+    private String fileName;
+    private long rows;
+    private long bytes;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+
+    // Constructors
+    public SnapshotExportDto() {}
+
+    public SnapshotExportDto(String fileName, long rows, long bytes, long elapsedMillis) {
+        this.fileName = fileName;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+
+    // Getters and Setters
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+
+    public long getRows() { return rows; }
+    public void setRows(long rows) { this.rows = rows; }
+
+    public long getBytes() { return bytes; }
+    public void setBytes(long bytes) { this.bytes = bytes; }
+
+    public long getElapsedMillis() { return elapsedMillis; }
+    public void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+    public double getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(double rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+
+    @Override
+    public String toString() {
+        return "Exported " + rows + " balances to " + fileName + " (" + bytes + " bytes) in " + elapsedMillis + " ms";
+    }
+}
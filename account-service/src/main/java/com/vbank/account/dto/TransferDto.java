@@ -1,6 +1,7 @@
 package com.vbank.account.dto;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.util.UUID;
@@ -14,6 +15,7 @@ public class TransferDto {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 17, fraction = 2, message = "Amount cannot have more than 2 decimal places")
     private BigDecimal amount;
 
     // Constructors
@@ -0,0 +1,44 @@
+package com.vbank.account.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+public class TransferLegResultDto {
+    private int index;
+    private UUID fromAccountId;
+    private UUID toAccountId;
+    private BigDecimal amount;
+    private boolean success;
+    private String message;
+
+    // Constructors
+    public TransferLegResultDto() {}
+
+    public TransferLegResultDto(int index, UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                boolean success, String message) {
+        this.index = index;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.success = success;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public int getIndex() { return index; }
+    public void setIndex(int index) { this.index = index; }
+
+    public UUID getFromAccountId() { return fromAccountId; }
+    public void setFromAccountId(UUID fromAccountId) { this.fromAccountId = fromAccountId; }
+
+    public UUID getToAccountId() { return toAccountId; }
+    public void setToAccountId(UUID toAccountId) { this.toAccountId = toAccountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
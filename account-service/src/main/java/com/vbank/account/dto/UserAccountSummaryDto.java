@@ -0,0 +1,43 @@
+package com.vbank.account.dto;
+
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.Account.AccountType;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+public class UserAccountSummaryDto {
+    private UUID userId;
+    private long accountCount;
+    private Map<AccountType, BigDecimal> balancesByType;
+    private Map<AccountStatus, Long> countsByStatus;
+
+    // Constructors
+    public UserAccountSummaryDto() {}
+
+    public UserAccountSummaryDto(UUID userId, long accountCount, Map<AccountType, BigDecimal> balancesByType,
+                                 Map<AccountStatus, Long> countsByStatus) {
+        this.userId = userId;
+        this.accountCount = accountCount;
+        this.balancesByType = balancesByType;
+        this.countsByStatus = countsByStatus;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public long getAccountCount() { return accountCount; }
+    public void setAccountCount(long accountCount) { this.accountCount = accountCount; }
+
+    public Map<AccountType, BigDecimal> getBalancesByType() { return balancesByType; }
+    public void setBalancesByType(Map<AccountType, BigDecimal> balancesByType) { this.balancesByType = balancesByType; }
+
+    public Map<AccountStatus, Long> getCountsByStatus() { return countsByStatus; }
+    public void setCountsByStatus(Map<AccountStatus, Long> countsByStatus) { this.countsByStatus = countsByStatus; }
+
+    @Override
+    public String toString() {
+        return "UserAccountSummaryDto{userId=" + userId + ", accountCount=" + accountCount +
+                ", balancesByType=" + balancesByType + ", countsByStatus=" + countsByStatus + "}";
+    }
+}
@@ -0,0 +1,7 @@
+package com.vbank.account.exception;
+
+public class InvalidAccountOperationException extends RuntimeException {
+    public InvalidAccountOperationException(String message) {
+        super(message);
+    }
+}
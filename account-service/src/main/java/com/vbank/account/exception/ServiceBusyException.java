@@ -0,0 +1,7 @@
+package com.vbank.account.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
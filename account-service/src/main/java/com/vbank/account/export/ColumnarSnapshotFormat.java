@@ -0,0 +1,48 @@
+package com.vbank.account.export;
+
+/**
+ * Layout of end-of-day balance snapshot files.
+ *
+ * <pre>
+ * header:  magic "VBEODCOL" (8) | format version (4) | created epoch millis (8)
+ * body:    row groups; each row group holds one deflate-compressed chunk per column,
+ *          written in {@link Column} order
+ * footer:  column count (4) | row group count (4) | per row group: row count (4) and,
+ *          per column: offset (8), compressed length (4), min (8), max (8)
+ * trailer: crc32c of the footer (4) | footer offset (8) | magic (8)
+ * </pre>
+ *
+ * All values are big-endian and every column is fixed width, so an
+ * uncompressed chunk of n rows is exactly n * width bytes. Readers map the file,
+ * read the trailer and footer, and only inflate the chunks whose min/max
+ * statistics they need.
+ */
+public final class ColumnarSnapshotFormat {
+
+    public static final long MAGIC = 0x5642454F44434F4CL; // "VBEODCOL"
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 8 + 4 + 8;
+    public static final int TRAILER_BYTES = 4 + 8 + 8;
+
+    private ColumnarSnapshotFormat() {}
+
+    public enum Column {
+        // Statistics on the high half of a UUIDv7 id bound the creation time of the rows in a chunk
+        ID_HIGH(8),
+        ID_LOW(8),
+        ACCOUNT_NUMBER(8),
+        ACCOUNT_TYPE(1),
+        STATUS(1),
+        BALANCE_MINOR(8);
+
+        private final int width;
+
+        Column(int width) {
+            this.width = width;
+        }
+
+        public int width() {
+            return width;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.vbank.account.export;
+
+import com.vbank.account.export.ColumnarSnapshotFormat.Column;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Memory-maps a {@link ColumnarSnapshotFormat} file for downstream readers.
+ * Only the footer is parsed up front; column chunks are inflated on demand.
+ */
+public class ColumnarSnapshotReader implements AutoCloseable {
+
+    private static final int COLUMN_META_BYTES = 8 + 4 + 8 + 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int columnCount;
+    private final int rowGroupCount;
+    private final int footerStart;
+    private final int[] rowGroupStarts;
+
+    public ColumnarSnapshotReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+        int trailer = map.limit() - ColumnarSnapshotFormat.TRAILER_BYTES;
+        if (map.getLong(0) != ColumnarSnapshotFormat.MAGIC
+                || map.getLong(trailer + 12) != ColumnarSnapshotFormat.MAGIC) {
+            throw new IOException("Not a columnar balance snapshot: " + file);
+        }
+        footerStart = (int) map.getLong(trailer + 4);
+        CRC32C crc = new CRC32C();
+        crc.update(map.slice(footerStart, trailer - footerStart));
+        if ((int) crc.getValue() != map.getInt(trailer)) {
+            throw new IOException("Corrupt footer in " + file);
+        }
+
+        columnCount = map.getInt(footerStart);
+        rowGroupCount = map.getInt(footerStart + 4);
+        rowGroupStarts = new int[rowGroupCount];
+        int position = footerStart + 8;
+        for (int g = 0; g < rowGroupCount; g++) {
+            rowGroupStarts[g] = position;
+            position += 4 + columnCount * COLUMN_META_BYTES;
+        }
+    }
+
+    public int rowGroupCount() {
+        return rowGroupCount;
+    }
+
+    public int rowCount(int rowGroup) {
+        return map.getInt(rowGroupStarts[rowGroup]);
+    }
+
+    public long min(int rowGroup, Column column) {
+        return map.getLong(columnMeta(rowGroup, column) + 12);
+    }
+
+    public long max(int rowGroup, Column column) {
+        return map.getLong(columnMeta(rowGroup, column) + 20);
+    }
+
+    /**
+     * Inflates one column chunk. Values are fixed width: read them with getLong or get.
+     */
+    public ByteBuffer readColumn(int rowGroup, Column column) throws IOException {
+        int meta = columnMeta(rowGroup, column);
+        int offset = (int) map.getLong(meta);
+        int length = map.getInt(meta + 8);
+        ByteBuffer values = ByteBuffer.allocate(rowCount(rowGroup) * column.width());
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(map.slice(offset, length));
+            while (values.hasRemaining() && !inflater.finished()) {
+                inflater.inflate(values);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt column chunk " + column + " in row group " + rowGroup, e);
+        } finally {
+            inflater.end();
+        }
+        return values.flip();
+    }
+
+    private int columnMeta(int rowGroup, Column column) {
+        return rowGroupStarts[rowGroup] + 4 + column.ordinal() * COLUMN_META_BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
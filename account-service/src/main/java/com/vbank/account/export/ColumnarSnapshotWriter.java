@@ -0,0 +1,226 @@
+package com.vbank.account.export;
+
+import com.vbank.account.export.ColumnarSnapshotFormat.Column;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a {@link ColumnarSnapshotFormat} file. Rows are buffered column-wise
+ * for one row group at a time, so memory use is fixed by the row group size.
+ * The file is written under a temporary name and renamed once complete.
+ */
+public class ColumnarSnapshotWriter implements AutoCloseable {
+
+    private static final Column[] COLUMNS = Column.values();
+
+    private final Path target;
+    private final Path temp;
+    private final CountingOutputStream counter;
+    private final DataOutputStream out;
+    private final int rowGroupSize;
+    private final Deflater deflater;
+    private final byte[] deflateBuffer = new byte[1 << 16];
+
+    // One row group, stored column by column
+    private final ByteBuffer[] columns = new ByteBuffer[COLUMNS.length];
+    private final long[] min = new long[COLUMNS.length];
+    private final long[] max = new long[COLUMNS.length];
+    private int rows;
+
+    private final List<RowGroupMeta> rowGroups = new ArrayList<>();
+    private long totalRows;
+    private boolean committed;
+
+    public ColumnarSnapshotWriter(Path target, int rowGroupSize, int compressionLevel) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.rowGroupSize = rowGroupSize;
+        this.deflater = new Deflater(compressionLevel);
+        for (Column column : COLUMNS) {
+            columns[column.ordinal()] = ByteBuffer.allocate(rowGroupSize * column.width());
+        }
+        resetStats();
+
+        this.counter = new CountingOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16));
+        this.out = new DataOutputStream(counter);
+        out.writeLong(ColumnarSnapshotFormat.MAGIC);
+        out.writeInt(ColumnarSnapshotFormat.VERSION);
+        out.writeLong(System.currentTimeMillis());
+    }
+
+    public void write(UUID accountId, long accountNumber, int accountType, int status, long balanceMinor)
+            throws IOException {
+        put(Column.ID_HIGH, accountId.getMostSignificantBits());
+        put(Column.ID_LOW, accountId.getLeastSignificantBits());
+        put(Column.ACCOUNT_NUMBER, accountNumber);
+        put(Column.ACCOUNT_TYPE, accountType);
+        put(Column.STATUS, status);
+        put(Column.BALANCE_MINOR, balanceMinor);
+        rows++;
+        totalRows++;
+        if (rows == rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    private void put(Column column, long value) {
+        int i = column.ordinal();
+        if (column.width() == 1) {
+            columns[i].put((byte) value);
+        } else {
+            columns[i].putLong(value);
+        }
+        if (value < min[i]) {
+            min[i] = value;
+        }
+        if (value > max[i]) {
+            max[i] = value;
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        RowGroupMeta meta = new RowGroupMeta(rows, COLUMNS.length);
+        for (Column column : COLUMNS) {
+            int i = column.ordinal();
+            ByteBuffer buffer = columns[i];
+            meta.offsets[i] = counter.count;
+            deflater.reset();
+            deflater.setInput(buffer.array(), 0, buffer.position());
+            deflater.finish();
+            int compressed = 0;
+            while (!deflater.finished()) {
+                int n = deflater.deflate(deflateBuffer);
+                out.write(deflateBuffer, 0, n);
+                compressed += n;
+            }
+            meta.lengths[i] = compressed;
+            meta.min[i] = min[i];
+            meta.max[i] = max[i];
+            buffer.clear();
+        }
+        rowGroups.add(meta);
+        rows = 0;
+        resetStats();
+    }
+
+    private void resetStats() {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            min[i] = Long.MAX_VALUE;
+            max[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Writes the footer, forces the file to disk and moves it to its final name.
+     *
+     * @return number of rows written
+     */
+    public long commit() throws IOException {
+        flushRowGroup();
+
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream(16 + rowGroups.size() * (4 + COLUMNS.length * 28));
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(COLUMNS.length);
+        footer.writeInt(rowGroups.size());
+        for (RowGroupMeta meta : rowGroups) {
+            footer.writeInt(meta.rows);
+            for (int i = 0; i < COLUMNS.length; i++) {
+                footer.writeLong(meta.offsets[i]);
+                footer.writeInt(meta.lengths[i]);
+                footer.writeLong(meta.min[i]);
+                footer.writeLong(meta.max[i]);
+            }
+        }
+        byte[] footerArray = footerBytes.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(footerArray);
+
+        long footerOffset = counter.count;
+        out.write(footerArray);
+        out.writeInt((int) crc.getValue());
+        out.writeLong(footerOffset);
+        out.writeLong(ColumnarSnapshotFormat.MAGIC);
+        out.close();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        committed = true;
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!committed) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class RowGroupMeta {
+        final int rows;
+        final long[] offsets;
+        final int[] lengths;
+        final long[] min;
+        final long[] max;
+
+        RowGroupMeta(int rows, int columns) {
+            this.rows = rows;
+            this.offsets = new long[columns];
+            this.lengths = new int[columns];
+            this.min = new long[columns];
+            this.max = new long[columns];
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private final OutputStream delegate;
+        long count;
+
+        CountingOutputStream(OutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
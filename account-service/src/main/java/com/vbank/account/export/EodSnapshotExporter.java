@@ -0,0 +1,189 @@
+package com.vbank.account.export;
+
+import com.vbank.account.dto.SnapshotExportDto;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.model.Account;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Exports every account balance to a columnar snapshot file. Rows are
+ * streamed from a forward-only cursor inside one read-only, repeatable-read
+ * transaction, so the file is a consistent point-in-time view and memory use
+ * does not depend on the number of accounts.
+ *
+ * With several shards each shard is read in its own transaction, one after
+ * the other, so the view is consistent per shard only; a cross-shard
+ * transfer committed in between may show on its debit side alone.
+ *
+ * With the balance ledger enabled the rows lag the ledger, so balances come
+ * from one copy of the ledger taken before the first shard is read instead.
+ */
+@Service
+public class EodSnapshotExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EodSnapshotExporter.class);
+
+    private static final String PREFIX = "eod-";
+    private static final String SUFFIX = ".vbcol";
+    private static final Pattern FILE_NAME = Pattern.compile("eod-\\d{8}-\\d{6}\\.vbcol");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Hot accounts keep their balance in slot rows, so those are summed in
+    private static final String SELECT_BALANCES =
+            "SELECT a.id, a.account_number, a.account_type, a.status, a.balance + COALESCE(s.total, 0) " +
+                    "FROM accounts a LEFT JOIN (SELECT account_id, SUM(balance) AS total " +
+                    "FROM account_balance_slots GROUP BY account_id) s ON s.account_id = a.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.eod-export.dir:./data/eod}")
+    private String directory;
+
+    @Value("${vbank.account.eod-export.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${vbank.account.eod-export.row-group-size:65536}")
+    private int rowGroupSize;
+
+    @Value("${vbank.account.eod-export.compression-level:1}")
+    private int compressionLevel;
+
+    @Value("${vbank.account.eod-export.retained:7}")
+    private int retained;
+
+    private TransactionTemplate snapshotTemplate;
+    private Timer exportTimer;
+
+    @PostConstruct
+    void init() {
+        snapshotTemplate = new TransactionTemplate(transactionManager);
+        snapshotTemplate.setReadOnly(true);
+        snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        exportTimer = Timer.builder("account.eod.export")
+                .description("Duration of end-of-day balance snapshot exports")
+                .register(meterRegistry);
+    }
+
+    public synchronized SnapshotExportDto export() throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        String fileName = PREFIX + LocalDateTime.now().format(STAMP) + SUFFIX;
+        Path target = dir.resolve(fileName);
+
+        long start = System.nanoTime();
+        long rows;
+        try (ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(target, rowGroupSize, compressionLevel)) {
+            try {
+                BalanceLedger.BalanceView ledgerView = balanceLedger != null ? balanceLedger.snapshotBalances() : null;
+                for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                    shardRouter.onShard(shard, () -> exportShard(writer, ledgerView));
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            rows = writer.commit();
+        }
+        long elapsed = System.nanoTime() - start;
+        exportTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("account.eod.export.rows").increment(rows);
+        pruneOldExports(dir);
+
+        SnapshotExportDto result = new SnapshotExportDto(fileName, rows, Files.size(target),
+                TimeUnit.NANOSECONDS.toMillis(elapsed));
+        logger.info("{}", result);
+        return result;
+    }
+
+    private void exportShard(ColumnarSnapshotWriter writer, BalanceLedger.BalanceView ledgerView) {
+        snapshotTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BALANCES);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            BigDecimal balance = rs.getBigDecimal(5);
+            if (ledgerView != null) {
+                // The ledger is ahead of the write-behind rows
+                BigDecimal ledgerBalance = ledgerView.balanceOf(id);
+                if (ledgerBalance != null) {
+                    balance = ledgerBalance;
+                }
+            }
+            try {
+                writer.write(id,
+                        Long.parseLong(rs.getString(2)),
+                        Account.AccountType.valueOf(rs.getString(3)).ordinal(),
+                        Account.AccountStatus.valueOf(rs.getString(4)).ordinal(),
+                        BalanceLedger.toMinorUnits(balance));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }));
+    }
+
+    /**
+     * Resolves a previously exported file, rejecting anything that is not an export file name.
+     */
+    public Path resolve(String fileName) {
+        Path file = Paths.get(directory).resolve(fileName);
+        if (!FILE_NAME.matcher(fileName).matches() || !Files.isRegularFile(file)) {
+            throw new AccountNotFoundException("Snapshot " + fileName + " not found.");
+        }
+        return file;
+    }
+
+    private void pruneOldExports(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(p -> FILE_NAME.matcher(p.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < files.size() - retained; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.vbank.account.history;
+
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.outbox.AccountEventOutbox;
+import com.vbank.account.summary.UserAccountTotals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Appends balance changes to balance_history and, when account events are
+ * enabled, to the event outbox, and applies them to the per-user totals.
+ * Callers record inside the transaction that changes the balance, so all of
+ * these commit or roll back together with it.
+ */
+@Component
+public class BalanceHistoryRecorder {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO balance_history (account_id, recorded_at, amount) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserAccountTotals userAccountTotals;
+
+    @Autowired(required = false)
+    private AccountEventOutbox eventOutbox;
+
+    @Value("${vbank.account.history.enabled:true}")
+    private boolean enabled;
+
+    public void record(UUID accountId, BigDecimal delta, LocalDateTime at) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        long amount = BalanceLedger.toMinorUnits(delta);
+        if (enabled) {
+            jdbcTemplate.update(INSERT_SQL, accountId, Timestamp.valueOf(at), amount);
+        }
+        List<Change> changes = List.of(new Change(accountId, at, amount));
+        userAccountTotals.balanceChanged(changes);
+        if (eventOutbox != null) {
+            eventOutbox.balanceChanged(changes);
+        }
+    }
+
+    public void recordAll(Map<UUID, BigDecimal> deltas, LocalDateTime at) {
+        List<Change> changes = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> changes.add(new Change(accountId, at, BalanceLedger.toMinorUnits(delta))));
+        recordMinorUnits(changes);
+    }
+
+    /**
+     * Records already-timestamped changes in minor units, as produced by the ledger write-behind.
+     */
+    public void recordMinorUnits(List<Change> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        if (enabled) {
+            List<Object[]> args = new ArrayList<>(changes.size());
+            for (Change change : changes) {
+                if (change.amount() != 0) {
+                    args.add(new Object[]{change.accountId(), Timestamp.valueOf(change.at()), change.amount()});
+                }
+            }
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            }
+        }
+        userAccountTotals.balanceChanged(changes);
+        if (eventOutbox != null) {
+            eventOutbox.balanceChanged(changes);
+        }
+    }
+
+    public record Change(UUID accountId, LocalDateTime at, long amount) {}
+}
@@ -0,0 +1,135 @@
+package com.vbank.account.history;
+
+import com.vbank.account.dto.BalanceAsOfDto;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.model.Account;
+import com.vbank.account.model.BalanceCheckpoint;
+import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.repository.BalanceCheckpointRepository;
+import com.vbank.account.repository.BalanceHistoryRepository;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answers point-in-time balance queries from balance_history. Periodic
+ * checkpoints hold the running balance per account, so a query is an index
+ * seek to the latest checkpoint at or before the requested instant plus a
+ * sum over the entries recorded after it. History and checkpoints live on
+ * the account's shard.
+ */
+@Service
+public class BalanceHistoryService {
+
+    // Lower bound for accounts that have no checkpoint yet
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceHistoryRepository historyRepository;
+
+    @Autowired
+    private BalanceCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.history.checkpoint-every:256}")
+    private int checkpointEvery;
+
+    @Value("${vbank.account.history.checkpoint-batch-size:500}")
+    private int checkpointBatchSize;
+
+    private DistributionSummary replayedEntries;
+
+    @PostConstruct
+    void initMetrics() {
+        replayedEntries = DistributionSummary.builder("account.history.replayed")
+                .description("History entries summed after the nearest checkpoint per as-of query")
+                .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public BalanceAsOfDto balanceAsOf(UUID accountId, LocalDateTime asOf) {
+        // The read-only transaction has not touched the database yet, so it can still be pinned
+        return shardRouter.onAccount(accountId, () -> readBalanceAsOf(accountId, asOf));
+    }
+
+    private BalanceAsOfDto readBalanceAsOf(UUID accountId, LocalDateTime asOf) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account with ID " + accountId + " not found."));
+        if (asOf.isBefore(account.getCreatedAt())) {
+            throw new InvalidAccountOperationException("Account " + accountId + " did not exist at " + asOf + ".");
+        }
+
+        BalanceCheckpoint checkpoint = checkpointRepository
+                .findTopByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, asOf)
+                .orElse(null);
+        LocalDateTime from = checkpoint == null ? EPOCH : checkpoint.getAsOf();
+        long base = checkpoint == null ? 0L : checkpoint.getBalance();
+
+        long balance = base + historyRepository.sumBetween(accountId, from, asOf);
+        replayedEntries.record(historyRepository.countBetween(accountId, from, asOf));
+        return new BalanceAsOfDto(accountId, asOf, BalanceLedger.fromMinorUnits(balance), from == EPOCH ? null : from);
+    }
+
+    /**
+     * Writes a new checkpoint at {@code upTo} for every account with at least
+     * checkpoint-every entries since its previous one.
+     *
+     * @return number of checkpoints written
+     */
+    public int checkpoint(LocalDateTime upTo) {
+        return shardRouter.onEachShard(shard -> checkpointShard(upTo))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int checkpointShard(LocalDateTime upTo) {
+        int written = 0;
+        while (true) {
+            List<UUID> candidates = historyRepository.findCheckpointCandidates(upTo, EPOCH, checkpointEvery,
+                    PageRequest.of(0, checkpointBatchSize));
+            if (candidates.isEmpty()) {
+                return written;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                for (UUID accountId : candidates) {
+                    BalanceCheckpoint previous = checkpointRepository
+                            .findTopByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(accountId, upTo)
+                            .orElse(null);
+                    LocalDateTime from = previous == null ? EPOCH : previous.getAsOf();
+                    long base = previous == null ? 0L : previous.getBalance();
+                    long balance = base + historyRepository.sumBetween(accountId, from, upTo);
+                    checkpointRepository.save(new BalanceCheckpoint(accountId, upTo, balance));
+                }
+            });
+            written += candidates.size();
+            if (candidates.size() < checkpointBatchSize) {
+                return written;
+            }
+        }
+    }
+}
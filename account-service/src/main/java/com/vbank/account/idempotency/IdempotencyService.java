@@ -0,0 +1,208 @@
+package com.vbank.account.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vbank.account.exception.IdempotencyConflictException;
+import com.vbank.account.exception.IdempotencyKeyReuseException;
+import com.vbank.account.model.IdempotencyRecord;
+import com.vbank.account.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Makes mutating endpoints safe to retry. The first request carrying an
+ * Idempotency-Key runs normally and its response is stored; repeats within
+ * the retention window get the stored response without re-executing.
+ *
+ * A failed request releases its key, since its transaction rolled back and
+ * running it again is safe.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${vbank.account.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    @Value("${vbank.account.idempotency.stripes:64}")
+    private int stripes;
+
+    @Value("${vbank.account.idempotency.persistent:false}")
+    private boolean persistent;
+
+    private IdempotencyStore store;
+    private TransactionTemplate requiresNew;
+
+    @PostConstruct
+    void init() {
+        store = new IdempotencyStore(stripes, maxEntries, ttlSeconds * 1000);
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("account.idempotency.store.size", store, IdempotencyStore::size)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code action} at most once per key and scope. A null key disables idempotency.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, TypeReference<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String scopedKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        IdempotencyStore.Result result = store.claim(scopedKey, fingerprint);
+        if (result.outcome() == IdempotencyStore.Outcome.CLAIMED && persistent) {
+            result = claimPersistent(scopedKey, fingerprint);
+        }
+
+        switch (result.outcome()) {
+            case REPLAY:
+                record("replayed");
+                return replay(result.entry(), responseType);
+            case IN_PROGRESS:
+                record("conflict");
+                throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress.");
+            case MISMATCH:
+                record("mismatch");
+                throw new IdempotencyKeyReuseException("Idempotency-Key was already used with a different request.");
+            default:
+                break;
+        }
+
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(scopedKey);
+            throw e;
+        }
+
+        String body = toJson(response.getBody());
+        store.complete(scopedKey, response.getStatusCode().value(), body);
+        if (persistent) {
+            requiresNew.executeWithoutResult(status ->
+                    recordRepository.complete(scopedKey, response.getStatusCode().value(), body));
+        }
+        record("executed");
+        return response;
+    }
+
+    private IdempotencyStore.Result claimPersistent(String scopedKey, String fingerprint) {
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(ttlSeconds);
+        try {
+            requiresNew.executeWithoutResult(status -> recordRepository.claim(scopedKey, fingerprint, expiresAt));
+            return new IdempotencyStore.Result(IdempotencyStore.Outcome.CLAIMED, null);
+        } catch (DataIntegrityViolationException e) {
+            // Another replica, or an earlier run of this one, owns the key
+        }
+
+        Optional<IdempotencyRecord> existing = requiresNew.execute(status -> recordRepository.findById(scopedKey));
+        if (existing == null || existing.isEmpty()) {
+            store.release(scopedKey);
+            return new IdempotencyStore.Result(IdempotencyStore.Outcome.IN_PROGRESS, null);
+        }
+        IdempotencyRecord stored = existing.get();
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            store.release(scopedKey);
+            return new IdempotencyStore.Result(IdempotencyStore.Outcome.MISMATCH, null);
+        }
+        if (!stored.isCompleted()) {
+            store.release(scopedKey);
+            return new IdempotencyStore.Result(IdempotencyStore.Outcome.IN_PROGRESS, null);
+        }
+        store.complete(scopedKey, stored.getStatusCode(), stored.getResponseBody());
+        IdempotencyStore.Entry entry = new IdempotencyStore.Entry(fingerprint, 0L);
+        entry.completed = true;
+        entry.statusCode = stored.getStatusCode();
+        entry.body = stored.getResponseBody();
+        return new IdempotencyStore.Result(IdempotencyStore.Outcome.REPLAY, entry);
+    }
+
+    private void release(String scopedKey) {
+        store.release(scopedKey);
+        if (persistent) {
+            requiresNew.executeWithoutResult(status -> recordRepository.deleteById(scopedKey));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.idempotency.cleanup-interval-ms:300000}")
+    public void deleteExpiredRecords() {
+        if (persistent) {
+            requiresNew.executeWithoutResult(status -> recordRepository.deleteExpired(LocalDateTime.now()));
+        }
+    }
+
+    private <T> ResponseEntity<T> replay(IdempotencyStore.Entry entry, TypeReference<T> responseType) {
+        try {
+            T body = entry.body == null ? null : objectMapper.readValue(entry.body, responseType);
+            return ResponseEntity.status(HttpStatus.valueOf(entry.statusCode))
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request or response", e);
+        }
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("account.idempotency.requests", "outcome", outcome).increment();
+    }
+}
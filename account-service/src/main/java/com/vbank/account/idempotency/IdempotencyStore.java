@@ -0,0 +1,136 @@
+package com.vbank.account.idempotency;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, lock-striped in-memory map of idempotency keys to stored responses.
+ * Each stripe is an insertion-ordered map, so with a fixed TTL the oldest
+ * entries are always at the head and expiry is a cheap prefix scan.
+ */
+class IdempotencyStore {
+
+    enum Outcome { CLAIMED, REPLAY, IN_PROGRESS, MISMATCH }
+
+    record Result(Outcome outcome, Entry entry) {}
+
+    static final class Entry {
+        final String fingerprint;
+        final long expiresAtMillis;
+        boolean completed;
+        int statusCode;
+        String body;
+
+        Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final long ttlMillis;
+
+    IdempotencyStore(int stripeCount, int maxEntries, long ttlMillis) {
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = Math.max(1, maxEntries / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+        this.ttlMillis = ttlMillis;
+    }
+
+    Result claim(String key, String fingerprint) {
+        Stripe stripe = stripeOf(key);
+        long now = System.currentTimeMillis();
+        stripe.lock.lock();
+        try {
+            stripe.purgeExpired(now);
+            Entry existing = stripe.entries.get(key);
+            if (existing != null) {
+                if (!existing.fingerprint.equals(fingerprint)) {
+                    return new Result(Outcome.MISMATCH, existing);
+                }
+                return new Result(existing.completed ? Outcome.REPLAY : Outcome.IN_PROGRESS, copy(existing));
+            }
+            Entry entry = new Entry(fingerprint, now + ttlMillis);
+            stripe.entries.put(key, entry);
+            return new Result(Outcome.CLAIMED, entry);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void complete(String key, int statusCode, String body) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            Entry entry = stripe.entries.get(key);
+            if (entry != null) {
+                entry.statusCode = statusCode;
+                entry.body = body;
+                entry.completed = true;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    void release(String key) {
+        Stripe stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.remove(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripeOf(String key) {
+        int h = key.hashCode();
+        return stripes[Math.floorMod(h ^ (h >>> 16), stripes.length)];
+    }
+
+    private static Entry copy(Entry entry) {
+        Entry copy = new Entry(entry.fingerprint, entry.expiresAtMillis);
+        copy.completed = entry.completed;
+        copy.statusCode = entry.statusCode;
+        copy.body = entry.body;
+        return copy;
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Entry> entries;
+
+        Stripe(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        void purgeExpired(long now) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext() && it.next().expiresAtMillis <= now) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.vbank.account.inactivity;
+
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.outbox.AccountEventOutbox;
+import com.vbank.account.repository.AccountKey;
+import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.shard.ShardRouter;
+import com.vbank.account.summary.UserAccountTotals;
+import com.vbank.account.timer.HierarchicalTimingWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the inactivity deadline of every ACTIVE account in a hierarchical
+ * timing wheel and inactivates accounts as their deadlines pass, instead of
+ * scanning the accounts table on a schedule.
+ *
+ * Deadlines are postponed in memory when an account transacts on this
+ * replica. A replica may still fire a deadline that was extended elsewhere;
+ * the inactivation update re-checks lastTransactionAt, and accounts it skips
+ * are rescheduled from their stored activity.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnExpression("${vbank.scheduling.account-cleanup.enabled:true} " +
+        "and '${vbank.scheduling.account-cleanup.mode:wheel}' == 'wheel'")
+public class AccountInactivityTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountInactivityTracker.class);
+    private static final LogThrottle inactivationFailureLog = new LogThrottle(Duration.ofSeconds(30));
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserAccountTotals userAccountTotals;
+
+    @Autowired(required = false)
+    private AccountEventOutbox eventOutbox;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.scheduling.account-cleanup.inactive-after-hours:24}")
+    private long inactiveAfterHours;
+
+    @Value("${vbank.scheduling.account-cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${vbank.scheduling.account-cleanup.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${vbank.scheduling.account-cleanup.wheel-levels:4}")
+    private int wheelLevels;
+
+    private long inactiveAfterMillis;
+    private HierarchicalTimingWheel<UUID> wheel;
+    private Counter inactivatedCounter;
+    private Counter rescheduledCounter;
+
+    @PostConstruct
+    void rebuild() {
+        inactiveAfterMillis = inactiveAfterHours * 3_600_000L;
+        wheel = new HierarchicalTimingWheel<>(tickMillis, wheelLevels, System.currentTimeMillis());
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, this::scheduleActiveAccounts);
+        }
+
+        inactivatedCounter = Counter.builder("account.inactivation.rows")
+                .description("Accounts moved from ACTIVE to INACTIVE")
+                .register(meterRegistry);
+        rescheduledCounter = Counter.builder("account.inactivation.rescheduled")
+                .description("Fired inactivity deadlines that had been extended by activity elsewhere")
+                .register(meterRegistry);
+        Gauge.builder("account.inactivation.tracked", wheel, HierarchicalTimingWheel::size)
+                .description("ACTIVE accounts with a pending inactivity deadline")
+                .register(meterRegistry);
+        logger.info("Inactivity wheel rebuilt with {} active accounts", wheel.size());
+    }
+
+    private void scheduleActiveAccounts() {
+        // Served by idx_account_status_last_tx
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, last_transaction_at FROM accounts WHERE status = 'ACTIVE' AND balance_slots = 0");
+            statement.setFetchSize(1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp lastTransactionAt = rs.getTimestamp(2);
+            long lastActivity = lastTransactionAt != null ? lastTransactionAt.getTime() : System.currentTimeMillis();
+            wheel.schedule(rs.getObject(1, UUID.class), lastActivity + inactiveAfterMillis);
+        });
+    }
+
+    /**
+     * Records activity on the accounts; lock-free for accounts already tracked.
+     */
+    public void touch(Collection<UUID> accountIds) {
+        long deadline = System.currentTimeMillis() + inactiveAfterMillis;
+        for (UUID accountId : accountIds) {
+            wheel.postpone(accountId, deadline);
+        }
+    }
+
+    public void touch(UUID accountId) {
+        wheel.postpone(accountId, System.currentTimeMillis() + inactiveAfterMillis);
+    }
+
+    /**
+     * Stops tracking an account that can no longer be inactivated by this job.
+     */
+    public void forget(UUID accountId) {
+        wheel.cancel(accountId);
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.scheduling.account-cleanup.tick-ms:1000}")
+    public void inactivateDue() {
+        List<UUID> due = wheel.advance(System.currentTimeMillis());
+        for (Map.Entry<Integer, List<UUID>> group : shardRouter.groupByShard(due).entrySet()) {
+            List<UUID> onShard = group.getValue();
+            for (int i = 0; i < onShard.size(); i += chunkSize) {
+                List<UUID> chunk = onShard.subList(i, Math.min(onShard.size(), i + chunkSize));
+                try {
+                    shardRouter.onShard(group.getKey(), () -> inactivate(chunk));
+                } catch (RuntimeException e) {
+                    // Try again on a later tick
+                    long retryAt = System.currentTimeMillis() + tickMillis;
+                    chunk.forEach(accountId -> wheel.schedule(accountId, retryAt));
+                    long suppressed = inactivationFailureLog.tryAcquire();
+                    if (suppressed >= 0) {
+                        logger.warn("Failed to inactivate {} accounts ({} similar suppressed): {}", chunk.size(),
+                                suppressed, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void inactivate(List<UUID> accountIds) {
+        // Truncated to the column precision so the totals and the outbox can find the rows this update changed
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDateTime threshold = now.minusNanos(inactiveAfterMillis * 1_000_000);
+        List<AccountKey> stillActive = transactionTemplate.execute(status -> {
+            int updated = accountRepository.inactivateStale(accountIds, threshold, now);
+            inactivatedCounter.increment(updated);
+            if (updated > 0) {
+                logger.debug("Inactivated {} stale accounts", updated);
+                userAccountTotals.statusChangedByUpdate(accountIds, AccountStatus.ACTIVE, AccountStatus.INACTIVE,
+                        now);
+                if (eventOutbox != null) {
+                    eventOutbox.statusChangedByUpdate(accountIds, AccountStatus.INACTIVE, now);
+                }
+            }
+            return accountRepository.findActiveKeysByIdIn(accountIds);
+        });
+        accountIds.forEach(accountCache::evictAccount);
+
+        // Accounts that transacted on another replica since this one last saw them
+        for (AccountKey key : stillActive) {
+            wheel.schedule(key.id(), toMillis(key.lastTransactionAt()) + inactiveAfterMillis);
+        }
+        rescheduledCounter.increment(stillActive.size());
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
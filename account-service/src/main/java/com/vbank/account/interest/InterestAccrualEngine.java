@@ -0,0 +1,312 @@
+package com.vbank.account.interest;
+
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.dto.InterestAccrualRunDto;
+import com.vbank.account.dto.InterestPartitionResultDto;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.model.InterestAccrualCheckpoint;
+import com.vbank.account.repository.InterestAccrualCheckpointRepository;
+import com.vbank.account.service.OptimisticRetryExecutor;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accrues one day of interest on active savings accounts.
+ *
+ * The savings id space is cut into partitions holding roughly equal numbers
+ * of accounts, and each partition is walked in id order by a worker of a
+ * dedicated fork-join pool. Every chunk is updated with a JDBC batch and
+ * commits together with its partition checkpoint, so a failed run resumes
+ * after the last committed chunk. Accounts already accrued for the run date
+ * are never credited twice.
+ *
+ * Accounts with balance slots are skipped; their balance is not held in the
+ * accounts row alone.
+ *
+ * Each shard plans and checkpoints its own partitions; the partitions of all
+ * shards share the pool and every worker pins the shard of its partition.
+ */
+@Service
+public class InterestAccrualEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualEngine.class);
+
+    private static final UUID FIRST_ID = new UUID(0L, 0L);
+    private static final UUID LAST_ID = new UUID(-1L, -1L);
+
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM accounts WHERE account_type = 'SAVINGS'";
+
+    private static final String BOUNDARY_SQL =
+            "SELECT id FROM accounts WHERE account_type = 'SAVINGS' ORDER BY id LIMIT 1 OFFSET ?";
+
+    private static final String CHUNK_SQL =
+            "SELECT id, balance, interest_remainder, version FROM accounts " +
+                    "WHERE account_type = 'SAVINGS' AND status = 'ACTIVE' AND balance_slots = 0 " +
+                    "AND (interest_accrued_on IS NULL OR interest_accrued_on < ?) " +
+                    "AND id %s ? AND id <= ? ORDER BY id LIMIT ?";
+
+    private static final String FIRST_CHUNK_SQL = CHUNK_SQL.formatted(">=");
+    private static final String NEXT_CHUNK_SQL = CHUNK_SQL.formatted(">");
+
+    private static final String UPDATE_SQL =
+            "UPDATE accounts SET balance = balance + ?, interest_remainder = ?, interest_accrued_on = ?, " +
+                    "updated_at = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private InterestAccrualCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.interest.savings-annual-rate-bps:150}")
+    private long annualRateBps;
+
+    @Value("${vbank.account.interest.days-per-year:365}")
+    private int daysPerYear;
+
+    @Value("${vbank.account.interest.partitions:16}")
+    private int partitionCount;
+
+    // 0 means one worker per available processor
+    @Value("${vbank.account.interest.parallelism:0}")
+    private int parallelism;
+
+    @Value("${vbank.account.interest.chunk-size:1000}")
+    private int chunkSize;
+
+    private Counter accruedAccounts;
+    private Timer partitionTimer;
+    private DistributionSummary partitionRate;
+
+    @PostConstruct
+    void initMetrics() {
+        accruedAccounts = Counter.builder("account.interest.accrued")
+                .description("Savings accounts credited with daily interest")
+                .register(meterRegistry);
+        partitionTimer = Timer.builder("account.interest.partition")
+                .description("Time for one worker to accrue a partition")
+                .register(meterRegistry);
+        partitionRate = DistributionSummary.builder("account.interest.partition.rate")
+                .description("Accounts accrued per second by one worker")
+                .baseUnit("rows/s")
+                .register(meterRegistry);
+    }
+
+    public synchronized InterestAccrualRunDto accrue(LocalDate runDate) {
+        if (balanceLedger != null) {
+            throw new InvalidAccountOperationException("Interest accrual is not available when the balance ledger is enabled.");
+        }
+        long start = System.nanoTime();
+        List<ShardPartition> partitions = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            int current = shard;
+            List<InterestAccrualCheckpoint> checkpoints = shardRouter.onShard(current, () ->
+                    transactionTemplate.execute(status -> planPartitions(runDate)));
+            checkpoints.forEach(checkpoint -> partitions.add(new ShardPartition(current, checkpoint)));
+        }
+
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, Math.min(workers, partitions.size())));
+        List<InterestPartitionResultDto> results = new ArrayList<>(partitions.size());
+        RuntimeException failure = null;
+        try {
+            List<ForkJoinTask<InterestPartitionResultDto>> tasks = new ArrayList<>(partitions.size());
+            for (ShardPartition partition : partitions) {
+                tasks.add(pool.submit(() -> shardRouter.onShard(partition.shard(), () ->
+                        accruePartition(partition.checkpoint(), runDate))));
+            }
+            // Wait for every partition, even after a failure, so no worker outlives this run
+            for (ForkJoinTask<InterestPartitionResultDto> task : tasks) {
+                try {
+                    results.add(task.join());
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        if (failure != null) {
+            logger.warn("Interest accrual for {} failed and will resume from its checkpoints: {}", runDate,
+                    failure.getMessage());
+            throw failure;
+        }
+
+        InterestAccrualRunDto run = new InterestAccrualRunDto(runDate, results, (System.nanoTime() - start) / 1_000_000);
+        logger.info("{}", run);
+        return run;
+    }
+
+    /**
+     * Returns the partitions of the run, creating them on the first attempt.
+     * Boundaries are persisted so a resumed run walks exactly the same ranges.
+     */
+    private List<InterestAccrualCheckpoint> planPartitions(LocalDate runDate) {
+        List<InterestAccrualCheckpoint> existing = checkpointRepository.findByRunDateOrderByPartitionIndex(runDate);
+        if (!existing.isEmpty()) {
+            return existing;
+        }
+
+        // Equal-count boundaries: partitions are walked in id order, and time-ordered ids cluster in a narrow range
+        long total = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        int count = (int) Math.max(1, Math.min(partitionCount, total));
+        List<UUID> starts = new ArrayList<>(count);
+        starts.add(FIRST_ID);
+        for (int k = 1; k < count; k++) {
+            UUID boundary = jdbcTemplate.queryForObject(BOUNDARY_SQL, UUID.class, total * k / count);
+            if (!boundary.equals(starts.get(starts.size() - 1))) {
+                starts.add(boundary);
+            }
+        }
+
+        List<InterestAccrualCheckpoint> checkpoints = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            UUID to = i == starts.size() - 1 ? LAST_ID : predecessor(starts.get(i + 1));
+            checkpoints.add(new InterestAccrualCheckpoint(runDate, i, starts.get(i), to));
+        }
+        return checkpointRepository.saveAll(checkpoints);
+    }
+
+    private InterestPartitionResultDto accruePartition(InterestAccrualCheckpoint checkpoint, LocalDate runDate) {
+        long start = System.nanoTime();
+        boolean resumed = checkpoint.isCompleted() || checkpoint.getLastId() != null;
+        long rows = 0;
+        if (!checkpoint.isCompleted()) {
+            UUID cursor = checkpoint.getLastId();
+            while (true) {
+                UUID after = cursor;
+                Chunk chunk = optimisticRetryExecutor.execute(() -> accrueChunk(checkpoint, after, runDate));
+                rows += chunk.rows();
+                if (chunk.completed()) {
+                    break;
+                }
+                cursor = chunk.lastId();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        InterestPartitionResultDto result = new InterestPartitionResultDto(checkpoint.getPartitionIndex(),
+                checkpoint.getFromId(), checkpoint.getToId(), Thread.currentThread().getName(), resumed,
+                rows, elapsedNanos / 1_000_000);
+        partitionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        partitionRate.record(result.getRowsPerSecond());
+        accruedAccounts.increment(rows);
+        logger.debug("{}", result);
+        return result;
+    }
+
+    /**
+     * Accrues the next chunk of a partition and advances its checkpoint in the same transaction.
+     */
+    private Chunk accrueChunk(InterestAccrualCheckpoint checkpoint, UUID after, LocalDate runDate) {
+        List<Candidate> candidates = after == null
+                ? jdbcTemplate.query(FIRST_CHUNK_SQL, this::mapCandidate,
+                        Date.valueOf(runDate), checkpoint.getFromId(), checkpoint.getToId(), chunkSize)
+                : jdbcTemplate.query(NEXT_CHUNK_SQL, this::mapCandidate,
+                        Date.valueOf(runDate), after, checkpoint.getToId(), chunkSize);
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(candidates.size());
+        Map<UUID, BigDecimal> credits = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            long[] accrual = candidate.balance() > 0
+                    ? InterestMath.accrueDay(candidate.balance(), candidate.remainder(), annualRateBps, daysPerYear)
+                    : new long[]{0L, candidate.remainder()};
+            BigDecimal interest = BalanceLedger.fromMinorUnits(accrual[0]);
+            args.add(new Object[]{interest, accrual[1], Date.valueOf(runDate), updatedAt,
+                    candidate.id(), candidate.version()});
+            if (accrual[0] != 0) {
+                credits.put(candidate.id(), interest);
+            }
+        }
+
+        if (!args.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    throw new OptimisticLockingFailureException(
+                            "Account " + candidates.get(i).id() + " changed during interest accrual");
+                }
+            }
+            balanceHistoryRecorder.recordAll(credits, now);
+            accountCache.evictAccountsAfterCommit(credits.keySet());
+        }
+
+        boolean completed = candidates.size() < chunkSize;
+        UUID lastId = candidates.isEmpty() ? after : candidates.get(candidates.size() - 1).id();
+        checkpointRepository.advance(checkpoint.getId(), lastId, candidates.size(), completed, now);
+        return new Chunk(candidates.size(), lastId, completed);
+    }
+
+    private Candidate mapCandidate(ResultSet rs, int rowNum) throws SQLException {
+        return new Candidate(rs.getObject(1, UUID.class), BalanceLedger.toMinorUnits(rs.getBigDecimal(2)),
+                rs.getLong(3), rs.getLong(4));
+    }
+
+    private static UUID predecessor(UUID id) {
+        long high = id.getMostSignificantBits();
+        long low = id.getLeastSignificantBits();
+        return low == 0L ? new UUID(high - 1, -1L) : new UUID(high, low - 1);
+    }
+
+    private record ShardPartition(int shard, InterestAccrualCheckpoint checkpoint) {}
+
+    private record Candidate(UUID id, long balance, long remainder, long version) {}
+
+    private record Chunk(long rows, UUID lastId, boolean completed) {}
+}
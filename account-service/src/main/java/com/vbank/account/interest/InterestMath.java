@@ -0,0 +1,31 @@
+package com.vbank.account.interest;
+
+import java.math.BigInteger;
+
+/**
+ * Integer-only daily interest. The fraction of a minor unit that cannot be
+ * paid today is carried forward per account as a remainder, so the sum of
+ * daily payouts equals the exact annual interest with no rounding drift.
+ */
+final class InterestMath {
+
+    private static final long BPS = 10_000L;
+
+    private InterestMath() {}
+
+    /**
+     * @return {interest to credit in minor units, new remainder}
+     */
+    static long[] accrueDay(long balanceMinor, long remainder, long annualRateBps, int daysPerYear) {
+        long divisor = BPS * daysPerYear;
+        try {
+            long numerator = Math.addExact(Math.multiplyExact(balanceMinor, annualRateBps), remainder);
+            return new long[]{numerator / divisor, numerator % divisor};
+        } catch (ArithmeticException overflow) {
+            BigInteger numerator = BigInteger.valueOf(balanceMinor).multiply(BigInteger.valueOf(annualRateBps))
+                    .add(BigInteger.valueOf(remainder));
+            BigInteger[] qr = numerator.divideAndRemainder(BigInteger.valueOf(divisor));
+            return new long[]{qr[0].longValueExact(), qr[1].longValueExact()};
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.vbank.account.journal;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of ledger balance changes, written to memory-mapped
+ * segment files of fixed-size, checksummed records.
+ *
+ * Appends only copy the record into the mapped segment. A background syncer
+ * forces the segment to disk and wakes every caller waiting on a sequence it
+ * covers, so concurrent transfers share one fsync (group commit).
+ *
+ * Record layout (64 bytes): type, seq, timestamp, account A, account B, amount, crc32c.
+ */
+@Component
+@ConditionalOnExpression("${vbank.account.ledger.enabled:false} and ${vbank.account.journal.enabled:false}")
+public class BalanceJournal {
+
+    static final int RECORD_SIZE = 64;
+    static final int TYPE_OPEN = 1;
+    static final int TYPE_TRANSFER = 2;
+    private static final int CRC_OFFSET = RECORD_SIZE - 4;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Value("${vbank.account.journal.dir:./data/journal}")
+    private String directory;
+
+    @Value("${vbank.account.journal.segment-records:1048576}")
+    private int segmentRecords;
+
+    @Value("${vbank.account.journal.sync-interval-micros:200}")
+    private long syncIntervalMicros;
+
+    private Path dir;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    private volatile long appendedSeq;
+    private volatile long durableSeq;
+    private final Object durableMonitor = new Object();
+    private volatile boolean running;
+    private Thread syncer;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32C crc = new CRC32C();
+
+    @PostConstruct
+    void open() throws IOException {
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+    }
+
+    /**
+     * Replays the latest snapshot and every valid journal record after it.
+     * Must be called once, before the first append.
+     */
+    public synchronized RecoveredState recover(BalanceSnapshotStore snapshots) throws IOException {
+        RecoveredState state = snapshots.loadLatest();
+        long lastSeq = state.snapshotSeq();
+
+        for (Path file : segmentFiles()) {
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+                while (in.read(record) == RECORD_SIZE) {
+                    record.flip();
+                    if (!valid(record)) {
+                        // Zero fill or a torn write marks the end of this segment
+                        break;
+                    }
+                    long seq = record.getLong(4);
+                    if (seq > state.snapshotSeq()) {
+                        state.apply(record.getInt(0), seq,
+                                new UUID(record.getLong(20), record.getLong(28)),
+                                new UUID(record.getLong(36), record.getLong(44)),
+                                record.getLong(52));
+                    }
+                    lastSeq = Math.max(lastSeq, seq);
+                    record.clear();
+                }
+            }
+        }
+
+        appendedSeq = lastSeq;
+        durableSeq = lastSeq;
+        openSegment(lastSeq + 1);
+        startSyncer();
+        return state;
+    }
+
+    public synchronized long appendOpen(UUID accountId, long balance) {
+        return append(TYPE_OPEN, accountId, accountId, balance);
+    }
+
+    public synchronized long appendTransfer(UUID fromAccountId, UUID toAccountId, long amount) {
+        return append(TYPE_TRANSFER, fromAccountId, toAccountId, amount);
+    }
+
+    private long append(int type, UUID a, UUID b, long amount) {
+        if (segment == null) {
+            throw new IllegalStateException("Balance journal has not been recovered yet");
+        }
+        if (!segment.hasRemaining()) {
+            rollSegment();
+        }
+        long seq = appendedSeq + 1;
+        scratch.clear();
+        scratch.putInt(type).putLong(seq).putLong(System.currentTimeMillis())
+                .putLong(a.getMostSignificantBits()).putLong(a.getLeastSignificantBits())
+                .putLong(b.getMostSignificantBits()).putLong(b.getLeastSignificantBits())
+                .putLong(amount);
+        crc.reset();
+        crc.update(scratch.array(), 0, CRC_OFFSET);
+        scratch.putInt((int) crc.getValue());
+        segment.put(scratch.array(), 0, RECORD_SIZE);
+        appendedSeq = seq;
+        return seq;
+    }
+
+    /**
+     * Blocks until every record appended so far has been forced to disk.
+     */
+    public void awaitDurable() {
+        long target = appendedSeq;
+        if (durableSeq >= target) {
+            return;
+        }
+        LockSupport.unpark(syncer);
+        synchronized (durableMonitor) {
+            while (durableSeq < target) {
+                try {
+                    durableMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for journal sync", e);
+                }
+            }
+        }
+    }
+
+    public long lastAppendedSeq() {
+        return appendedSeq;
+    }
+
+    /**
+     * Deletes segments whose records are all covered by a snapshot taken at {@code seq}.
+     */
+    public void truncateBefore(long seq) throws IOException {
+        List<Path> files = segmentFiles();
+        for (int i = 0; i + 1 < files.size(); i++) {
+            long nextFirstSeq = firstSeqOf(files.get(i + 1));
+            if (nextFirstSeq - 1 <= seq) {
+                Files.deleteIfExists(files.get(i));
+            }
+        }
+    }
+
+    private void startSyncer() {
+        running = true;
+        long intervalNanos = syncIntervalMicros * 1000;
+        syncer = new Thread(() -> {
+            while (running) {
+                long target = appendedSeq;
+                if (target > durableSeq) {
+                    syncTo(target);
+                } else {
+                    LockSupport.parkNanos(intervalNanos);
+                }
+            }
+        }, "balance-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    private void syncTo(long target) {
+        MappedByteBuffer current;
+        synchronized (this) {
+            current = segment;
+        }
+        // Records in earlier segments were forced when the segment rolled
+        current.force();
+        durableSeq = target;
+        synchronized (durableMonitor) {
+            durableMonitor.notifyAll();
+        }
+    }
+
+    private void rollSegment() {
+        segment.force();
+        try {
+            channel.close();
+            openSegment(appendedSeq + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll balance journal segment", e);
+        }
+    }
+
+    private void openSegment(long firstSeq) throws IOException {
+        Path file = dir.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+    }
+
+    private boolean valid(ByteBuffer record) {
+        int type = record.getInt(0);
+        if (type != TYPE_OPEN && type != TYPE_TRANSFER) {
+            return false;
+        }
+        CRC32C check = new CRC32C();
+        check.update(record.array(), 0, CRC_OFFSET);
+        return (int) check.getValue() == record.getInt(CRC_OFFSET);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSeqOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        running = false;
+        if (syncer != null) {
+            LockSupport.unpark(syncer);
+        }
+        synchronized (this) {
+            if (segment != null) {
+                segment.force();
+                durableSeq = appendedSeq;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Balances rebuilt from a snapshot plus the journal tail.
+     * Each account remembers the sequence of the last change applied to it,
+     * so records already reflected in the snapshot are skipped. Accounts with
+     * neither a snapshot entry nor an OPEN record only carry the sum of their
+     * transfers, not a balance; see {@link #hasBaseline}.
+     */
+    public static class RecoveredState {
+        private final long snapshotSeq;
+        private final Map<UUID, long[]> accounts;
+        private final Set<UUID> withoutBaseline = new HashSet<>();
+
+        public RecoveredState(long snapshotSeq, Map<UUID, long[]> accounts) {
+            this.snapshotSeq = snapshotSeq;
+            this.accounts = accounts;
+        }
+
+        public static RecoveredState empty() {
+            return new RecoveredState(0L, new HashMap<>());
+        }
+
+        public long snapshotSeq() {
+            return snapshotSeq;
+        }
+
+        /**
+         * @return account id to {balance, last applied seq}
+         */
+        public Map<UUID, long[]> accounts() {
+            return accounts;
+        }
+
+        /**
+         * False for an account whose recovered value is only a sum of transfer deltas.
+         */
+        public boolean hasBaseline(UUID accountId) {
+            return !withoutBaseline.contains(accountId);
+        }
+
+        void apply(int type, long seq, UUID a, UUID b, long amount) {
+            if (type == TYPE_OPEN) {
+                long[] entry = accounts.get(a);
+                if (entry == null || entry[1] < seq) {
+                    accounts.put(a, new long[]{amount, seq});
+                    withoutBaseline.remove(a);
+                }
+                return;
+            }
+            if (a.equals(b)) {
+                return;
+            }
+            adjust(a, -amount, seq);
+            adjust(b, amount, seq);
+        }
+
+        private void adjust(UUID accountId, long delta, long seq) {
+            long[] entry = accounts.computeIfAbsent(accountId, id -> {
+                withoutBaseline.add(id);
+                return new long[]{0L, 0L};
+            });
+            if (entry[1] < seq) {
+                entry[0] += delta;
+                entry[1] = seq;
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.vbank.account.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes balance snapshot files next to the journal.
+ *
+ * File layout: magic, snapshot seq, entries of (id high, id low, balance,
+ * last applied seq), an all-zero id followed by the entry count, and the
+ * crc32c of everything before it.
+ * Files are written to a temporary name, forced and atomically renamed.
+ */
+@Component
+@ConditionalOnExpression("${vbank.account.ledger.enabled:false} and ${vbank.account.journal.enabled:false}")
+public class BalanceSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotStore.class);
+
+    private static final long MAGIC = 0x5642414E4B534E50L; // "VBANKSNP"
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    @Value("${vbank.account.journal.dir:./data/journal}")
+    private String directory;
+
+    @Value("${vbank.account.journal.snapshots-retained:2}")
+    private int retained;
+
+    public BalanceJournal.RecoveredState loadLatest() throws IOException {
+        List<Path> files = snapshotFiles();
+        // Fall back to an older snapshot if the newest one is damaged
+        for (int i = files.size() - 1; i >= 0; i--) {
+            BalanceJournal.RecoveredState state = read(files.get(i));
+            if (state != null) {
+                return state;
+            }
+        }
+        return BalanceJournal.RecoveredState.empty();
+    }
+
+    public Writer begin(long snapshotSeq) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        return new Writer(dir, snapshotSeq);
+    }
+
+    /**
+     * Sequence of the oldest snapshot still on disk; journal records after it must be kept.
+     */
+    public long oldestRetainedSeq() throws IOException {
+        List<Path> files = snapshotFiles();
+        if (files.isEmpty()) {
+            return 0L;
+        }
+        String name = files.get(0).getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private BalanceJournal.RecoveredState read(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file));
+             CheckedInputStream checked = new CheckedInputStream(raw, crc);
+             DataInputStream in = new DataInputStream(checked)) {
+            if (in.readLong() != MAGIC) {
+                return null;
+            }
+            long snapshotSeq = in.readLong();
+            Map<UUID, long[]> accounts = new HashMap<>();
+            while (true) {
+                long high = in.readLong();
+                long low = in.readLong();
+                if (high == 0L && low == 0L) {
+                    break;
+                }
+                accounts.put(new UUID(high, low), new long[]{in.readLong(), in.readLong()});
+            }
+            if (in.readLong() != accounts.size()) {
+                return null;
+            }
+            int expected = (int) crc.getValue();
+            int stored = new DataInputStream(raw).readInt();
+            return expected == stored ? new BalanceJournal.RecoveredState(snapshotSeq, accounts) : null;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable balance snapshot {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private void pruneOldSnapshots() throws IOException {
+        List<Path> files = snapshotFiles();
+        for (int i = 0; i < files.size() - retained; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    public final class Writer implements AutoCloseable {
+        private final Path target;
+        private final Path temp;
+        private final CRC32C crc = new CRC32C();
+        private final OutputStream raw;
+        private final DataOutputStream out;
+        private long written;
+        private boolean committed;
+
+        private Writer(Path dir, long snapshotSeq) throws IOException {
+            String name = String.format("%s%020d%s", PREFIX, snapshotSeq, SUFFIX);
+            this.target = dir.resolve(name);
+            this.temp = dir.resolve(name + ".tmp");
+            this.raw = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16);
+            this.out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeLong(MAGIC);
+            out.writeLong(snapshotSeq);
+        }
+
+        public void write(UUID accountId, long balance, long lastSeq) throws IOException {
+            out.writeLong(accountId.getMostSignificantBits());
+            out.writeLong(accountId.getLeastSignificantBits());
+            out.writeLong(balance);
+            out.writeLong(lastSeq);
+            written++;
+        }
+
+        public void commit() throws IOException {
+            out.writeLong(0L);
+            out.writeLong(0L);
+            out.writeLong(written);
+            out.flush();
+            new DataOutputStream(raw).writeInt((int) crc.getValue());
+            raw.close();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            pruneOldSnapshots();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                raw.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.vbank.account.journal;
+
+import com.vbank.account.ledger.BalanceLedger;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically checkpoints every ledger balance so recovery only has to
+ * replay the journal tail, then drops segments no retained snapshot needs.
+ */
+@Component
+@ConditionalOnExpression("${vbank.account.ledger.enabled:false} and ${vbank.account.journal.enabled:false}")
+public class BalanceSnapshotter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotter.class);
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private BalanceJournal balanceJournal;
+
+    @Autowired
+    private BalanceSnapshotStore balanceSnapshotStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long lastSnapshotSeq = -1;
+
+    @Scheduled(fixedDelayString = "${vbank.account.journal.snapshot-interval-ms:60000}",
+            initialDelayString = "${vbank.account.journal.snapshot-interval-ms:60000}")
+    public synchronized void snapshot() {
+        long snapshotSeq = balanceJournal.lastAppendedSeq();
+        if (snapshotSeq == lastSnapshotSeq) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (BalanceSnapshotStore.Writer writer = balanceSnapshotStore.begin(snapshotSeq)) {
+            balanceLedger.forEachAccount(writer::write);
+            writer.commit();
+            balanceJournal.truncateBefore(balanceSnapshotStore.oldestRetainedSeq());
+            lastSnapshotSeq = snapshotSeq;
+        } catch (IOException e) {
+            logger.error("Balance snapshot at seq {} failed", snapshotSeq, e);
+            return;
+        }
+        meterRegistry.timer("account.journal.snapshot").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,496 @@
+package com.vbank.account.ledger;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.journal.BalanceJournal;
+import com.vbank.account.journal.BalanceSnapshotStore;
+import com.vbank.account.lock.AccountLockManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * In-memory balance ledger. Balances are kept as long minor units in
+ * open-addressed primitive arrays keyed by account id; the database is
+ * updated asynchronously by {@link LedgerFlusher}.
+ *
+ * Writers must hold the account's stripe lock from {@link AccountLockManager}.
+ * Slots are never removed, so a published slot index stays valid for the
+ * lifetime of the ledger.
+ *
+ * Only one replica may run the ledger: each copy would check funds against
+ * its own balances. Startup takes a cluster lease and refuses to start while
+ * another replica holds it.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "vbank.account.ledger.enabled", havingValue = "true")
+public class BalanceLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceLedger.class);
+
+    private static final int SCALE = 2;
+    private static final int PUBLISHED = 1;
+
+    static final String LEASE = "balance-ledger";
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired(required = false)
+    private BalanceJournal balanceJournal;
+
+    @Autowired(required = false)
+    private BalanceSnapshotStore balanceSnapshotStore;
+
+    @Value("${vbank.account.ledger.capacity:1048576}")
+    private int requestedCapacity;
+
+    @Value("${vbank.account.ledger.lease-ms:30000}")
+    private long leaseMs;
+
+    private int mask;
+    private int maxSize;
+    private volatile int size;
+
+    private long[] idHigh;
+    private long[] idLow;
+    private AtomicIntegerArray published;
+    private long[] balances;
+    private long[] lastTransactionMillis;
+    private long[] journalSeq;
+    // Balance last written to the accounts row; only touched by the flusher after publication
+    private long[] persistedBalances;
+    // Row version the flusher expects to overwrite; a mismatch means another writer touched the row
+    private long[] persistedVersions;
+    // Accounts whose row was changed outside the ledger; written and read under the stripe lock
+    private boolean[] quarantined;
+    private volatile int quarantinedCount;
+    private AtomicLongArray dirty;
+
+    @PostConstruct
+    void rebuild() throws IOException {
+        if (!clusterJobRunner.runExclusive(LEASE, Duration.ofMillis(leaseMs), () -> { })) {
+            throw new IllegalStateException("The balance ledger is already running on another replica; "
+                    + "vbank.account.ledger.enabled supports a single account-service replica.");
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, requestedCapacity - 1) << 1);
+        mask = capacity - 1;
+        maxSize = (int) (capacity * 0.75);
+        idHigh = new long[capacity];
+        idLow = new long[capacity];
+        published = new AtomicIntegerArray(capacity);
+        balances = new long[capacity];
+        lastTransactionMillis = new long[capacity];
+        journalSeq = new long[capacity];
+        persistedBalances = new long[capacity];
+        persistedVersions = new long[capacity];
+        quarantined = new boolean[capacity];
+        dirty = new AtomicLongArray((capacity + 63) >>> 6);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, balance, last_transaction_at, version FROM accounts");
+            statement.setFetchSize(1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            UUID id = rs.getObject(1, UUID.class);
+            Timestamp lastTx = rs.getTimestamp(3);
+            register(id, toMinorUnits(rs.getBigDecimal(2)), lastTx.getTime(), rs.getLong(4));
+        });
+        logger.info("Balance ledger rebuilt with {} accounts", size);
+
+        if (balanceJournal != null) {
+            recoverFromJournal();
+        }
+    }
+
+    private void recoverFromJournal() throws IOException {
+        BalanceJournal.RecoveredState state = balanceJournal.recover(balanceSnapshotStore);
+        int restored = 0;
+        int unknown = 0;
+        int withoutBaseline = 0;
+        for (Map.Entry<UUID, long[]> entry : state.accounts().entrySet()) {
+            int slot = slotOf(entry.getKey());
+            if (slot < 0) {
+                unknown++;
+                continue;
+            }
+            long[] recovered = entry.getValue();
+            journalSeq[slot] = recovered[1];
+            if (!state.hasBaseline(entry.getKey())) {
+                // Only transfer deltas survived (journal from before baselines were written); keep the database row
+                withoutBaseline++;
+                continue;
+            }
+            if (balances[slot] != recovered[0]) {
+                // The journal is authoritative; queue the row for write-behind
+                balances[slot] = recovered[0];
+                markDirty(slot);
+                restored++;
+            }
+        }
+        logger.info("Balance journal recovered {} accounts ({} corrected, {} without a database row, "
+                + "{} without a baseline)", state.accounts().size(), restored, unknown, withoutBaseline);
+        writeBaseline(balanceJournal.lastAppendedSeq());
+    }
+
+    /**
+     * Snapshots every account before the first transfer, so accounts that predate
+     * the journal (and have no OPEN record) are covered by a baseline on replay.
+     */
+    private void writeBaseline(long seq) throws IOException {
+        try (BalanceSnapshotStore.Writer writer = balanceSnapshotStore.begin(seq)) {
+            forEachAccount(writer::write);
+            writer.commit();
+        }
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Adds a newly created account to the ledger and journals its opening balance.
+     */
+    public void open(UUID accountId, long balance, long lastTxMillis) {
+        synchronized (this) {
+            if (probe(accountId) >= 0) {
+                return;
+            }
+            long seq = balanceJournal != null ? balanceJournal.appendOpen(accountId, balance) : 0L;
+            insert(accountId, balance, lastTxMillis, seq, 0L);
+        }
+        awaitDurable();
+    }
+
+    /**
+     * Opens many accounts at once, waiting for a single journal sync at the end.
+     */
+    public void openAll(Map<UUID, Long> openingBalances, long lastTxMillis) {
+        synchronized (this) {
+            for (Map.Entry<UUID, Long> entry : openingBalances.entrySet()) {
+                if (probe(entry.getKey()) >= 0) {
+                    continue;
+                }
+                long seq = balanceJournal != null ? balanceJournal.appendOpen(entry.getKey(), entry.getValue()) : 0L;
+                insert(entry.getKey(), entry.getValue(), lastTxMillis, seq, 0L);
+            }
+        }
+        awaitDurable();
+    }
+
+    /**
+     * Adds an existing account to the ledger, or returns its existing slot.
+     */
+    public synchronized int register(UUID accountId, long balance, long lastTxMillis, long version) {
+        int slot = probe(accountId);
+        if (slot >= 0) {
+            return slot;
+        }
+        return insert(accountId, balance, lastTxMillis, 0L, version);
+    }
+
+    private int insert(UUID accountId, long balance, long lastTxMillis, long seq, long version) {
+        if (size >= maxSize) {
+            throw new IllegalStateException("Balance ledger capacity exhausted (" + size + " accounts)");
+        }
+        long high = accountId.getMostSignificantBits();
+        long low = accountId.getLeastSignificantBits();
+        int i = home(high, low);
+        while (published.get(i) == PUBLISHED) {
+            i = (i + 1) & mask;
+        }
+        idHigh[i] = high;
+        idLow[i] = low;
+        balances[i] = balance;
+        lastTransactionMillis[i] = lastTxMillis;
+        journalSeq[i] = seq;
+        persistedBalances[i] = balance;
+        persistedVersions[i] = version;
+        published.set(i, PUBLISHED);
+        size++;
+        return i;
+    }
+
+    /**
+     * Returns the slot of the account, or -1 if it is not in the ledger.
+     */
+    public int slotOf(UUID accountId) {
+        int slot = probe(accountId);
+        if (slot >= 0) {
+            return slot;
+        }
+        // Slow path: re-probe under the insert monitor to see concurrent registrations
+        synchronized (this) {
+            return probe(accountId);
+        }
+    }
+
+    private int probe(UUID accountId) {
+        long high = accountId.getMostSignificantBits();
+        long low = accountId.getLeastSignificantBits();
+        int i = home(high, low);
+        while (published.get(i) == PUBLISHED) {
+            if (idHigh[i] == high && idLow[i] == low) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int home(long high, long low) {
+        long h = (high ^ low) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    /**
+     * Returns the current balance, or null if the account is not in the ledger.
+     */
+    public BigDecimal balanceOf(UUID accountId) {
+        int slot = slotOf(accountId);
+        if (slot < 0) {
+            return null;
+        }
+        try (AccountLockManager.Held ignored = accountLockManager.lock(accountId, accountId)) {
+            return fromMinorUnits(balances[slot]);
+        }
+    }
+
+    public void transfer(UUID fromAccountId, UUID toAccountId, long amount) {
+        try (AccountLockManager.Held ignored = accountLockManager.lock(fromAccountId, toAccountId)) {
+            String failure = tryTransferLocked(fromAccountId, toAccountId, amount);
+            if (failure != null && failure.startsWith("Insufficient")) {
+                throw new InsufficientFundsException(failure);
+            }
+            if (failure != null && failure.contains("not found")) {
+                throw new AccountNotFoundException(failure);
+            }
+            if (failure != null) {
+                throw new InvalidAccountOperationException(failure);
+            }
+        }
+        // Wait for the group fsync outside the locks so other transfers can join it
+        awaitDurable();
+    }
+
+    /**
+     * Blocks until every change applied so far is durable in the journal, if one is configured.
+     */
+    public void awaitDurable() {
+        if (balanceJournal != null) {
+            balanceJournal.awaitDurable();
+        }
+    }
+
+    /**
+     * Applies a transfer while the caller already holds both stripe locks.
+     *
+     * @return null on success, otherwise the reason the transfer was rejected
+     */
+    public String tryTransferLocked(UUID fromAccountId, UUID toAccountId, long amount) {
+        int from = slotOf(fromAccountId);
+        if (from < 0) {
+            return "From account not found.";
+        }
+        int to = slotOf(toAccountId);
+        if (to < 0) {
+            return "To account not found.";
+        }
+        if (quarantined[from] || quarantined[to]) {
+            return "Account is held for balance reconciliation.";
+        }
+        if (balances[from] < amount) {
+            return "Insufficient funds in the from account.";
+        }
+        long now = System.currentTimeMillis();
+        balances[from] -= amount;
+        balances[to] += amount;
+        lastTransactionMillis[from] = now;
+        lastTransactionMillis[to] = now;
+        if (balanceJournal != null) {
+            long seq = balanceJournal.appendTransfer(fromAccountId, toAccountId, amount);
+            journalSeq[from] = seq;
+            journalSeq[to] = seq;
+        }
+        markDirty(from);
+        markDirty(to);
+        return null;
+    }
+
+    private void markDirty(int slot) {
+        int word = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        long current;
+        do {
+            current = dirty.get(word);
+        } while ((current & bit) == 0 && !dirty.compareAndSet(word, current, current | bit));
+    }
+
+    /**
+     * Clears the dirty set and hands a consistent copy of every dirty slot to the sink.
+     */
+    void drainDirty(Consumer<DirtyBalance> sink) {
+        for (int word = 0; word < dirty.length(); word++) {
+            long bits = dirty.getAndSet(word, 0L);
+            while (bits != 0) {
+                int slot = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                UUID id = new UUID(idHigh[slot], idLow[slot]);
+                long balance;
+                long lastTx;
+                try (AccountLockManager.Held ignored = accountLockManager.lock(id, id)) {
+                    if (quarantined[slot]) {
+                        continue;
+                    }
+                    balance = balances[slot];
+                    lastTx = lastTransactionMillis[slot];
+                }
+                sink.accept(new DirtyBalance(slot, id, balance, lastTx, persistedBalances[slot],
+                        persistedVersions[slot]));
+            }
+        }
+    }
+
+    /**
+     * Records the balance the write-behind committed for a slot.
+     */
+    void persisted(int slot, long balance, long version) {
+        persistedBalances[slot] = balance;
+        persistedVersions[slot] = version;
+    }
+
+    /**
+     * Takes over the row version after a write that did not change the balance,
+     * such as a status update, so the next flush can overwrite the row again.
+     */
+    void adoptVersion(int slot, long version) {
+        persistedVersions[slot] = version;
+    }
+
+    /**
+     * Stops transfers on and write-behind of an account whose row was changed
+     * outside the ledger, until a restart rebuilds it from the database.
+     */
+    void quarantine(int slot) {
+        UUID id = new UUID(idHigh[slot], idLow[slot]);
+        try (AccountLockManager.Held ignored = accountLockManager.lock(id, id)) {
+            if (!quarantined[slot]) {
+                quarantined[slot] = true;
+                quarantinedCount++;
+            }
+        }
+    }
+
+    public int quarantinedCount() {
+        return quarantinedCount;
+    }
+
+    /**
+     * Re-marks a slot whose write-behind failed so the next flush retries it.
+     */
+    void redirty(int slot) {
+        markDirty(slot);
+    }
+
+    /**
+     * Visits every account with a consistent (balance, last journal seq) pair, for snapshots.
+     */
+    public void forEachAccount(AccountVisitor visitor) throws IOException {
+        for (int slot = 0; slot < published.length(); slot++) {
+            if (published.get(slot) != PUBLISHED) {
+                continue;
+            }
+            UUID id = new UUID(idHigh[slot], idLow[slot]);
+            long balance;
+            long seq;
+            try (AccountLockManager.Held ignored = accountLockManager.lock(id, id)) {
+                balance = balances[slot];
+                seq = journalSeq[slot];
+            }
+            visitor.visit(id, balance, seq);
+        }
+    }
+
+    /**
+     * Copies every balance while holding all stripe locks, so no transfer is
+     * half-applied in the copy. Transfers wait for the duration of one array pass.
+     */
+    public BalanceView snapshotBalances() {
+        try (AccountLockManager.Held ignored = accountLockManager.lockEverything()) {
+            // Stripe locks are never taken under the monitor, so this order cannot deadlock
+            synchronized (this) {
+                long[] copy = new long[balances.length];
+                for (int slot = 0; slot < copy.length; slot++) {
+                    copy[slot] = published.get(slot) == PUBLISHED ? balances[slot] : Long.MIN_VALUE;
+                }
+                return new BalanceView(copy);
+            }
+        }
+    }
+
+    /**
+     * Point-in-time balances taken by {@link #snapshotBalances()}.
+     */
+    public final class BalanceView {
+        private final long[] balances;
+
+        private BalanceView(long[] balances) {
+            this.balances = balances;
+        }
+
+        /**
+         * Returns the balance at the time of the copy, or null for accounts opened after it.
+         */
+        public BigDecimal balanceOf(UUID accountId) {
+            int slot = probe(accountId);
+            if (slot < 0 || balances[slot] == Long.MIN_VALUE) {
+                return null;
+            }
+            return fromMinorUnits(balances[slot]);
+        }
+    }
+
+    public interface AccountVisitor {
+        void visit(UUID accountId, long balance, long journalSeq) throws IOException;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    record DirtyBalance(int slot, UUID accountId, long balance, long lastTransactionMillis, long persistedBalance,
+                        long persistedVersion) {}
+}
@@ -0,0 +1,189 @@
+package com.vbank.account.ledger;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.repository.AccountBalanceWriter;
+import com.vbank.account.repository.AccountBalanceWriter.BalanceSnapshot;
+import com.vbank.account.repository.AccountBalanceWriter.StoredBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Write-behind flusher that persists dirty ledger balances in JDBC batches.
+ * Each overwrite is guarded by the row version the ledger last wrote, so a
+ * balance changed behind the ledger's back is reported instead of lost. The
+ * flusher also keeps the single-replica lease taken by {@link BalanceLedger}.
+ */
+@Component
+@ConditionalOnProperty(name = "vbank.account.ledger.enabled", havingValue = "true")
+public class LedgerFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerFlusher.class);
+    private static final LogThrottle flushFailureLog = new LogThrottle(Duration.ofSeconds(30));
+    private static final LogThrottle leaseLossLog = new LogThrottle(Duration.ofSeconds(30));
+
+    @Autowired
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private AccountBalanceWriter accountBalanceWriter;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.ledger.flush-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${vbank.account.ledger.lease-ms:30000}")
+    private long leaseMs;
+
+    private Counter flushedRows;
+    private Counter failedRows;
+    private Counter conflictRows;
+
+    @PostConstruct
+    void initMetrics() {
+        flushedRows = Counter.builder("account.ledger.flushed")
+                .description("Ledger balances written back to the database")
+                .register(meterRegistry);
+        failedRows = Counter.builder("account.ledger.flush.failed")
+                .description("Ledger balances whose write-behind failed and was re-queued")
+                .register(meterRegistry);
+        conflictRows = Counter.builder("account.ledger.flush.conflicts")
+                .description("Ledger balances not written because another writer changed the row")
+                .register(meterRegistry);
+        Gauge.builder("account.ledger.quarantined", balanceLedger, BalanceLedger::quarantinedCount)
+                .description("Accounts taken out of the ledger after a conflicting database write")
+                .register(meterRegistry);
+        Gauge.builder("account.ledger.size", balanceLedger, BalanceLedger::size)
+                .description("Accounts held in the balance ledger")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.ledger.flush-interval-ms:200}")
+    public synchronized void flush() {
+        List<BalanceLedger.DirtyBalance> pending = new ArrayList<>(batchSize);
+        balanceLedger.drainDirty(dirty -> {
+            pending.add(dirty);
+            if (pending.size() >= batchSize) {
+                write(pending);
+                pending.clear();
+            }
+        });
+        if (!pending.isEmpty()) {
+            write(pending);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.ledger.lease-renew-ms:10000}")
+    public void renewLease() {
+        if (!clusterJobRunner.runExclusive(BalanceLedger.LEASE, Duration.ofMillis(leaseMs), () -> { })) {
+            // Only possible after a pause longer than the lease; the version guard still stops overwrites
+            long suppressed = leaseLossLog.tryAcquire();
+            if (suppressed >= 0) {
+                logger.error("Balance ledger lease was taken by another replica; this replica must be restarted");
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        clusterJobRunner.release(BalanceLedger.LEASE);
+    }
+
+    private void write(List<BalanceLedger.DirtyBalance> batch) {
+        List<BalanceSnapshot> snapshots = new ArrayList<>(batch.size());
+        // History gets the net change since the previous flush, stamped with the last transfer time
+        List<BalanceHistoryRecorder.Change> changes = new ArrayList<>(batch.size());
+        for (BalanceLedger.DirtyBalance dirty : batch) {
+            LocalDateTime lastTx = LocalDateTime.ofInstant(Instant.ofEpochMilli(dirty.lastTransactionMillis()),
+                    ZoneId.systemDefault());
+            snapshots.add(new BalanceSnapshot(dirty.accountId(), BalanceLedger.fromMinorUnits(dirty.balance()), lastTx,
+                    dirty.persistedVersion()));
+            changes.add(new BalanceHistoryRecorder.Change(dirty.accountId(), lastTx,
+                    dirty.balance() - dirty.persistedBalance()));
+        }
+        Set<UUID> conflicts;
+        try {
+            conflicts = transactionTemplate.execute(status -> {
+                Set<UUID> stale = new HashSet<>(accountBalanceWriter.overwriteBalances(snapshots, LocalDateTime.now()));
+                balanceHistoryRecorder.recordMinorUnits(changes.stream()
+                        .filter(change -> !stale.contains(change.accountId()))
+                        .toList());
+                return stale;
+            });
+        } catch (RuntimeException e) {
+            for (BalanceLedger.DirtyBalance dirty : batch) {
+                balanceLedger.redirty(dirty.slot());
+            }
+            failedRows.increment(batch.size());
+            long suppressed = flushFailureLog.tryAcquire();
+            if (suppressed >= 0) {
+                logger.warn("Ledger write-behind failed, will retry ({} similar suppressed): {}", suppressed,
+                        e.getMessage());
+            }
+            return;
+        }
+        for (BalanceLedger.DirtyBalance dirty : batch) {
+            if (conflicts.contains(dirty.accountId())) {
+                reconcile(dirty);
+            } else {
+                balanceLedger.persisted(dirty.slot(), dirty.balance(), dirty.persistedVersion() + 1);
+            }
+        }
+        flushedRows.increment(batch.size() - conflicts.size());
+    }
+
+    /**
+     * Reloads a row whose version moved. If its balance is still the one the
+     * ledger wrote, the other write only touched other columns and the row is
+     * retried with the new version. Otherwise the account is quarantined: the
+     * ledger stops moving and writing it, and it is reported once.
+     */
+    private void reconcile(BalanceLedger.DirtyBalance dirty) {
+        StoredBalance stored = accountBalanceWriter.current(dirty.accountId());
+        if (stored != null && BalanceLedger.toMinorUnits(stored.balance()) == dirty.persistedBalance()) {
+            balanceLedger.adoptVersion(dirty.slot(), stored.version());
+            balanceLedger.redirty(dirty.slot());
+            return;
+        }
+        balanceLedger.quarantine(dirty.slot());
+        conflictRows.increment();
+        logger.error("Ledger quarantined account {}: its balance was changed outside the ledger (stored {}, "
+                        + "ledger last wrote {}, ledger now holds {}). Reconcile the row and restart the replica.",
+                dirty.accountId(), stored == null ? "none" : stored.balance(),
+                BalanceLedger.fromMinorUnits(dirty.persistedBalance()), BalanceLedger.fromMinorUnits(dirty.balance()));
+    }
+}
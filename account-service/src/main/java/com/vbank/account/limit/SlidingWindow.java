@@ -0,0 +1,132 @@
+package com.vbank.account.limit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bucketed rolling window of transfer counts and amounts for every slot of
+ * {@link TransferLimiter}. Each bucket is a single long holding the low bits
+ * of its bucket epoch above the accumulated value, so a stale bucket is
+ * reset by the same CAS that adds to it and readers skip buckets whose tag
+ * does not match. The window covers the current bucket and the
+ * {@code buckets - 1} before it.
+ */
+final class SlidingWindow {
+
+    private static final int TAG_BITS = 20;
+    private static final int VALUE_BITS = 64 - TAG_BITS;
+    private static final long VALUE_MASK = (1L << VALUE_BITS) - 1;
+    private static final long TAG_MASK = (1L << TAG_BITS) - 1;
+
+    // Largest amount a window may cap, leaving headroom for concurrent adders in one bucket
+    static final long MAX_AMOUNT_LIMIT = 1L << (VALUE_BITS - 4);
+
+    final String name;
+    final long bucketMillis;
+    final int buckets;
+    final long maxCount;
+    final long maxAmount;
+
+    // Null when the corresponding limit is disabled
+    private final AtomicLongArray counts;
+    private final AtomicLongArray amounts;
+
+    SlidingWindow(String name, long windowMillis, int buckets, long maxCount, long maxAmount, int capacity) {
+        if (maxAmount > MAX_AMOUNT_LIMIT) {
+            throw new IllegalArgumentException("Transfer limit " + name + " max-amount exceeds " + MAX_AMOUNT_LIMIT);
+        }
+        this.name = name;
+        this.buckets = Math.max(1, buckets);
+        this.bucketMillis = Math.max(1, windowMillis / this.buckets);
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+        this.counts = maxCount > 0 ? new AtomicLongArray(capacity * this.buckets) : null;
+        this.amounts = maxAmount > 0 ? new AtomicLongArray(capacity * this.buckets) : null;
+    }
+
+    long epochOf(long millis) {
+        return millis / bucketMillis;
+    }
+
+    boolean tracksCount() {
+        return counts != null;
+    }
+
+    boolean tracksAmount() {
+        return amounts != null;
+    }
+
+    void add(int slot, long epoch, long amount) {
+        int index = slot * buckets + (int) (epoch % buckets);
+        long tag = (epoch & TAG_MASK) << VALUE_BITS;
+        if (counts != null) {
+            add(counts, index, tag, 1L);
+        }
+        if (amounts != null) {
+            add(amounts, index, tag, amount);
+        }
+    }
+
+    /**
+     * Takes back an earlier {@link #add}, unless its bucket has already rolled over.
+     */
+    void remove(int slot, long epoch, long amount) {
+        int index = slot * buckets + (int) (epoch % buckets);
+        long tag = (epoch & TAG_MASK) << VALUE_BITS;
+        if (counts != null) {
+            remove(counts, index, tag, 1L);
+        }
+        if (amounts != null) {
+            remove(amounts, index, tag, amount);
+        }
+    }
+
+    long count(int slot, long epoch) {
+        return counts == null ? 0L : sum(counts, slot, epoch);
+    }
+
+    long amount(int slot, long epoch) {
+        return amounts == null ? 0L : sum(amounts, slot, epoch);
+    }
+
+    /**
+     * True when nothing is counted for the slot in the window ending at {@code epoch}.
+     */
+    boolean isEmpty(int slot, long epoch) {
+        return count(slot, epoch) == 0 && amount(slot, epoch) == 0;
+    }
+
+    private static void add(AtomicLongArray values, int index, long tag, long delta) {
+        while (true) {
+            long current = values.get(index);
+            long next = (current & ~VALUE_MASK) == tag ? current + delta : tag | delta;
+            if (values.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    private static void remove(AtomicLongArray values, int index, long tag, long delta) {
+        while (true) {
+            long current = values.get(index);
+            if ((current & ~VALUE_MASK) != tag) {
+                return;
+            }
+            if (values.compareAndSet(index, current, current - Math.min(delta, current & VALUE_MASK))) {
+                return;
+            }
+        }
+    }
+
+    private long sum(AtomicLongArray values, int slot, long epoch) {
+        int base = slot * buckets;
+        long total = 0;
+        for (int k = 0; k < buckets && k <= epoch; k++) {
+            long bucketEpoch = epoch - k;
+            long value = values.get(base + (int) (bucketEpoch % buckets));
+            if ((value >>> VALUE_BITS) == (bucketEpoch & TAG_MASK)) {
+                total += value & VALUE_MASK;
+            }
+        }
+        return total;
+    }
+}
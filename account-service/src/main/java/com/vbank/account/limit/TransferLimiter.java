@@ -0,0 +1,468 @@
+package com.vbank.account.limit;
+
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Per-account velocity and daily limits on outgoing transfers.
+ *
+ * Accounts are mapped to slots of a striped open-addressed table and every
+ * window keeps its buckets in primitive atomic arrays indexed by slot, so a
+ * check is a hash probe plus a few CAS operations and allocates nothing.
+ * A transfer is counted first and then checked; if it pushes a window over
+ * its limit it is taken back and rejected. Counters are rebuilt from recent
+ * debits in balance_history at startup.
+ *
+ * A slot whose windows are empty is handed to the next account that probes
+ * past it, so the table only has to hold accounts that transferred within
+ * the longest window. Each slot carries an owner generation that changes on
+ * reuse; a check that raced with the reuse of its slot takes its count back
+ * and starts over. Accounts that find no slot in their stripe go to a small
+ * overflow area checked under a lock, and when that is full too the
+ * transfer is rejected rather than let through unchecked.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "vbank.account.limits.enabled", havingValue = "true")
+public class TransferLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferLimiter.class);
+    private static final LogThrottle capacityLog = new LogThrottle(Duration.ofSeconds(30));
+
+    public static final long VELOCITY_COUNT_EXCEEDED = -1L;
+    public static final long VELOCITY_AMOUNT_EXCEEDED = -2L;
+    public static final long DAILY_COUNT_EXCEEDED = -3L;
+    public static final long DAILY_AMOUNT_EXCEEDED = -4L;
+    // No slot is free to track the account in
+    public static final long CAPACITY_EXCEEDED = -5L;
+
+    private static final int EMPTY = 0;
+    private static final long NO_SLOT = -1L;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${vbank.account.limits.capacity:262144}")
+    private int requestedCapacity;
+
+    @Value("${vbank.account.limits.stripes:64}")
+    private int requestedStripes;
+
+    @Value("${vbank.account.limits.overflow-capacity:4096}")
+    private int overflowCapacity;
+
+    @Value("${vbank.account.limits.velocity.window-ms:60000}")
+    private long velocityWindowMillis;
+
+    @Value("${vbank.account.limits.velocity.buckets:6}")
+    private int velocityBuckets;
+
+    @Value("${vbank.account.limits.velocity.max-count:20}")
+    private long velocityMaxCount;
+
+    @Value("${vbank.account.limits.velocity.max-amount-minor:0}")
+    private long velocityMaxAmount;
+
+    @Value("${vbank.account.limits.daily.window-ms:86400000}")
+    private long dailyWindowMillis;
+
+    @Value("${vbank.account.limits.daily.buckets:24}")
+    private int dailyBuckets;
+
+    @Value("${vbank.account.limits.daily.max-count:0}")
+    private long dailyMaxCount;
+
+    @Value("${vbank.account.limits.daily.max-amount-minor:5000000}")
+    private long dailyMaxAmount;
+
+    private int stripeShift;
+    private int stripeMask;
+    private int slotMask;
+    private int maxStripeSize;
+    private int tableCapacity;
+    private Object[] stripeLocks;
+    private int[] stripeSizes;
+    private long[] idHigh;
+    private long[] idLow;
+    // Owner generation of each slot; EMPTY until first claimed
+    private AtomicIntegerArray owners;
+
+    // Accounts whose stripe had no free slot, by slot above tableCapacity; guarded by itself
+    private final Map<UUID, Integer> overflowSlots = new HashMap<>();
+    private final ArrayDeque<Integer> freeOverflowSlots = new ArrayDeque<>();
+
+    private SlidingWindow velocity;
+    private SlidingWindow daily;
+
+    // Stamps from before this start were counted by an earlier process, not by the rebuilt windows
+    private final long startedAt = System.currentTimeMillis();
+
+    private Counter velocityRejections;
+    private Counter dailyRejections;
+    private Counter capacityRejections;
+    private Counter reclaimed;
+    private Counter overflowed;
+
+    @PostConstruct
+    void init() {
+        int stripes = Integer.highestOneBit(Math.max(1, requestedStripes - 1) << 1);
+        int perStripe = Integer.highestOneBit(Math.max(16, requestedCapacity / stripes - 1) << 1);
+        tableCapacity = stripes * perStripe;
+        int capacity = tableCapacity + Math.max(0, overflowCapacity);
+        stripeShift = Integer.numberOfTrailingZeros(perStripe);
+        stripeMask = stripes - 1;
+        slotMask = perStripe - 1;
+        maxStripeSize = (int) (perStripe * 0.75);
+        stripeLocks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeLocks[i] = new Object();
+        }
+        stripeSizes = new int[stripes];
+        idHigh = new long[tableCapacity];
+        idLow = new long[tableCapacity];
+        owners = new AtomicIntegerArray(tableCapacity);
+        for (int slot = tableCapacity; slot < capacity; slot++) {
+            freeOverflowSlots.add(slot);
+        }
+
+        velocity = new SlidingWindow("velocity", velocityWindowMillis, velocityBuckets,
+                velocityMaxCount, velocityMaxAmount, capacity);
+        daily = new SlidingWindow("daily", dailyWindowMillis, dailyBuckets,
+                dailyMaxCount, dailyMaxAmount, capacity);
+
+        velocityRejections = Counter.builder("account.limits.rejected").tag("window", "velocity")
+                .description("Transfers rejected by a per-account limit").register(meterRegistry);
+        dailyRejections = Counter.builder("account.limits.rejected").tag("window", "daily")
+                .description("Transfers rejected by a per-account limit").register(meterRegistry);
+        capacityRejections = Counter.builder("account.limits.rejected").tag("window", "capacity")
+                .description("Transfers rejected by a per-account limit").register(meterRegistry);
+        reclaimed = Counter.builder("account.limits.slots.reclaimed")
+                .description("Limiter slots handed over from an account with empty windows")
+                .register(meterRegistry);
+        overflowed = Counter.builder("account.limits.slots.overflow")
+                .description("Accounts tracked in the limiter overflow area because their stripe was full")
+                .register(meterRegistry);
+        Gauge.builder("account.limits.overflow.size", overflowSlots, this::overflowSize)
+                .description("Accounts currently tracked in the limiter overflow area")
+                .register(meterRegistry);
+
+        rebuild();
+    }
+
+    /**
+     * Replays debits still inside the longest window. balance_history holds
+     * one negative entry per outgoing transfer, except in ledger mode where
+     * the write-behind records one net entry per flush. Every shard is read.
+     */
+    private void rebuild() {
+        long now = System.currentTimeMillis();
+        long since = now - Math.max(velocity.bucketMillis * velocity.buckets, daily.bucketMillis * daily.buckets);
+        long[] replayed = new long[1];
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            shardRouter.onShard(shard, () -> replayShard(since, now, replayed));
+        }
+        logger.info("Transfer limiter rebuilt from {} recent debits", replayed[0]);
+    }
+
+    private void replayShard(long since, long now, long[] replayed) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT account_id, recorded_at, amount FROM balance_history WHERE recorded_at >= ? AND amount < 0");
+            statement.setTimestamp(1, new Timestamp(since));
+            statement.setFetchSize(1000);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            // Single-threaded, so the slot cannot change hands before the replay lands
+            long ref = slotFor(rs.getObject(1, UUID.class), now);
+            if (ref != NO_SLOT) {
+                int slot = slotOf(ref);
+                long at = rs.getTimestamp(2).getTime();
+                long amount = -rs.getLong(3);
+                replay(velocity, slot, at, now, amount);
+                replay(daily, slot, at, now, amount);
+                replayed[0]++;
+            }
+        });
+    }
+
+    private static void replay(SlidingWindow window, int slot, long at, long now, long amount) {
+        long epoch = window.epochOf(at);
+        if (epoch > window.epochOf(now) - window.buckets) {
+            window.add(slot, epoch, amount);
+        }
+    }
+
+    /**
+     * Counts an outgoing transfer against the account's windows.
+     *
+     * @return a positive stamp to pass to {@link #release} if the transfer does
+     * not go through, or one of the negative *_EXCEEDED codes
+     */
+    public long tryAcquire(UUID accountId, long amountMinor) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            long ref = slotFor(accountId, now);
+            if (ref == NO_SLOT) {
+                capacityRejections.increment();
+                long suppressed = capacityLog.tryAcquire();
+                if (suppressed >= 0) {
+                    logger.warn("Transfer limiter has no slot for account {}; rejecting transfer ({} similar suppressed)",
+                            accountId, suppressed);
+                }
+                return CAPACITY_EXCEEDED;
+            }
+            int slot = slotOf(ref);
+            long result;
+            if (slot >= tableCapacity) {
+                synchronized (overflowSlots) {
+                    // Reclaimed for another account since the lookup
+                    if (!Integer.valueOf(slot).equals(overflowSlots.get(accountId))) {
+                        continue;
+                    }
+                    result = acquire(slot, now, amountMinor);
+                }
+            } else {
+                result = acquire(slot, now, amountMinor);
+                if (owners.get(slot) != generationOf(ref)) {
+                    // The slot changed hands while we counted; give the count back and look again
+                    if (result > 0) {
+                        velocity.remove(slot, velocity.epochOf(now), amountMinor);
+                        daily.remove(slot, daily.epochOf(now), amountMinor);
+                    }
+                    continue;
+                }
+            }
+            if (result == VELOCITY_COUNT_EXCEEDED || result == VELOCITY_AMOUNT_EXCEEDED) {
+                velocityRejections.increment();
+            } else if (result < 0) {
+                dailyRejections.increment();
+            }
+            return result;
+        }
+    }
+
+    private long acquire(int slot, long now, long amountMinor) {
+        long result = tryAcquire(velocity, slot, now, amountMinor, VELOCITY_COUNT_EXCEEDED, VELOCITY_AMOUNT_EXCEEDED);
+        if (result < 0) {
+            return result;
+        }
+        result = tryAcquire(daily, slot, now, amountMinor, DAILY_COUNT_EXCEEDED, DAILY_AMOUNT_EXCEEDED);
+        if (result < 0) {
+            velocity.remove(slot, velocity.epochOf(now), amountMinor);
+            return result;
+        }
+        return now;
+    }
+
+    private static long tryAcquire(SlidingWindow window, int slot, long now, long amount,
+                                   long countExceeded, long amountExceeded) {
+        if (window.tracksAmount() && amount > window.maxAmount) {
+            return amountExceeded;
+        }
+        long epoch = window.epochOf(now);
+        window.add(slot, epoch, amount);
+        if (window.tracksCount() && window.count(slot, epoch) > window.maxCount) {
+            window.remove(slot, epoch, amount);
+            return countExceeded;
+        }
+        if (window.tracksAmount() && window.amount(slot, epoch) > window.maxAmount) {
+            window.remove(slot, epoch, amount);
+            return amountExceeded;
+        }
+        return 0L;
+    }
+
+    /**
+     * Takes back a transfer counted by {@link #tryAcquire} that was not applied.
+     */
+    public void release(UUID accountId, long amountMinor, long stamp) {
+        if (stamp < startedAt) {
+            return;
+        }
+        // Never claims: an account without a slot has nothing counted to take back
+        long ref = find(accountId);
+        if (ref != NO_SLOT) {
+            int slot = slotOf(ref);
+            velocity.remove(slot, velocity.epochOf(stamp), amountMinor);
+            daily.remove(slot, daily.epochOf(stamp), amountMinor);
+            return;
+        }
+        synchronized (overflowSlots) {
+            Integer slot = overflowSlots.get(accountId);
+            if (slot != null) {
+                velocity.remove(slot, velocity.epochOf(stamp), amountMinor);
+                daily.remove(slot, daily.epochOf(stamp), amountMinor);
+            }
+        }
+    }
+
+    public static String describe(long code) {
+        if (code == VELOCITY_COUNT_EXCEEDED) {
+            return "Transfer rejected: too many transfers from this account in a short period.";
+        }
+        if (code == VELOCITY_AMOUNT_EXCEEDED) {
+            return "Transfer rejected: amount transferred from this account in a short period exceeds the limit.";
+        }
+        if (code == DAILY_COUNT_EXCEEDED) {
+            return "Transfer rejected: daily transfer count limit reached for this account.";
+        }
+        if (code == CAPACITY_EXCEEDED) {
+            return "Transfer rejected: transfer limits cannot be checked for this account right now.";
+        }
+        return "Transfer rejected: daily transfer amount limit exceeded for this account.";
+    }
+
+    /**
+     * Returns the account's slot and its owner generation packed by
+     * {@link #pack}, claiming a slot on first use, or {@link #NO_SLOT}.
+     */
+    private long slotFor(UUID accountId, long now) {
+        long ref = find(accountId);
+        if (ref != NO_SLOT) {
+            return ref;
+        }
+        long high = accountId.getMostSignificantBits();
+        long low = accountId.getLeastSignificantBits();
+        long h = hash(high, low);
+        int stripe = (int) (h >>> 58) & stripeMask;
+        // Only claims take the stripe monitor; lookups never block
+        synchronized (stripeLocks[stripe]) {
+            ref = probe(stripe, (int) (h >>> 20), high, low);
+            if (ref != NO_SLOT) {
+                return ref;
+            }
+            synchronized (overflowSlots) {
+                Integer slot = overflowSlots.get(accountId);
+                if (slot != null) {
+                    return pack(0, slot);
+                }
+            }
+
+            // Take over the first slot on the probe path whose windows are empty, else the free slot ending it
+            int base = stripe << stripeShift;
+            int i = (int) (h >>> 20) & slotMask;
+            int generation;
+            while ((generation = owners.get(base + i)) != EMPTY) {
+                if (idle(base + i, now)) {
+                    idHigh[base + i] = high;
+                    idLow[base + i] = low;
+                    int next = generation == Integer.MAX_VALUE ? 1 : generation + 1;
+                    owners.set(base + i, next);
+                    reclaimed.increment();
+                    return pack(next, base + i);
+                }
+                i = (i + 1) & slotMask;
+            }
+            if (stripeSizes[stripe] < maxStripeSize) {
+                idHigh[base + i] = high;
+                idLow[base + i] = low;
+                owners.set(base + i, 1);
+                stripeSizes[stripe]++;
+                return pack(1, base + i);
+            }
+            return claimOverflow(accountId, now);
+        }
+    }
+
+    private long claimOverflow(UUID accountId, long now) {
+        synchronized (overflowSlots) {
+            if (freeOverflowSlots.isEmpty()) {
+                Iterator<Integer> slots = overflowSlots.values().iterator();
+                while (slots.hasNext()) {
+                    int slot = slots.next();
+                    if (idle(slot, now)) {
+                        slots.remove();
+                        freeOverflowSlots.add(slot);
+                    }
+                }
+                if (freeOverflowSlots.isEmpty()) {
+                    return NO_SLOT;
+                }
+            }
+            int slot = freeOverflowSlots.poll();
+            overflowSlots.put(accountId, slot);
+            overflowed.increment();
+            return pack(0, slot);
+        }
+    }
+
+    /**
+     * Looks the account up in the table without claiming, or {@link #NO_SLOT}.
+     * Accounts in the overflow area are not found here.
+     */
+    private long find(UUID accountId) {
+        long high = accountId.getMostSignificantBits();
+        long low = accountId.getLeastSignificantBits();
+        long h = hash(high, low);
+        return probe((int) (h >>> 58) & stripeMask, (int) (h >>> 20), high, low);
+    }
+
+    private long probe(int stripe, int hash, long high, long low) {
+        int base = stripe << stripeShift;
+        int i = hash & slotMask;
+        int generation;
+        // The generation is read before the id, so a slot taken over mid-read is caught by the caller's recheck
+        while ((generation = owners.get(base + i)) != EMPTY) {
+            if (idHigh[base + i] == high && idLow[base + i] == low) {
+                return pack(generation, base + i);
+            }
+            i = (i + 1) & slotMask;
+        }
+        return NO_SLOT;
+    }
+
+    private boolean idle(int slot, long now) {
+        return velocity.isEmpty(slot, velocity.epochOf(now)) && daily.isEmpty(slot, daily.epochOf(now));
+    }
+
+    private double overflowSize(Map<UUID, Integer> slots) {
+        synchronized (slots) {
+            return slots.size();
+        }
+    }
+
+    private static long hash(long high, long low) {
+        return (high ^ low) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static long pack(int generation, int slot) {
+        return ((long) generation << 32) | slot;
+    }
+
+    private static int slotOf(long ref) {
+        return (int) ref;
+    }
+
+    private static int generationOf(long ref) {
+        return (int) (ref >>> 32);
+    }
+}
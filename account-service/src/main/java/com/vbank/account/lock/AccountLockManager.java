@@ -0,0 +1,110 @@
+package com.vbank.account.lock;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process striped locks keyed by account id.
+ * Stripes are always acquired in ascending stripe order so that two callers
+ * locking overlapping sets of accounts can never deadlock.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Timer lockWaitTimer;
+
+    public AccountLockManager(@Value("${vbank.account.lock.stripes:1024}") int stripeCount,
+                              MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.lockWaitTimer = Timer.builder("account.lock.wait")
+                .description("Time spent waiting for account stripe locks")
+                .register(meterRegistry);
+    }
+
+    public int stripeOf(UUID accountId) {
+        long h = accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits();
+        int x = (int) (h ^ (h >>> 32));
+        x ^= (x >>> 16);
+        return x & mask;
+    }
+
+    /**
+     * Locks the stripes of both accounts and returns a handle that releases them.
+     */
+    public Held lock(UUID first, UUID second) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            return acquire(new int[]{a});
+        }
+        return acquire(a < b ? new int[]{a, b} : new int[]{b, a});
+    }
+
+    /**
+     * Locks the stripes of every account in the collection.
+     */
+    public Held lockAll(Collection<UUID> accountIds) {
+        int[] indexes = accountIds.stream().mapToInt(this::stripeOf).sorted().distinct().toArray();
+        return acquire(indexes);
+    }
+
+    /**
+     * Locks every stripe, stopping all account writes until the handle is closed.
+     */
+    public Held lockEverything() {
+        int[] indexes = new int[stripes.length];
+        Arrays.setAll(indexes, i -> i);
+        return acquire(indexes);
+    }
+
+    private Held acquire(int[] indexes) {
+        long start = System.nanoTime();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                acquired++;
+            }
+        } finally {
+            if (acquired < indexes.length) {
+                release(Arrays.copyOf(indexes, acquired));
+            }
+        }
+        lockWaitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Held(indexes);
+    }
+
+    private void release(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    public final class Held implements AutoCloseable {
+        private final int[] indexes;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            release(indexes);
+        }
+    }
+}
@@ -1,17 +1,25 @@
 package com.vbank.account.model;
 
+import com.vbank.account.id.UuidV7Id;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.UUID;
 @Entity
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = {
+        @Index(name = "idx_account_status_last_tx", columnList = "status, lastTransactionAt"),
+        @Index(name = "idx_account_user", columnList = "userId"),
+        @Index(name = "idx_account_created", columnList = "createdAt, id"),
+        @Index(name = "idx_account_status_created", columnList = "status, createdAt, id"),
+        @Index(name = "idx_account_type_created", columnList = "accountType, createdAt, id")
+})
 public class Account {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     @Column(name="id",unique = true,updatable = false, nullable = false)
     private UUID id;
 
@@ -43,6 +51,25 @@ public class Account {
     @Column(nullable = false)
     private LocalDateTime lastTransactionAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Part of the balance reserved by active funds holds
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
+    // Number of sub-balance slots; 0 means the balance column holds the whole balance
+    @Column(nullable = false)
+    private int balanceSlots;
+
+    // Fraction of a minor unit of interest carried to the next accrual, in units of 1 / (10000 * days per year)
+    @Column(nullable = false)
+    private long interestRemainder;
+
+    // Last business date interest was accrued for
+    private LocalDate interestAccruedOn;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
@@ -108,6 +135,25 @@ public class Account {
 
     public LocalDateTime getLastTransactionAt() { return lastTransactionAt; }
     public void setLastTransactionAt(LocalDateTime lastTransactionAt) { this.lastTransactionAt = lastTransactionAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public BigDecimal getHeldAmount() { return heldAmount; }
+    public void setHeldAmount(BigDecimal heldAmount) { this.heldAmount = heldAmount; }
+
+    public BigDecimal getAvailableBalance() { return balance.subtract(heldAmount); }
+
+    public int getBalanceSlots() { return balanceSlots; }
+    public void setBalanceSlots(int balanceSlots) { this.balanceSlots = balanceSlots; }
+
+    public boolean hasBalanceSlots() { return balanceSlots > 0; }
+
+    public long getInterestRemainder() { return interestRemainder; }
+    public void setInterestRemainder(long interestRemainder) { this.interestRemainder = interestRemainder; }
+
+    public LocalDate getInterestAccruedOn() { return interestAccruedOn; }
+    public void setInterestAccruedOn(LocalDate interestAccruedOn) { this.interestAccruedOn = interestAccruedOn; }
     public void updateBalance(BigDecimal newBalance) {
         this.balance = newBalance;
         this.lastTransactionAt = LocalDateTime.now();
@@ -0,0 +1,83 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One of the sub-balances of a hot account. The account's balance is the sum of its slots.
+ */
+@Entity
+@Table(name = "account_balance_slots")
+public class AccountBalanceSlot {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(nullable = false)
+    private LocalDateTime lastTransactionAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Constructors
+    public AccountBalanceSlot() {}
+
+    public AccountBalanceSlot(UUID accountId, int slot, BigDecimal balance) {
+        this.id = new Key(accountId, slot);
+        this.balance = balance;
+        this.lastTransactionAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Key getId() { return id; }
+    public void setId(Key id) { this.id = id; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+
+    public LocalDateTime getLastTransactionAt() { return lastTransactionAt; }
+    public void setLastTransactionAt(LocalDateTime lastTransactionAt) { this.lastTransactionAt = lastTransactionAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @Column(name = "account_id", nullable = false)
+        private UUID accountId;
+
+        @Column(name = "slot", nullable = false)
+        private int slot;
+
+        public Key() {}
+
+        public Key(UUID accountId, int slot) {
+            this.accountId = accountId;
+            this.slot = slot;
+        }
+
+        public UUID getAccountId() { return accountId; }
+        public int getSlot() { return slot; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return slot == key.slot && Objects.equals(accountId, key.accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountId, slot);
+        }
+    }
+}
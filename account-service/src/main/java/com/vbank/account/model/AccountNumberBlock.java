@@ -0,0 +1,29 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+@Entity
+@Table(name = "account_number_blocks")
+public class AccountNumberBlock {
+
+    @Id
+    @Column(name = "name", length = 50, nullable = false, updatable = false)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    // Constructors
+    public AccountNumberBlock() {}
+
+    public AccountNumberBlock(String name, long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getNextValue() { return nextValue; }
+    public void setNextValue(long nextValue) { this.nextValue = nextValue; }
+}
@@ -0,0 +1,70 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An account event waiting to be published. Rows are written in the
+ * transaction that changes the account and deleted once Kafka has
+ * acknowledged them; the id gives the publishing order.
+ */
+@Entity
+@Table(name = "account_outbox")
+public class AccountOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Stable id consumers deduplicate on, since delivery is at least once
+    @Column(nullable = false, unique = true, updatable = false)
+    private UUID eventId;
+
+    @Column(nullable = false, updatable = false)
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, updatable = false)
+    private EventType eventType;
+
+    // Signed balance change in minor units; BALANCE_CHANGED only
+    @Column(nullable = false, updatable = false)
+    private long amount;
+
+    // New status; STATUS_CHANGED only
+    @Column(length = 16, updatable = false)
+    private String status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+
+    public enum EventType {
+        BALANCE_CHANGED, STATUS_CHANGED
+    }
+
+    // Constructors
+    public AccountOutboxEvent() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getEventId() { return eventId; }
+    public void setEventId(UUID eventId) { this.eventId = eventId; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public EventType getEventType() { return eventType; }
+    public void setEventType(EventType eventType) { this.eventType = eventType; }
+
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -0,0 +1,48 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+@Entity
+@Table(name = "balance_checkpoints", indexes = {
+        @Index(name = "idx_balance_checkpoint_account_time", columnList = "accountId, asOf")
+})
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    // The balance includes every history entry recorded at or before this instant
+    @Column(nullable = false)
+    private LocalDateTime asOf;
+
+    // Balance in minor units
+    @Column(nullable = false)
+    private long balance;
+
+    // Constructors
+    public BalanceCheckpoint() {}
+
+    public BalanceCheckpoint(UUID accountId, LocalDateTime asOf, long balance) {
+        this.accountId = accountId;
+        this.asOf = asOf;
+        this.balance = balance;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public LocalDateTime getAsOf() { return asOf; }
+    public void setAsOf(LocalDateTime asOf) { this.asOf = asOf; }
+
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) { this.balance = balance; }
+}
@@ -0,0 +1,41 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+@Entity
+@Table(name = "balance_history", indexes = {
+        @Index(name = "idx_balance_history_account_time", columnList = "accountId, recordedAt")
+})
+public class BalanceHistoryEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private LocalDateTime recordedAt;
+
+    // Signed balance change in minor units
+    @Column(nullable = false)
+    private long amount;
+
+    // Constructors
+    public BalanceHistoryEntry() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public LocalDateTime getRecordedAt() { return recordedAt; }
+    public void setRecordedAt(LocalDateTime recordedAt) { this.recordedAt = recordedAt; }
+
+    public long getAmount() { return amount; }
+    public void setAmount(long amount) { this.amount = amount; }
+}
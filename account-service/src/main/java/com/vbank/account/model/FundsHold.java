@@ -0,0 +1,113 @@
+package com.vbank.account.model;
+
+import com.vbank.account.id.UuidV7Id;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An amount reserved against an account's available balance until it is
+ * captured into a transfer, released, or expires.
+ */
+@Entity
+@Table(name = "funds_holds", indexes = {
+        @Index(name = "idx_hold_status_expires", columnList = "status, expiresAt"),
+        @Index(name = "idx_hold_account", columnList = "accountId")
+})
+public class FundsHold {
+
+    @Id
+    @UuidV7Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private HoldStatus status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set when the hold is captured, released or expired
+    private LocalDateTime settledAt;
+
+    // Destination of the captured transfer
+    private UUID capturedToAccountId;
+
+    // Transfer limiter stamp of the placement, refunded if the hold is released or expires; 0 when not counted
+    @Column(nullable = false, updatable = false)
+    private long limitStamp;
+
+    // Replica whose limiter counted the hold
+    @Column(length = 128, updatable = false)
+    private String limitNodeId;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public enum HoldStatus {
+        // CAPTURING: a cross-shard capture is in its prepare phase
+        ACTIVE, CAPTURING, CAPTURED, RELEASED, EXPIRED
+    }
+
+    // Constructors
+    public FundsHold() {}
+
+    public FundsHold(UUID accountId, BigDecimal amount, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.accountId = accountId;
+        this.amount = amount;
+        this.status = HoldStatus.ACTIVE;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public void settle(HoldStatus status, LocalDateTime at) {
+        this.status = status;
+        this.settledAt = at;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public HoldStatus getStatus() { return status; }
+    public void setStatus(HoldStatus status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getSettledAt() { return settledAt; }
+    public void setSettledAt(LocalDateTime settledAt) { this.settledAt = settledAt; }
+
+    public UUID getCapturedToAccountId() { return capturedToAccountId; }
+    public void setCapturedToAccountId(UUID capturedToAccountId) { this.capturedToAccountId = capturedToAccountId; }
+
+    public long getLimitStamp() { return limitStamp; }
+    public void setLimitStamp(long limitStamp) { this.limitStamp = limitStamp; }
+
+    public String getLimitNodeId() { return limitNodeId; }
+    public void setLimitNodeId(String limitNodeId) { this.limitNodeId = limitNodeId; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,81 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+@Entity
+@Table(name = "interest_accrual_checkpoints", indexes = {
+        @Index(name = "idx_accrual_checkpoint_run", columnList = "runDate, partitionIndex")
+})
+public class InterestAccrualCheckpoint {
+
+    // "<runDate>#<partitionIndex>"
+    @Id
+    @Column(length = 40, nullable = false, updatable = false)
+    private String id;
+
+    @Column(nullable = false)
+    private LocalDate runDate;
+
+    @Column(nullable = false)
+    private int partitionIndex;
+
+    @Column(nullable = false)
+    private UUID fromId;
+
+    @Column(nullable = false)
+    private UUID toId;
+
+    // Last account id committed in this partition; null until the first chunk commits
+    private UUID lastId;
+
+    @Column(nullable = false)
+    private long rowsAccrued;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public InterestAccrualCheckpoint() {}
+
+    public InterestAccrualCheckpoint(LocalDate runDate, int partitionIndex, UUID fromId, UUID toId) {
+        this.id = runDate + "#" + partitionIndex;
+        this.runDate = runDate;
+        this.partitionIndex = partitionIndex;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public LocalDate getRunDate() { return runDate; }
+    public void setRunDate(LocalDate runDate) { this.runDate = runDate; }
+
+    public int getPartitionIndex() { return partitionIndex; }
+    public void setPartitionIndex(int partitionIndex) { this.partitionIndex = partitionIndex; }
+
+    public UUID getFromId() { return fromId; }
+    public void setFromId(UUID fromId) { this.fromId = fromId; }
+
+    public UUID getToId() { return toId; }
+    public void setToId(UUID toId) { this.toId = toId; }
+
+    public UUID getLastId() { return lastId; }
+    public void setLastId(UUID lastId) { this.lastId = lastId; }
+
+    public long getRowsAccrued() { return rowsAccrued; }
+    public void setRowsAccrued(long rowsAccrued) { this.rowsAccrued = rowsAccrued; }
+
+    public boolean isCompleted() { return completed; }
+    public void setCompleted(boolean completed) { this.completed = completed; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,44 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+@Entity
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(name = "job_name", length = 100, nullable = false, updatable = false)
+    private String jobName;
+
+    @Column(nullable = false, length = 100)
+    private String owner;
+
+    @Column(nullable = false)
+    private LocalDateTime leaseUntil;
+
+    @Column(nullable = false)
+    private LocalDateTime acquiredAt;
+
+    // Constructors
+    public JobLease() {}
+
+    public JobLease(String jobName, String owner, LocalDateTime acquiredAt, LocalDateTime leaseUntil) {
+        this.jobName = jobName;
+        this.owner = owner;
+        this.acquiredAt = acquiredAt;
+        this.leaseUntil = leaseUntil;
+    }
+
+    // Getters and Setters
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+
+    public LocalDateTime getAcquiredAt() { return acquiredAt; }
+    public void setAcquiredAt(LocalDateTime acquiredAt) { this.acquiredAt = acquiredAt; }
+}
@@ -0,0 +1,112 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One side of a transfer between accounts on different shards. The debit
+ * shard and the credit shard each keep a row with the same id; the debit
+ * row moving to COMMITTED is the point at which the transfer happens.
+ */
+@Entity
+@Table(name = "shard_transfers", indexes = {
+        @Index(name = "idx_shard_transfer_status_created", columnList = "status, createdAt")
+})
+public class ShardTransfer {
+
+    @Id
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8, updatable = false)
+    private Side side;
+
+    // Account on this shard
+    @Column(nullable = false, updatable = false)
+    private UUID accountId;
+
+    @Column(nullable = false, updatable = false)
+    private UUID counterpartyAccountId;
+
+    @Column(nullable = false, precision = 19, scale = 2, updatable = false)
+    private BigDecimal amount;
+
+    // Hold being captured; debit side only
+    @Column(updatable = false)
+    private UUID holdId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime resolvedAt;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    public enum Side {
+        DEBIT, CREDIT
+    }
+
+    public enum Status {
+        PREPARED, COMMITTED, ABORTED
+    }
+
+    // Constructors
+    public ShardTransfer() {}
+
+    public ShardTransfer(UUID id, Side side, UUID accountId, UUID counterpartyAccountId, BigDecimal amount,
+                         UUID holdId, LocalDateTime createdAt) {
+        this.id = id;
+        this.side = side;
+        this.accountId = accountId;
+        this.counterpartyAccountId = counterpartyAccountId;
+        this.amount = amount;
+        this.holdId = holdId;
+        this.status = Status.PREPARED;
+        this.createdAt = createdAt;
+    }
+
+    public void resolve(Status status, LocalDateTime at) {
+        this.status = status;
+        this.resolvedAt = at;
+    }
+
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public Side getSide() { return side; }
+    public void setSide(Side side) { this.side = side; }
+
+    public UUID getAccountId() { return accountId; }
+    public void setAccountId(UUID accountId) { this.accountId = accountId; }
+
+    public UUID getCounterpartyAccountId() { return counterpartyAccountId; }
+    public void setCounterpartyAccountId(UUID counterpartyAccountId) { this.counterpartyAccountId = counterpartyAccountId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public UUID getHoldId() { return holdId; }
+    public void setHoldId(UUID holdId) { this.holdId = holdId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getResolvedAt() { return resolvedAt; }
+    public void setResolvedAt(LocalDateTime resolvedAt) { this.resolvedAt = resolvedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -0,0 +1,64 @@
+package com.vbank.account.model;
+
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.Account.AccountType;
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Running count and balance of one user's accounts of one type and status.
+ * Kept on each shard for the accounts stored there and updated in the
+ * transaction that changes them, so a user's summary is read from a handful
+ * of rows instead of their accounts.
+ */
+@Entity
+@Table(name = "user_account_totals", indexes = {
+        @Index(name = "idx_user_totals_user", columnList = "userId")
+})
+public class UserAccountTotal {
+
+    // "<userId>#<accountType>#<status>"
+    @Id
+    @Column(length = 64, nullable = false, updatable = false)
+    private String id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, updatable = false)
+    private AccountType accountType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, updatable = false)
+    private AccountStatus status;
+
+    @Column(nullable = false)
+    private long accountCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    // Constructors
+    public UserAccountTotal() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public AccountType getAccountType() { return accountType; }
+    public void setAccountType(AccountType accountType) { this.accountType = accountType; }
+
+    public AccountStatus getStatus() { return status; }
+    public void setStatus(AccountStatus status) { this.status = status; }
+
+    public long getAccountCount() { return accountCount; }
+    public void setAccountCount(long accountCount) { this.accountCount = accountCount; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+}
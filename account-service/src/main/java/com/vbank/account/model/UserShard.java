@@ -0,0 +1,49 @@
+package com.vbank.account.model;
+
+import jakarta.persistence.*;
+import java.util.UUID;
+
+/**
+ * Directory entry saying that a user has accounts on a shard. Kept on the
+ * directory shard only.
+ */
+@Entity
+@Table(name = "user_shards", indexes = {
+        @Index(name = "idx_user_shard_user", columnList = "userId, shard")
+})
+public class UserShard {
+
+    // "<userId>#<shard>"
+    @Id
+    @Column(length = 48, nullable = false, updatable = false)
+    private String id;
+
+    @Column(nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(nullable = false, updatable = false)
+    private int shard;
+
+    // Constructors
+    public UserShard() {}
+
+    public UserShard(UUID userId, int shard) {
+        this.id = key(userId, shard);
+        this.userId = userId;
+        this.shard = shard;
+    }
+
+    public static String key(UUID userId, int shard) {
+        return userId + "#" + shard;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+
+    public int getShard() { return shard; }
+    public void setShard(int shard) { this.shard = shard; }
+}
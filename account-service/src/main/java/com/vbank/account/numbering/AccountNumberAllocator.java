@@ -0,0 +1,112 @@
+package com.vbank.account.numbering;
+
+import com.vbank.account.model.AccountNumberBlock;
+import com.vbank.account.repository.AccountNumberBlockRepository;
+import com.vbank.account.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out 10-digit account numbers without checking the accounts table.
+ * Each replica reserves a block of sequence values in account_number_blocks,
+ * serves it from memory and scrambles every value with a keyed
+ * {@link FeistelPermutation}, so numbers look random but can never repeat.
+ * The sequence row lives on the directory shard.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    private static final String SEQUENCE = "account-number";
+    private static final long DOMAIN = 10_000_000_000L;
+
+    @Autowired
+    private AccountNumberBlockRepository blockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Value("${vbank.account.number.block-size:1000}")
+    private int blockSize;
+
+    @Value("${vbank.account.number.key:vbank-account-numbers}")
+    private String key;
+
+    private FeistelPermutation permutation;
+    private TransactionTemplate reserveTemplate;
+
+    private long next;
+    private long limit;
+
+    @PostConstruct
+    void init() {
+        permutation = new FeistelPermutation(DOMAIN, key);
+        // Reservations must commit even if the caller's transaction rolls back,
+        // otherwise the same block could be handed out twice.
+        reserveTemplate = new TransactionTemplate(transactionManager);
+        reserveTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            shardRouter.onDirectory(() -> reserveTemplate.execute(status -> {
+                if (!blockRepository.existsById(SEQUENCE)) {
+                    blockRepository.insertSequence(SEQUENCE);
+                }
+                return null;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            // Another replica created the sequence row concurrently
+        }
+    }
+
+    public synchronized String next() {
+        if (next >= limit) {
+            reserve(blockSize);
+        }
+        return format(next++);
+    }
+
+    /**
+     * Allocates {@code count} numbers at once, reserving a block large enough for all of them.
+     */
+    public synchronized List<String> next(int count) {
+        List<String> numbers = new ArrayList<>(count);
+        while (numbers.size() < count) {
+            if (next >= limit) {
+                reserve(Math.max(blockSize, count - numbers.size()));
+            }
+            numbers.add(format(next++));
+        }
+        return numbers;
+    }
+
+    private String format(long sequenceValue) {
+        return String.format("%010d", permutation.permute(sequenceValue));
+    }
+
+    private void reserve(long size) {
+        Long start = shardRouter.onDirectory(() -> reserveTemplate.execute(status -> {
+            if (blockRepository.advance(SEQUENCE, size) == 0) {
+                throw new IllegalStateException("Account number sequence missing");
+            }
+            AccountNumberBlock block = blockRepository.findById(SEQUENCE)
+                    .orElseThrow(() -> new IllegalStateException("Account number sequence missing"));
+            return block.getNextValue() - size;
+        }));
+        if (start == null || start + size > DOMAIN) {
+            throw new IllegalStateException("Account number space exhausted");
+        }
+        next = start;
+        limit = start + size;
+    }
+}
@@ -0,0 +1,82 @@
+package com.vbank.account.outbox;
+
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.id.UuidV7;
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.AccountOutboxEvent.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes account events to the account_outbox table. Callers write inside
+ * the transaction that changes the account, so an event exists exactly when
+ * its change committed; {@link AccountEventPublisher} sends them on.
+ */
+@Component
+@ConditionalOnProperty(name = "vbank.account.events.enabled", havingValue = "true")
+public class AccountEventOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO account_outbox (event_id, account_id, event_type, amount, status, occurred_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Only rows the caller's bulk update just changed carry its timestamp
+    private static final String INSERT_IF_UPDATED_SQL =
+            "INSERT INTO account_outbox (event_id, account_id, event_type, amount, status, occurred_at) " +
+                    "SELECT ?, id, '" + EventType.STATUS_CHANGED.name() + "', 0, status, updated_at FROM accounts " +
+                    "WHERE id = ? AND status = ? AND updated_at = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void balanceChanged(List<BalanceHistoryRecorder.Change> changes) {
+        List<Object[]> args = new ArrayList<>(changes.size());
+        for (BalanceHistoryRecorder.Change change : changes) {
+            if (change.amount() != 0) {
+                args.add(new Object[]{UuidV7.next(), change.accountId(), EventType.BALANCE_CHANGED.name(),
+                        change.amount(), null, Timestamp.valueOf(change.at())});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+    }
+
+    public void statusChanged(Collection<UUID> accountIds, AccountStatus status, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            args.add(new Object[]{UuidV7.next(), accountId, EventType.STATUS_CHANGED.name(), 0L, status.name(),
+                    timestamp});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+    }
+
+    /**
+     * Records a status event for each of the accounts that a bulk update in
+     * this transaction moved to {@code status} with updatedAt {@code at};
+     * accounts the update skipped get none. {@code at} must fit the column
+     * exactly (microseconds), or no row matches.
+     */
+    public void statusChangedByUpdate(Collection<UUID> accountIds, AccountStatus status, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            args.add(new Object[]{UuidV7.next(), accountId, status.name(), timestamp});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IF_UPDATED_SQL, args);
+        }
+    }
+}
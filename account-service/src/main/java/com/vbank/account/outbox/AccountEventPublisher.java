@@ -0,0 +1,239 @@
+package com.vbank.account.outbox;
+
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.model.AccountOutboxEvent.EventType;
+import com.vbank.account.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the account event outbox to Kafka. Events are keyed by account id,
+ * so each account's events land on one partition, and are read in id order,
+ * which for one account is the order its transactions committed in. A batch
+ * is deleted only up to the first event Kafka did not acknowledge; the rest
+ * is sent again on the next run, so delivery is at least once and consumers
+ * deduplicate on eventId.
+ *
+ * Balance events carry the signed change rather than the new balance, so
+ * consumers apply them incrementally on top of a snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "vbank.account.events.enabled", havingValue = "true")
+public class AccountEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountEventPublisher.class);
+    private static final LogThrottle sendFailureLog = new LogThrottle(Duration.ofSeconds(30));
+
+    private static final String SELECT_SQL =
+            "SELECT id, event_id, account_id, event_type, amount, status, occurred_at " +
+                    "FROM account_outbox ORDER BY id LIMIT ?";
+
+    private static final String DELETE_SQL = "DELETE FROM account_outbox WHERE id = ?";
+
+    private static final String DEPTH_SQL = "SELECT COUNT(*), MIN(occurred_at) FROM account_outbox";
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.events.topic:account-events}")
+    private String topic;
+
+    @Value("${vbank.account.events.batch-size:500}")
+    private int batchSize;
+
+    @Value("${vbank.account.events.send-timeout-ms:3000}")
+    private long sendTimeoutMillis;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private Counter publishedCounter;
+    private Counter failedCounter;
+    private Timer publishLag;
+
+    @PostConstruct
+    void initMetrics() {
+        publishedCounter = Counter.builder("account.outbox.published")
+                .description("Account events acknowledged by Kafka")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("account.outbox.publish.failures")
+                .description("Outbox batches cut short by a failed send")
+                .register(meterRegistry);
+        publishLag = Timer.builder("account.outbox.publish.lag")
+                .description("Time from the account change to Kafka acknowledging its event")
+                .register(meterRegistry);
+        Gauge.builder("account.outbox.depth", depth, AtomicLong::get)
+                .description("Account events waiting in the outbox after the last drain")
+                .register(meterRegistry);
+        Gauge.builder("account.outbox.oldest.age", oldestAgeMillis, AtomicLong::get)
+                .description("Age of the oldest unpublished account event after the last drain")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes pending events on every shard and refreshes the outbox gauges.
+     * No batch is started that could still be waiting for Kafka after
+     * {@code budget}, so the caller's lease cannot run out mid-drain.
+     *
+     * @return number of events published
+     */
+    public int publishPending(Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        int published = 0;
+        long pending = 0;
+        LocalDateTime oldest = null;
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            published += shardRouter.onShard(shard, () -> drainShard(deadline));
+            Object[] remaining = shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(DEPTH_SQL,
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getTimestamp(2)}));
+            pending += (Long) remaining[0];
+            if (remaining[1] != null) {
+                LocalDateTime occurredAt = ((Timestamp) remaining[1]).toLocalDateTime();
+                oldest = oldest == null || occurredAt.isBefore(oldest) ? occurredAt : oldest;
+            }
+        }
+        depth.set(pending);
+        oldestAgeMillis.set(oldest == null ? 0L : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        return published;
+    }
+
+    private int drainShard(long deadline) {
+        int published = 0;
+        long sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        while (true) {
+            if (deadline - System.nanoTime() < sendTimeoutNanos) {
+                // The rest waits for the next run, which renews the lease first
+                return published;
+            }
+            List<PendingEvent> events = jdbcTemplate.query(SELECT_SQL, this::mapEvent, batchSize);
+            if (events.isEmpty()) {
+                return published;
+            }
+            int acknowledged = send(events);
+            if (acknowledged > 0) {
+                List<Object[]> ids = new ArrayList<>(acknowledged);
+                for (PendingEvent event : events.subList(0, acknowledged)) {
+                    ids.add(new Object[]{event.id()});
+                }
+                jdbcTemplate.batchUpdate(DELETE_SQL, ids);
+                published += acknowledged;
+                publishedCounter.increment(acknowledged);
+            }
+            if (acknowledged < events.size() || events.size() < batchSize) {
+                return published;
+            }
+        }
+    }
+
+    /**
+     * Sends the batch and waits for the acknowledgements in order.
+     *
+     * @return length of the acknowledged prefix
+     */
+    private int send(List<PendingEvent> events) {
+        List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>(events.size());
+        try {
+            for (PendingEvent event : events) {
+                sends.add(kafkaTemplate.send(topic, event.accountId().toString(), event.payload()));
+            }
+        } catch (RuntimeException e) {
+            // Wait for what was already handed to the producer
+            long suppressed = sendFailureLog.tryAcquire();
+            if (suppressed >= 0) {
+                logger.warn("Failed to send account event ({} similar suppressed): {}", suppressed, e.getMessage());
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return i;
+            } catch (ExecutionException | TimeoutException e) {
+                failedCounter.increment();
+                long suppressed = sendFailureLog.tryAcquire();
+                if (suppressed >= 0) {
+                    logger.warn("Publishing account events stopped at outbox row {} ({} similar suppressed): {}",
+                            events.get(i).id(), suppressed, e.getMessage());
+                }
+                return i;
+            }
+            publishLag.record(Duration.between(events.get(i).occurredAt(), LocalDateTime.now()));
+        }
+        if (sends.size() < events.size()) {
+            failedCounter.increment();
+        }
+        return sends.size();
+    }
+
+    private PendingEvent mapEvent(ResultSet rs, int rowNum) throws SQLException {
+        return new PendingEvent(rs.getLong(1), rs.getObject(2, UUID.class), rs.getObject(3, UUID.class),
+                EventType.valueOf(rs.getString(4)), rs.getLong(5), rs.getString(6),
+                rs.getTimestamp(7).toLocalDateTime());
+    }
+
+    private record PendingEvent(long id, UUID eventId, UUID accountId, EventType type, long amount,
+                                String status, LocalDateTime occurredAt) {
+
+        Map<String, Object> payload() {
+            if (type == EventType.BALANCE_CHANGED) {
+                return Map.of(
+                        "type", "AccountBalanceChanged",
+                        "eventId", eventId.toString(),
+                        "accountId", accountId.toString(),
+                        "amount", BalanceLedger.fromMinorUnits(amount),
+                        "occurredAt", occurredAt.format(formatter)
+                );
+            }
+            return Map.of(
+                    "type", "AccountStatusChanged",
+                    "eventId", eventId.toString(),
+                    "accountId", accountId.toString(),
+                    "status", status,
+                    "occurredAt", occurredAt.format(formatter)
+            );
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, AccountBalanceSlot.Key> {
+
+    @Query("select s from AccountBalanceSlot s where s.id.accountId = :accountId order by s.id.slot")
+    List<AccountBalanceSlot> findByAccountId(@Param("accountId") UUID accountId);
+
+    @Query("select coalesce(sum(s.balance), 0) from AccountBalanceSlot s where s.id.accountId = :accountId")
+    BigDecimal sumBalance(@Param("accountId") UUID accountId);
+}
@@ -0,0 +1,98 @@
+package com.vbank.account.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes balance changes for many accounts in a single JDBC batch,
+ * bypassing the per-entity dirty checking done by Hibernate.
+ */
+@Repository
+public class AccountBalanceWriter {
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE accounts SET balance = balance + ?, last_transaction_at = ?, updated_at = ?, " +
+                    "version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final String OVERWRITE_SQL =
+            "UPDATE accounts SET balance = ?, last_transaction_at = ?, updated_at = ?, " +
+                    "version = version + 1 WHERE id = ? AND version = ?";
+
+    private static final String CURRENT_SQL =
+            "SELECT balance, version FROM accounts WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies each delta once, guarded by the version the caller read.
+     *
+     * @return ids whose version no longer matched and were not updated
+     */
+    public List<UUID> applyDeltas(List<BalanceDelta> deltas, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (BalanceDelta delta : deltas) {
+            args.add(new Object[]{delta.amount(), timestamp, timestamp, delta.accountId(), delta.expectedVersion()});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, args);
+
+        List<UUID> conflicts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflicts.add(deltas.get(i).accountId());
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Overwrites balances with values owned by an authoritative in-memory copy,
+     * guarded by the version the copy last wrote.
+     *
+     * @return ids whose version no longer matched and were not updated
+     */
+    public List<UUID> overwriteBalances(List<BalanceSnapshot> snapshots, LocalDateTime now) {
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(snapshots.size());
+        for (BalanceSnapshot snapshot : snapshots) {
+            args.add(new Object[]{snapshot.balance(), Timestamp.valueOf(snapshot.lastTransactionAt()),
+                    updatedAt, snapshot.accountId(), snapshot.expectedVersion()});
+        }
+
+        int[] counts = jdbcTemplate.batchUpdate(OVERWRITE_SQL, args);
+
+        List<UUID> conflicts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                conflicts.add(snapshots.get(i).accountId());
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Reads the stored balance and version of an account, or null if the row is gone.
+     */
+    public StoredBalance current(UUID accountId) {
+        List<StoredBalance> rows = jdbcTemplate.query(CURRENT_SQL,
+                (rs, rowNum) -> new StoredBalance(rs.getBigDecimal(1), rs.getLong(2)), accountId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public record BalanceSnapshot(UUID accountId, BigDecimal balance, LocalDateTime lastTransactionAt,
+                                  long expectedVersion) {}
+
+    public record StoredBalance(BigDecimal balance, long version) {}
+
+    public record BalanceDelta(UUID accountId, BigDecimal amount, Long expectedVersion) {}
+}
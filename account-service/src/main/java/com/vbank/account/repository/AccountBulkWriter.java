@@ -0,0 +1,40 @@
+package com.vbank.account.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inserts new accounts with a single JDBC batch per call, skipping the
+ * persistence context so large imports do not grow the session.
+ */
+@Repository
+public class AccountBulkWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO accounts (id, account_number, user_id, account_type, balance, status, " +
+                    "created_at, updated_at, last_transaction_at, version, balance_slots, interest_remainder, " +
+                    "held_amount) VALUES (?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?, 0, 0, 0, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<NewAccount> accounts, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(accounts.size());
+        for (NewAccount account : accounts) {
+            args.add(new Object[]{account.id(), account.accountNumber(), account.userId(), account.accountType(),
+                    account.balance(), timestamp, timestamp, timestamp});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    public record NewAccount(UUID id, String accountNumber, UUID userId, String accountType, BigDecimal balance) {}
+}
@@ -0,0 +1,9 @@
+package com.vbank.account.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Keyset cursor position over accounts ordered by (lastTransactionAt, id).
+ */
+public record AccountKey(UUID id, LocalDateTime lastTransactionAt) {}
@@ -0,0 +1,68 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.Account.AccountType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset-paginated account listing ordered by (createdAt, id). The query only
+ * contains the predicates that were actually requested, so each filter
+ * combination can seek straight into its matching composite index.
+ */
+@Repository
+public class AccountListingRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<AccountSummaryView> findPage(AccountStatus status, AccountType accountType,
+                                             LocalDateTime createdFrom, LocalDateTime createdTo,
+                                             LocalDateTime afterCreatedAt, UUID afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "select new com.vbank.account.repository.AccountSummaryView(" +
+                        "a.id, a.accountNumber, a.userId, a.accountType, a.status, a.createdAt) " +
+                        "from Account a where 1 = 1");
+        if (status != null) {
+            jpql.append(" and a.status = :status");
+        }
+        if (accountType != null) {
+            jpql.append(" and a.accountType = :accountType");
+        }
+        if (createdFrom != null) {
+            jpql.append(" and a.createdAt >= :createdFrom");
+        }
+        if (createdTo != null) {
+            jpql.append(" and a.createdAt < :createdTo");
+        }
+        if (afterCreatedAt != null) {
+            jpql.append(" and (a.createdAt > :afterCreatedAt or (a.createdAt = :afterCreatedAt and a.id > :afterId))");
+        }
+        jpql.append(" order by a.createdAt, a.id");
+
+        TypedQuery<AccountSummaryView> query = entityManager.createQuery(jpql.toString(), AccountSummaryView.class);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (accountType != null) {
+            query.setParameter("accountType", accountType);
+        }
+        if (createdFrom != null) {
+            query.setParameter("createdFrom", createdFrom);
+        }
+        if (createdTo != null) {
+            query.setParameter("createdTo", createdTo);
+        }
+        if (afterCreatedAt != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
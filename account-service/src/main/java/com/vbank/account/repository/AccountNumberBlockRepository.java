@@ -0,0 +1,20 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.AccountNumberBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountNumberBlockRepository extends JpaRepository<AccountNumberBlock, String> {
+
+    @Modifying(clearAutomatically = true)
+    @Query("update AccountNumberBlock b set b.nextValue = b.nextValue + :size where b.name = :name")
+    int advance(@Param("name") String name, @Param("size") long size);
+
+    @Modifying
+    @Query(value = "insert into account_number_blocks (name, next_value) values (:name, 0)", nativeQuery = true)
+    int insertSequence(@Param("name") String name);
+}
@@ -2,10 +2,14 @@ package com.vbank.account.repository;
 
 import com.vbank.account.model.Account;
 import com.vbank.account.model.Account.AccountStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -13,5 +17,52 @@ import java.util.UUID;
 public interface AccountRepository extends JpaRepository<Account, UUID> {
     List<Account> findByUserId(UUID userId);
 
+    @Query("select a.id from Account a where a.userId = :userId order by a.createdAt, a.id")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId);
+
     boolean existsByAccountNumber(String accountNumber);
+
+    @Query("select new com.vbank.account.repository.AccountStatusView(a.id, a.status) from Account a " +
+            "where a.id in :ids")
+    List<AccountStatusView> findStatusesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("select a.id, a.balanceSlots from Account a where a.balanceSlots > 0")
+    List<Object[]> findBalanceSlotLayouts();
+
+    @Query("select new com.vbank.account.repository.AccountKey(a.id, a.lastTransactionAt) from Account a " +
+            "where a.status = :status and a.lastTransactionAt < :threshold and a.balanceSlots = 0 " +
+            "and substring(cast(a.id as String), 35, 2) between :fromBucket and :toBucket " +
+            "order by a.lastTransactionAt, a.id")
+    List<AccountKey> findStaleKeys(@Param("status") AccountStatus status,
+                                   @Param("threshold") LocalDateTime threshold,
+                                   @Param("fromBucket") String fromBucket,
+                                   @Param("toBucket") String toBucket,
+                                   Pageable pageable);
+
+    @Query("select new com.vbank.account.repository.AccountKey(a.id, a.lastTransactionAt) from Account a " +
+            "where a.status = :status and a.lastTransactionAt < :threshold and a.balanceSlots = 0 " +
+            "and substring(cast(a.id as String), 35, 2) between :fromBucket and :toBucket " +
+            "and (a.lastTransactionAt > :afterTs or (a.lastTransactionAt = :afterTs and a.id > :afterId)) " +
+            "order by a.lastTransactionAt, a.id")
+    List<AccountKey> findStaleKeysAfter(@Param("status") AccountStatus status,
+                                        @Param("threshold") LocalDateTime threshold,
+                                        @Param("fromBucket") String fromBucket,
+                                        @Param("toBucket") String toBucket,
+                                        @Param("afterTs") LocalDateTime afterTs,
+                                        @Param("afterId") UUID afterId,
+                                        Pageable pageable);
+
+    @Query("select new com.vbank.account.repository.AccountKey(a.id, a.lastTransactionAt) from Account a " +
+            "where a.id in :ids and a.status = com.vbank.account.model.Account.AccountStatus.ACTIVE " +
+            "and a.balanceSlots = 0")
+    List<AccountKey> findActiveKeysByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Account a set a.status = com.vbank.account.model.Account.AccountStatus.INACTIVE, " +
+            "a.updatedAt = :now, a.version = a.version + 1 " +
+            "where a.id in :ids and a.status = com.vbank.account.model.Account.AccountStatus.ACTIVE " +
+            "and a.lastTransactionAt < :threshold and a.balanceSlots = 0")
+    int inactivateStale(@Param("ids") List<UUID> ids,
+                        @Param("threshold") LocalDateTime threshold,
+                        @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,9 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.Account.AccountStatus;
+import java.util.UUID;
+
+/**
+ * Id and status of an account, for callers that only need to know it exists and is usable.
+ */
+public record AccountStatusView(UUID accountId, AccountStatus status) {}
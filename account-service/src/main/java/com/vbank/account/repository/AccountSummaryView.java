@@ -0,0 +1,12 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.Account.AccountType;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Listing row for back-office browsing; carries no balance so pages never touch the ledger or slots.
+ */
+public record AccountSummaryView(UUID accountId, String accountNumber, UUID userId, AccountType accountType,
+                                 AccountStatus status, LocalDateTime createdAt) {}
@@ -0,0 +1,15 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findTopByAccountIdAndAsOfLessThanEqualOrderByAsOfDesc(UUID accountId,
+                                                                                      LocalDateTime asOf);
+}
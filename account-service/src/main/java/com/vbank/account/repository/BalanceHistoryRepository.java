@@ -0,0 +1,40 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.BalanceHistoryEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface BalanceHistoryRepository extends JpaRepository<BalanceHistoryEntry, Long> {
+
+    @Query("select coalesce(sum(e.amount), 0) from BalanceHistoryEntry e " +
+            "where e.accountId = :accountId and e.recordedAt > :after and e.recordedAt <= :upTo")
+    long sumBetween(@Param("accountId") UUID accountId,
+                    @Param("after") LocalDateTime after,
+                    @Param("upTo") LocalDateTime upTo);
+
+    @Query("select count(e) from BalanceHistoryEntry e " +
+            "where e.accountId = :accountId and e.recordedAt > :after and e.recordedAt <= :upTo")
+    long countBetween(@Param("accountId") UUID accountId,
+                      @Param("after") LocalDateTime after,
+                      @Param("upTo") LocalDateTime upTo);
+
+    /**
+     * Accounts with at least {@code minEntries} history entries after their latest
+     * checkpoint and at or before {@code upTo}.
+     */
+    @Query("select e.accountId from BalanceHistoryEntry e " +
+            "where e.recordedAt <= :upTo and e.recordedAt > coalesce(" +
+            "(select max(c.asOf) from BalanceCheckpoint c where c.accountId = e.accountId), :epoch) " +
+            "group by e.accountId having count(e) >= :minEntries")
+    List<UUID> findCheckpointCandidates(@Param("upTo") LocalDateTime upTo,
+                                        @Param("epoch") LocalDateTime epoch,
+                                        @Param("minEntries") long minEntries,
+                                        Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.FundsHold;
+import com.vbank.account.model.FundsHold.HoldStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FundsHoldRepository extends JpaRepository<FundsHold, UUID> {
+
+    @Query("select h.id, h.expiresAt from FundsHold h " +
+            "where h.status = com.vbank.account.model.FundsHold.HoldStatus.ACTIVE")
+    List<Object[]> findActiveDeadlines();
+
+    @Query("select h.id from FundsHold h where h.status = :status and h.expiresAt < :before order by h.expiresAt")
+    List<UUID> findIdsByStatusAndExpiresAtBefore(@Param("status") HoldStatus status,
+                                                 @Param("before") LocalDateTime before,
+                                                 Pageable pageable);
+}
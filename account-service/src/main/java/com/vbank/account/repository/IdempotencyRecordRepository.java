@@ -0,0 +1,31 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, fingerprint, completed, expires_at) " +
+            "values (:key, :fingerprint, false, :expiresAt)", nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("fingerprint") String fingerprint,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.completed = true, r.statusCode = :statusCode, " +
+            "r.responseBody = :body where r.key = :key")
+    int complete(@Param("key") String key,
+                 @Param("statusCode") int statusCode,
+                 @Param("body") String body);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,27 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.InterestAccrualCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface InterestAccrualCheckpointRepository extends JpaRepository<InterestAccrualCheckpoint, String> {
+
+    List<InterestAccrualCheckpoint> findByRunDateOrderByPartitionIndex(LocalDate runDate);
+
+    @Modifying
+    @Query("update InterestAccrualCheckpoint c set c.lastId = :lastId, c.rowsAccrued = c.rowsAccrued + :rows, " +
+            "c.completed = :completed, c.updatedAt = :now where c.id = :id")
+    int advance(@Param("id") String id,
+                @Param("lastId") UUID lastId,
+                @Param("rows") long rows,
+                @Param("completed") boolean completed,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,36 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    /**
+     * Takes over the lease if it has expired or is already held by the caller.
+     */
+    @Modifying
+    @Query("update JobLease l set l.owner = :owner, l.acquiredAt = :now, l.leaseUntil = :until " +
+            "where l.jobName = :jobName and (l.leaseUntil < :now or l.owner = :owner)")
+    int tryAcquire(@Param("jobName") String jobName,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("delete from JobLease l where l.jobName = :jobName and l.owner = :owner")
+    int release(@Param("jobName") String jobName, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "insert into job_leases (job_name, owner, acquired_at, lease_until) " +
+            "values (:jobName, :owner, :now, :until)", nativeQuery = true)
+    int insertLease(@Param("jobName") String jobName,
+                    @Param("owner") String owner,
+                    @Param("now") LocalDateTime now,
+                    @Param("until") LocalDateTime until);
+}
@@ -0,0 +1,23 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.ShardTransfer;
+import com.vbank.account.model.ShardTransfer.Side;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ShardTransferRepository extends JpaRepository<ShardTransfer, UUID> {
+
+    @Query("select t.id from ShardTransfer t " +
+            "where t.status = com.vbank.account.model.ShardTransfer.Status.PREPARED " +
+            "and t.side = :side and t.createdAt < :before order by t.createdAt")
+    List<UUID> findPreparedBefore(@Param("side") Side side,
+                                  @Param("before") LocalDateTime before,
+                                  Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.vbank.account.repository;
+
+import com.vbank.account.model.UserShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserShardRepository extends JpaRepository<UserShard, String> {
+
+    @Query("select u.shard from UserShard u where u.userId = :userId order by u.shard")
+    List<Integer> findShardsByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,46 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.outbox.AccountEventPublisher;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "vbank.account.events.enabled", havingValue = "true")
+public class AccountEventOutboxScheduler {
+
+    @Autowired
+    private AccountEventPublisher publisher;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    // Longer than the poll interval: the holder renews it every run, so one
+    // replica keeps publishing and per-account order is kept
+    @Value("${vbank.account.events.lease-ms:10000}")
+    private long leaseMillis;
+
+    @Value("${vbank.account.events.send-timeout-ms:3000}")
+    private long sendTimeoutMillis;
+
+    @PostConstruct
+    void checkTimeouts() {
+        if (sendTimeoutMillis * 2 > leaseMillis) {
+            throw new IllegalStateException("vbank.account.events.send-timeout-ms must be at most half of "
+                    + "vbank.account.events.lease-ms, or a slow batch can outlive the publishing lease.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.events.poll-interval-ms:200}")
+    public void publishEvents() {
+        // Draining stops well inside the lease; the next run renews it and carries on
+        clusterJobRunner.runExclusive("account-event-outbox", Duration.ofMillis(leaseMillis),
+                () -> publisher.publishPending(Duration.ofMillis(leaseMillis / 2)));
+    }
+}
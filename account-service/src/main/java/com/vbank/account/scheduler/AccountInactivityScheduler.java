@@ -1,31 +1,84 @@
 package com.vbank.account.scheduler;
 
-import com.vbank.account.model.Account;
-import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.cluster.IdRange;
+import com.vbank.account.service.AccountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Periodic table scan for stale accounts. Used when account-cleanup.mode is
+ * "scan"; the default "wheel" mode uses AccountInactivityTracker instead.
+ */
 @Component
+@ConditionalOnExpression("${vbank.scheduling.account-cleanup.enabled:true} " +
+        "and '${vbank.scheduling.account-cleanup.mode:wheel}' == 'scan'")
 public class AccountInactivityScheduler {
 
+    private static final Logger logger = LoggerFactory.getLogger(AccountInactivityScheduler.class);
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
     @Autowired
-    private AccountRepository accountRepository;
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.scheduling.account-cleanup.inactive-after-hours:24}")
+    private long inactiveAfterHours;
+
+    @Value("${vbank.scheduling.account-cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${vbank.scheduling.account-cleanup.shards:1}")
+    private int shards;
 
-    @Scheduled(fixedRate = 3600000) // every hour
+    @Value("${vbank.scheduling.account-cleanup.lease-ms:3300000}")
+    private long leaseMillis;
+
+    private Timer runTimer;
+    private Counter inactivatedCounter;
+
+    @PostConstruct
+    void initMetrics() {
+        runTimer = Timer.builder("account.inactivation.run")
+                .description("Duration of each stale-account inactivation run")
+                .register(meterRegistry);
+        inactivatedCounter = Counter.builder("account.inactivation.rows")
+                .description("Accounts moved from ACTIVE to INACTIVE")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedRateString = "${vbank.scheduling.account-cleanup.fixed-rate:3600000}") // every hour
     public void inactivateStaleAccounts() {
-        List<Account> accounts = accountRepository.findAll();
-        for (Account account : accounts) {
-            Instant lastTx = Instant.parse(account.getLastTransactionAt().toString());
-            if (account.getStatus().equals(Account.AccountStatus.ACTIVE) &&
-                    lastTx.isBefore(Instant.now().minus(24, ChronoUnit.HOURS))) {
-                account.setStatus(Account.AccountStatus.INACTIVE);
-                accountRepository.save(account);
-            }
-        }
+        LocalDateTime threshold = LocalDateTime.now().minusHours(inactiveAfterHours);
+        clusterJobRunner.runSharded("account-inactivation", shards, Duration.ofMillis(leaseMillis),
+                range -> inactivate(threshold, range));
+    }
+
+    private void inactivate(LocalDateTime threshold, IdRange range) {
+        long start = System.nanoTime();
+
+        int inactivated = accountService.inactivateStaleAccounts(threshold, chunkSize, range);
+
+        long elapsed = System.nanoTime() - start;
+        runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        inactivatedCounter.increment(inactivated);
+        logger.info("Inactivated {} stale accounts in {} ms", inactivated, TimeUnit.NANOSECONDS.toMillis(elapsed));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.history.BalanceHistoryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Component
+@ConditionalOnProperty(name = "vbank.account.history.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCheckpointScheduler {
+
+    @Autowired
+    private BalanceHistoryService balanceHistoryService;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Entries newer than this may still belong to uncommitted transactions
+    @Value("${vbank.account.history.settle-ms:60000}")
+    private long settleMillis;
+
+    @Value("${vbank.account.history.checkpoint-lease-ms:50000}")
+    private long leaseMillis;
+
+    private Counter checkpointsWritten;
+
+    @PostConstruct
+    void initMetrics() {
+        checkpointsWritten = Counter.builder("account.history.checkpoints")
+                .description("Balance checkpoints written")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.history.checkpoint-interval-ms:60000}")
+    public void writeCheckpoints() {
+        LocalDateTime upTo = LocalDateTime.now().minusNanos(settleMillis * 1_000_000);
+        clusterJobRunner.runExclusive("balance-checkpoints", Duration.ofMillis(leaseMillis),
+                () -> checkpointsWritten.increment(balanceHistoryService.checkpoint(upTo)));
+    }
+}
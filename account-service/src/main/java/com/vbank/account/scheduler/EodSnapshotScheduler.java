@@ -0,0 +1,41 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.export.EodSnapshotExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Component
+@ConditionalOnProperty(name = "vbank.account.eod-export.enabled", havingValue = "true")
+public class EodSnapshotScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(EodSnapshotScheduler.class);
+
+    @Autowired
+    private EodSnapshotExporter eodSnapshotExporter;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Value("${vbank.account.eod-export.lease-ms:3600000}")
+    private long leaseMillis;
+
+    @Scheduled(cron = "${vbank.account.eod-export.cron:0 5 0 * * *}")
+    public void exportEndOfDay() {
+        clusterJobRunner.runExclusive("eod-snapshot-export", Duration.ofMillis(leaseMillis), () -> {
+            try {
+                eodSnapshotExporter.export();
+            } catch (IOException e) {
+                logger.error("End-of-day snapshot export failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.service.HoldService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class HoldExpiryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldExpiryScheduler.class);
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    // Holds this far past their deadline were not expired by the replica that placed them
+    @Value("${vbank.account.holds.reconcile-grace-ms:300000}")
+    private long reconcileGraceMillis;
+
+    @Value("${vbank.account.holds.reconcile-lease-ms:540000}")
+    private long reconcileLeaseMillis;
+
+    @Scheduled(fixedDelayString = "${vbank.account.holds.tick-ms:1000}")
+    public void expireDueHolds() {
+        int expired = holdService.expireDue();
+        if (expired > 0) {
+            logger.debug("Expired {} funds holds", expired);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vbank.account.holds.reconcile-interval-ms:600000}")
+    public void reconcileOverdueHolds() {
+        clusterJobRunner.runExclusive("hold-expiry-reconcile", Duration.ofMillis(reconcileLeaseMillis), () -> {
+            int expired = holdService.expireOverdue(reconcileGraceMillis);
+            if (expired > 0) {
+                logger.info("Reconcile sweep expired {} overdue funds holds", expired);
+            }
+        });
+    }
+}
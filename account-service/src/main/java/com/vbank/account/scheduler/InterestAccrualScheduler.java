@@ -0,0 +1,43 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.interest.InterestAccrualEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+@Component
+@ConditionalOnProperty(name = "vbank.account.interest.enabled", havingValue = "true")
+public class InterestAccrualScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(InterestAccrualScheduler.class);
+
+    @Autowired
+    private InterestAccrualEngine interestAccrualEngine;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Value("${vbank.account.interest.lease-ms:3600000}")
+    private long leaseMillis;
+
+    // Runs after midnight and accrues the day that just ended
+    @Scheduled(cron = "${vbank.account.interest.cron:0 30 0 * * *}")
+    public void accrueInterest() {
+        LocalDate runDate = LocalDate.now().minusDays(1);
+        clusterJobRunner.runExclusive("interest-accrual", Duration.ofMillis(leaseMillis), () -> {
+            try {
+                interestAccrualEngine.accrue(runDate);
+            } catch (RuntimeException e) {
+                logger.error("Interest accrual for {} failed", runDate, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package com.vbank.account.scheduler;
+
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.shard.CrossShardTransferCoordinator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConditionalOnExpression("${vbank.account.shards.count:1} > 1")
+public class ShardTransferRecoveryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardTransferRecoveryScheduler.class);
+
+    @Autowired
+    private CrossShardTransferCoordinator coordinator;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Value("${vbank.account.shards.recovery-lease-ms:25000}")
+    private long leaseMillis;
+
+    @Scheduled(fixedDelayString = "${vbank.account.shards.recovery-interval-ms:30000}")
+    public void recoverPreparedTransfers() {
+        clusterJobRunner.runExclusive("shard-transfer-recovery", Duration.ofMillis(leaseMillis), () -> {
+            int resolved = coordinator.recover();
+            if (resolved > 0) {
+                logger.info("Resolved {} interrupted cross-shard transfers", resolved);
+            }
+        });
+    }
+}
@@ -0,0 +1,272 @@
+package com.vbank.account.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.dto.AccountCreationDto;
+import com.vbank.account.dto.AccountImportResultDto;
+import com.vbank.account.dto.AccountImportSummaryDto;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.id.UuidV7;
+import com.vbank.account.inactivity.AccountInactivityTracker;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.model.Account;
+import com.vbank.account.numbering.AccountNumberAllocator;
+import com.vbank.account.outbox.AccountEventOutbox;
+import com.vbank.account.repository.AccountBulkWriter;
+import com.vbank.account.shard.ShardRouter;
+import com.vbank.account.shard.UserShardDirectory;
+import com.vbank.account.summary.UserAccountTotals;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Streams accounts from an NDJSON or CSV body into the database. Records are
+ * read one line at a time and inserted in fixed-size batches, each in its own
+ * transaction, so memory use depends on the batch size rather than the file.
+ */
+@Service
+public class AccountImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    /**
+     * Receives per-record results as batches complete.
+     */
+    public interface ResultSink {
+        void accept(AccountImportResultDto result) throws IOException;
+
+        void batchCompleted() throws IOException;
+    }
+
+    @Autowired
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Autowired
+    private AccountBulkWriter accountBulkWriter;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired(required = false)
+    private AccountInactivityTracker inactivityTracker;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private UserAccountTotals userAccountTotals;
+
+    @Autowired(required = false)
+    private AccountEventOutbox eventOutbox;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserShardDirectory userShardDirectory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.import.batch-size:1000}")
+    private int batchSize;
+
+    public AccountImportSummaryDto importAccounts(InputStream body, Format format, ResultSink sink) throws IOException {
+        long start = System.nanoTime();
+        long created = 0;
+        long rejected = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && isCsvHeader(line))) {
+                continue;
+            }
+
+            AccountCreationDto record;
+            try {
+                record = format == Format.CSV ? parseCsv(line) : objectMapper.readValue(line, AccountCreationDto.class);
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                sink.accept(AccountImportResultDto.rejected(lineNumber, "Unparseable record: " + e.getMessage()));
+                rejected++;
+                continue;
+            }
+            String violation = validate(record);
+            if (violation != null) {
+                sink.accept(AccountImportResultDto.rejected(lineNumber, violation));
+                rejected++;
+                continue;
+            }
+
+            batch.add(new PendingRecord(lineNumber, record));
+            if (batch.size() == batchSize) {
+                int inserted = flush(batch, sink);
+                created += inserted;
+                rejected += batch.size() - inserted;
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            int inserted = flush(batch, sink);
+            created += inserted;
+            rejected += batch.size() - inserted;
+        }
+        meterRegistry.counter("account.import.records", "result", "created").increment(created);
+        meterRegistry.counter("account.import.records", "result", "rejected").increment(rejected);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new AccountImportSummaryDto(created, rejected, elapsedMillis);
+    }
+
+    /**
+     * Inserts one batch in its own transaction and reports every record in it.
+     * With several shards the batch is split by shard and each part commits
+     * on its own.
+     *
+     * @return the number of accounts created
+     */
+    private int flush(List<PendingRecord> batch, ResultSink sink) throws IOException {
+        List<String> numbers = accountNumberAllocator.next(batch.size());
+        List<AccountBulkWriter.NewAccount> accounts = new ArrayList<>(batch.size());
+        Map<Integer, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            AccountCreationDto dto = batch.get(i).dto();
+            UUID id = UuidV7.next();
+            accounts.add(new AccountBulkWriter.NewAccount(id, numbers.get(i), dto.getUserId(),
+                    dto.getAccountType().name(), dto.getInitialBalance()));
+            byShard.computeIfAbsent(shardRouter.shardOf(id), shard -> new ArrayList<>()).add(i);
+        }
+
+        AccountImportResultDto[] results = new AccountImportResultDto[batch.size()];
+        Set<UUID> userIds = new HashSet<>();
+        Map<UUID, Long> openingBalances = new LinkedHashMap<>();
+        for (Map.Entry<Integer, List<Integer>> group : byShard.entrySet()) {
+            List<AccountBulkWriter.NewAccount> shardAccounts = new ArrayList<>(group.getValue().size());
+            Map<UUID, BigDecimal> openingDeltas = new LinkedHashMap<>();
+            for (int i : group.getValue()) {
+                AccountBulkWriter.NewAccount account = accounts.get(i);
+                shardAccounts.add(account);
+                openingDeltas.put(account.id(), account.balance());
+            }
+
+            try {
+                for (UUID userId : shardAccounts.stream().map(AccountBulkWriter.NewAccount::userId)
+                        .collect(Collectors.toSet())) {
+                    userShardDirectory.register(userId, group.getKey());
+                }
+                LocalDateTime now = LocalDateTime.now();
+                shardRouter.onShard(group.getKey(), () -> transactionTemplate.executeWithoutResult(status -> {
+                    accountBulkWriter.insertAll(shardAccounts, now);
+                    userAccountTotals.accountsOpened(openingDeltas.keySet());
+                    balanceHistoryRecorder.recordAll(openingDeltas, now);
+                    if (eventOutbox != null) {
+                        eventOutbox.statusChanged(openingDeltas.keySet(), Account.AccountStatus.ACTIVE, now);
+                    }
+                }));
+            } catch (DataAccessException e) {
+                // The part rolled back as a unit; the allocated numbers are simply skipped
+                for (int i : group.getValue()) {
+                    results[i] = AccountImportResultDto.rejected(batch.get(i).line(),
+                            "Batch insert failed: " + e.getMostSpecificCause().getMessage());
+                }
+                continue;
+            }
+
+            for (int i : group.getValue()) {
+                AccountBulkWriter.NewAccount account = accounts.get(i);
+                userIds.add(account.userId());
+                openingBalances.put(account.id(), BalanceLedger.toMinorUnits(account.balance()));
+                results[i] = new AccountImportResultDto(batch.get(i).line(), true, account.id(),
+                        account.accountNumber(), "Account created successfully.");
+            }
+        }
+
+        if (balanceLedger != null) {
+            balanceLedger.openAll(openingBalances, System.currentTimeMillis());
+        }
+        if (inactivityTracker != null) {
+            inactivityTracker.touch(openingBalances.keySet());
+        }
+        userIds.forEach(accountCache::evictUser);
+
+        for (AccountImportResultDto result : results) {
+            sink.accept(result);
+        }
+        sink.batchCompleted();
+        return openingBalances.size();
+    }
+
+    private String validate(AccountCreationDto record) {
+        Set<ConstraintViolation<AccountCreationDto>> violations = validator.validate(record);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase().startsWith("userid");
+    }
+
+    /**
+     * Parses "userId,accountType,initialBalance"; fields may be double-quoted.
+     */
+    private static AccountCreationDto parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 3) {
+            throw new IllegalArgumentException("expected 3 fields but found " + fields.length);
+        }
+        return new AccountCreationDto(
+                UUID.fromString(unquote(fields[0])),
+                Account.AccountType.valueOf(unquote(fields[1]).toUpperCase()),
+                new BigDecimal(unquote(fields[2])));
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    private record PendingRecord(long line, AccountCreationDto dto) {}
+}
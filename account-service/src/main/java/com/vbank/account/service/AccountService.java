@@ -1,22 +1,63 @@
 package com.vbank.account.service;
 
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.cluster.IdRange;
 import com.vbank.account.dto.AccountCreationDto;
+import com.vbank.account.dto.AccountLookupResponseDto;
+import com.vbank.account.dto.AccountPageDto;
 import com.vbank.account.dto.AccountResponseDto;
+import com.vbank.account.dto.BatchTransferResponseDto;
+import com.vbank.account.dto.TransferLegResultDto;
 import com.vbank.account.dto.TransferDto;
+import com.vbank.account.dto.UserAccountSummaryDto;
+import com.vbank.account.inactivity.AccountInactivityTracker;
 import com.vbank.account.model.Account;
 import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.repository.AccountBalanceWriter;
+import com.vbank.account.repository.AccountKey;
+import com.vbank.account.repository.AccountListingRepository;
 import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.repository.AccountStatusView;
+import com.vbank.account.repository.AccountSummaryView;
 import com.vbank.account.exception.AccountNotFoundException;
 import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.exception.TransferLimitExceededException;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.id.UuidV7;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.limit.TransferLimiter;
+import com.vbank.account.lock.AccountLockManager;
+import com.vbank.account.numbering.AccountNumberAllocator;
+import com.vbank.account.outbox.AccountEventOutbox;
+import com.vbank.account.shard.CrossShardTransferCoordinator;
+import com.vbank.account.shard.ShardRouter;
+import com.vbank.account.shard.UserShardDirectory;
+import com.vbank.account.summary.UserAccountTotals;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.UUID;
 @Service
@@ -26,99 +67,616 @@ public class AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
-    private final Random random = new Random();
+    @Autowired
+    private AccountBalanceWriter accountBalanceWriter;
+
+    @Autowired
+    private AccountListingRepository accountListingRepository;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired(required = false)
+    private TransferPipeline transferPipeline;
+
+    @Autowired(required = false)
+    private TransferLimiter transferLimiter;
+
+    @Autowired(required = false)
+    private AccountInactivityTracker inactivityTracker;
+
+    @Autowired
+    private UserAccountTotals userAccountTotals;
+
+    @Autowired(required = false)
+    private AccountEventOutbox eventOutbox;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private UserShardDirectory userShardDirectory;
+
+    @Autowired
+    private CrossShardTransferCoordinator crossShardTransferCoordinator;
+
+    // Listing order across shards; the text form of a UUID sorts like the database compares it
+    private static final Comparator<AccountSummaryView> LISTING_ORDER =
+            Comparator.comparing(AccountSummaryView::createdAt)
+                    .thenComparing(view -> view.accountId().toString());
 
     public AccountResponseDto createAccount(AccountCreationDto creationDto) {
         // Generate unique account number
         String accountNumber = generateAccountNumber();
 
         Account account = new Account();
+        // The id is drawn up front because it decides the shard the account is stored on
+        account.setId(UuidV7.next());
         account.setAccountNumber(accountNumber);
         account.setUserId(creationDto.getUserId());
         account.setAccountType(creationDto.getAccountType());
         account.setBalance(creationDto.getInitialBalance());
 
-        Account savedAccount = accountRepository.save(account);
+        int shard = shardRouter.shardOf(account.getId());
+        userShardDirectory.register(account.getUserId(), shard);
+        Account savedAccount = shardRouter.onShard(shard, () -> {
+            // Flushed while the shard is pinned, before the commit
+            Account saved = accountRepository.saveAndFlush(account);
+            userAccountTotals.accountsOpened(List.of(saved.getId()));
+            balanceHistoryRecorder.record(saved.getId(), saved.getBalance(), saved.getCreatedAt());
+            if (eventOutbox != null) {
+                eventOutbox.statusChanged(List.of(saved.getId()), saved.getStatus(), saved.getCreatedAt());
+            }
+            return saved;
+        });
+        if (balanceLedger != null) {
+            balanceLedger.open(savedAccount.getId(), BalanceLedger.toMinorUnits(savedAccount.getBalance()),
+                    System.currentTimeMillis());
+        }
+        accountCache.evictUserAfterCommit(savedAccount.getUserId());
+        if (inactivityTracker != null) {
+            inactivityTracker.touch(savedAccount.getId());
+        }
 
         return new AccountResponseDto(savedAccount.getId(), savedAccount.getAccountNumber(),
                 "Account created successfully.");
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public AccountResponseDto getAccountById(UUID accountId) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account with ID " + accountId + " not found."));
-
-        return new AccountResponseDto(account.getId(), account.getAccountNumber(),
-                account.getAccountType(), account.getBalance(), account.getStatus());
+        return accountCache.get(accountId, id -> shardRouter.onAccount(id, () -> {
+            Account account = accountRepository.findById(id)
+                    .orElseThrow(() -> new AccountNotFoundException("Account with ID " + id + " not found."));
+            return toResponseDto(account);
+        }));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<AccountResponseDto> getAccountsByUserId(UUID userId) {
-        List<Account> accounts = accountRepository.findByUserId(userId);
+        List<UUID> accountIds = accountCache.getUserAccountIds(userId, this::findAccountIdsByUser);
 
-        if (accounts.isEmpty()) {
+        if (accountIds.isEmpty()) {
             throw new AccountNotFoundException("No accounts found for user ID " + userId + ".");
         }
 
-        return accounts.stream()
-                .map(account -> new AccountResponseDto(account.getId(), account.getAccountNumber(),
-                        account.getAccountType(), account.getBalance(), account.getStatus()))
+        return accountCache.getAll(accountIds, this::loadAccounts);
+    }
+
+    /**
+     * Account count, balance by type and count by status for the user, read
+     * from the maintained totals on the shards the user has accounts on. A
+     * user without accounts gets zeros rather than an error.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UserAccountSummaryDto getUserAccountSummary(UUID userId) {
+        Map<Account.AccountType, BigDecimal> balancesByType = new EnumMap<>(Account.AccountType.class);
+        for (Account.AccountType type : Account.AccountType.values()) {
+            balancesByType.put(type, BigDecimal.ZERO.setScale(2));
+        }
+        Map<AccountStatus, Long> countsByStatus = new EnumMap<>(AccountStatus.class);
+        for (AccountStatus status : AccountStatus.values()) {
+            countsByStatus.put(status, 0L);
+        }
+
+        long accountCount = 0;
+        for (int shard : userShardDirectory.shardsOf(userId)) {
+            List<UserAccountTotals.Total> totals = shardRouter.onShard(shard, () -> userAccountTotals.totalsOf(userId));
+            for (UserAccountTotals.Total total : totals) {
+                accountCount += total.accountCount();
+                balancesByType.merge(total.accountType(), total.balance(), BigDecimal::add);
+                countsByStatus.merge(total.status(), total.accountCount(), Long::sum);
+            }
+        }
+        return new UserAccountSummaryDto(userId, accountCount, balancesByType, countsByStatus);
+    }
+
+    private List<UUID> findAccountIdsByUser(UUID userId) {
+        if (!shardRouter.isSharded()) {
+            return accountRepository.findIdsByUserId(userId);
+        }
+        List<UUID> accountIds = new ArrayList<>();
+        for (int shard : userShardDirectory.shardsOf(userId)) {
+            accountIds.addAll(shardRouter.onShard(shard, () -> accountRepository.findIdsByUserId(userId)));
+        }
+        // Time-ordered ids keep the creation order of the unsharded query
+        Collections.sort(accountIds);
+        return accountIds;
+    }
+
+    /**
+     * Loads the accounts with one IN query per shard they live on.
+     */
+    private List<AccountResponseDto> loadAccounts(Collection<UUID> accountIds) {
+        List<AccountResponseDto> loaded = new ArrayList<>(accountIds.size());
+        shardRouter.groupByShard(accountIds).forEach((shard, ids) -> shardRouter.onShard(shard, () -> {
+            accountRepository.findAllById(ids).forEach(account -> loaded.add(toResponseDto(account)));
+        }));
+        return loaded;
+    }
+
+    /**
+     * Resolves many accounts at once. Cached views are served from memory and
+     * the rest are loaded with a single IN query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public AccountLookupResponseDto lookupAccounts(List<UUID> accountIds, boolean compact) {
+        List<UUID> ids = new ArrayList<>(new LinkedHashSet<>(accountIds));
+        Set<UUID> missing = new LinkedHashSet<>(ids);
+
+        if (compact) {
+            List<AccountStatusView> statuses = new ArrayList<>(ids.size());
+            shardRouter.groupByShard(ids).forEach((shard, shardIds) ->
+                    statuses.addAll(shardRouter.onShard(shard, () -> accountRepository.findStatusesByIdIn(shardIds))));
+            statuses.forEach(status -> missing.remove(status.accountId()));
+            return AccountLookupResponseDto.compact(statuses, new ArrayList<>(missing));
+        }
+
+        List<AccountResponseDto> accounts = accountCache.getAll(ids, this::loadAccounts);
+        accounts.forEach(account -> missing.remove(account.getAccountId()));
+        return AccountLookupResponseDto.full(accounts, new ArrayList<>(missing));
+    }
+
+    /**
+     * Returns one page of accounts in (createdAt, id) order, starting after the cursor.
+     * Each page seeks from the cursor position, so deep pages cost the same as the first.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public AccountPageDto listAccounts(AccountStatus status, Account.AccountType accountType,
+                                       LocalDateTime createdFrom, LocalDateTime createdTo,
+                                       String cursor, int limit) {
+        LocalDateTime afterCreatedAt = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                afterCreatedAt = LocalDateTime.parse(parts[0]);
+                afterId = UUID.fromString(parts[1]);
+            } catch (RuntimeException e) {
+                throw new InvalidAccountOperationException("Invalid page cursor.");
+            }
+        }
+
+        // One extra row tells us whether another page exists
+        LocalDateTime seekCreatedAt = afterCreatedAt;
+        UUID seekId = afterId;
+        List<List<AccountSummaryView>> shardPages = shardRouter.onEachShard(shard -> accountListingRepository.findPage(
+                status, accountType, createdFrom, createdTo, seekCreatedAt, seekId, limit + 1));
+        // Every shard returns its first limit + 1 rows, so the merged head is exact
+        List<AccountSummaryView> page = shardPages.size() == 1 ? shardPages.get(0) : shardPages.stream()
+                .flatMap(List::stream)
+                .sorted(LISTING_ORDER)
+                .limit(limit + 1)
                 .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            AccountSummaryView last = page.get(limit - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.createdAt() + "|" + last.accountId()).getBytes(StandardCharsets.UTF_8));
+        }
+        return new AccountPageDto(page, nextCursor);
+    }
+
+    private AccountResponseDto toResponseDto(Account account) {
+        BigDecimal balance = account.getBalance();
+        if (account.hasBalanceSlots()) {
+            balance = balanceSlotService.totalBalance(account.getId());
+        } else if (balanceLedger != null) {
+            // The ledger owns balances; the row may lag behind the write-behind flush
+            BigDecimal ledgerBalance = balanceLedger.balanceOf(account.getId());
+            if (ledgerBalance != null) {
+                balance = ledgerBalance;
+            }
+        }
+        return new AccountResponseDto(account.getId(), account.getAccountNumber(),
+                account.getAccountType(), balance, account.getStatus());
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String transferFunds(TransferDto transferDto) {
+        String result = transferWithinLimits(transferDto);
+        if (inactivityTracker != null) {
+            inactivityTracker.touch(List.of(transferDto.getFromAccountId(), transferDto.getToAccountId()));
+        }
+        return result;
+    }
+
+    private String transferWithinLimits(TransferDto transferDto) {
+        if (transferLimiter == null) {
+            return dispatchTransfer(transferDto);
+        }
+        long amount = BalanceLedger.toMinorUnits(transferDto.getAmount());
+        long stamp = transferLimiter.tryAcquire(transferDto.getFromAccountId(), amount);
+        if (stamp < 0) {
+            throw new TransferLimitExceededException(TransferLimiter.describe(stamp));
+        }
+        try {
+            return dispatchTransfer(transferDto);
+        } catch (RuntimeException e) {
+            transferLimiter.release(transferDto.getFromAccountId(), amount, stamp);
+            throw e;
+        }
+    }
+
+    private String dispatchTransfer(TransferDto transferDto) {
+        // The ledger already applies transfers in memory, so group commit only helps the database paths
+        if (transferPipeline != null && balanceLedger == null) {
+            return transferPipeline.submit(transferDto);
+        }
+        return transferDirect(transferDto);
+    }
+
+    private String transferDirect(TransferDto transferDto) {
+        if (balanceLedger != null) {
+            balanceLedger.transfer(transferDto.getFromAccountId(), transferDto.getToAccountId(),
+                    BalanceLedger.toMinorUnits(transferDto.getAmount()));
+            accountCache.evictAccountsAfterCommit(
+                    List.of(transferDto.getFromAccountId(), transferDto.getToAccountId()));
+            return "Account updated successfully.";
+        }
+
+        int shard = shardRouter.shardOf(transferDto.getFromAccountId());
+        if (shard != shardRouter.shardOf(transferDto.getToAccountId())) {
+            return crossShardTransferCoordinator.transfer(transferDto.getFromAccountId(),
+                    transferDto.getToAccountId(), transferDto.getAmount());
+        }
+        return shardRouter.onShard(shard, () -> transferOnShard(transferDto));
+    }
+
+    private String transferOnShard(TransferDto transferDto) {
+        if (balanceSlotService.isHot(transferDto.getFromAccountId())
+                || balanceSlotService.isHot(transferDto.getToAccountId())) {
+            return balanceSlotService.transfer(transferDto);
+        }
+
+        // Stripe locks are held across the commit so that no other local transfer
+        // can read either row in between; @Version catches writers on other replicas.
+        try (AccountLockManager.Held ignored =
+                     accountLockManager.lock(transferDto.getFromAccountId(), transferDto.getToAccountId())) {
+            return optimisticRetryExecutor.execute(() -> applyTransfer(transferDto));
+        } catch (BalanceSlotService.LayoutChangedException e) {
+            // Another replica split one of the accounts into slots
+            return balanceSlotService.transfer(transferDto);
+        }
+    }
+
+    private String applyTransfer(TransferDto transferDto) {
         Account fromAccount = accountRepository.findById(transferDto.getFromAccountId())
                 .orElseThrow(() -> new AccountNotFoundException("From account not found."));
 
         Account toAccount = accountRepository.findById(transferDto.getToAccountId())
                 .orElseThrow(() -> new AccountNotFoundException("To account not found."));
 
-        // Check sufficient funds
-        if (fromAccount.getBalance().compareTo(transferDto.getAmount()) < 0) {
+        if (fromAccount.hasBalanceSlots() || toAccount.hasBalanceSlots()) {
+            balanceSlotService.remember(fromAccount);
+            balanceSlotService.remember(toAccount);
+            throw new BalanceSlotService.LayoutChangedException();
+        }
+
+        // Check sufficient funds; amounts reserved by holds are not available
+        if (fromAccount.getAvailableBalance().compareTo(transferDto.getAmount()) < 0) {
             throw new InsufficientFundsException("Insufficient funds in the from account.");
         }
 
         // Perform transfer
+        LocalDateTime now = LocalDateTime.now();
         fromAccount.setBalance(fromAccount.getBalance().subtract(transferDto.getAmount()));
-        fromAccount.setLastTransactionAt(LocalDateTime.now());
+        fromAccount.setLastTransactionAt(now);
 
         toAccount.setBalance(toAccount.getBalance().add(transferDto.getAmount()));
-        toAccount.setLastTransactionAt(LocalDateTime.now());
+        toAccount.setLastTransactionAt(now);
 
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
+        balanceHistoryRecorder.record(fromAccount.getId(), transferDto.getAmount().negate(), now);
+        balanceHistoryRecorder.record(toAccount.getId(), transferDto.getAmount(), now);
+        accountCache.evictAccountsAfterCommit(List.of(fromAccount.getId(), toAccount.getId()));
 
         return "Account updated successfully.";
     }
 
-    @Scheduled(fixedRate = 3600000) // Run every hour (3600000 ms)
-    public void inactivateStaleAccounts() {
-        LocalDateTime threshold = LocalDateTime.now().minusHours(24);
+    /**
+     * Applies a client batch. Legs over a per-account limit are rejected up
+     * front and the rest are committed together; limits taken by legs that
+     * then fail are given back.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchTransferResponseDto transferBatch(List<TransferDto> transfers) {
+        BatchTransferResponseDto response = transferBatchWithinLimits(transfers);
+        if (inactivityTracker != null) {
+            for (TransferLegResultDto result : response.getResults()) {
+                if (result.isSuccess()) {
+                    inactivityTracker.touch(List.of(result.getFromAccountId(), result.getToAccountId()));
+                }
+            }
+        }
+        return response;
+    }
 
-        List<Account> allAccounts = accountRepository.findAll();
-        System.out.println("Total accounts in database: " + allAccounts.size());
+    private BatchTransferResponseDto transferBatchWithinLimits(List<TransferDto> transfers) {
+        if (transferLimiter == null) {
+            return commitBatch(transfers);
+        }
 
-        // Get active accounts
-        List<Account> activeAccounts = allAccounts.stream()
-                .filter(acc -> acc.getStatus() == Account.AccountStatus.ACTIVE)
-                .collect(Collectors.toList());
+        long[] stamps = new long[transfers.size()];
+        List<TransferDto> accepted = new ArrayList<>(transfers.size());
+        List<Integer> acceptedIndexes = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDto leg = transfers.get(i);
+            stamps[i] = transferLimiter.tryAcquire(leg.getFromAccountId(), BalanceLedger.toMinorUnits(leg.getAmount()));
+            if (stamps[i] >= 0) {
+                accepted.add(leg);
+                acceptedIndexes.add(i);
+            }
+        }
 
-        for (Account acc : activeAccounts) {
-            LocalDateTime lastTxDate = acc.getLastTransactionAt();
-            if (lastTxDate.isBefore(threshold)) {
-              acc.setStatus(Account.AccountStatus.INACTIVE);
-                accountRepository.save(acc);
+        BatchTransferResponseDto committed;
+        try {
+            committed = accepted.isEmpty() ? new BatchTransferResponseDto(List.of()) : commitBatch(accepted);
+        } catch (RuntimeException e) {
+            for (int i : acceptedIndexes) {
+                releaseLimit(transfers.get(i), stamps[i]);
             }
+            throw e;
+        }
 
+        TransferLegResultDto[] results = new TransferLegResultDto[transfers.size()];
+        for (TransferLegResultDto result : committed.getResults()) {
+            int index = acceptedIndexes.get(result.getIndex());
+            if (!result.isSuccess()) {
+                releaseLimit(transfers.get(index), stamps[index]);
+            }
+            result.setIndex(index);
+            results[index] = result;
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                TransferDto leg = transfers.get(i);
+                results[i] = new TransferLegResultDto(i, leg.getFromAccountId(), leg.getToAccountId(), leg.getAmount(),
+                        false, TransferLimiter.describe(stamps[i]));
+            }
         }
+        return new BatchTransferResponseDto(List.of(results));
+    }
 
+    private void releaseLimit(TransferDto leg, long stamp) {
+        transferLimiter.release(leg.getFromAccountId(), BalanceLedger.toMinorUnits(leg.getAmount()), stamp);
     }
 
-    private String generateAccountNumber() {
-        String accountNumber;
-        do {
-            accountNumber = String.format("%010d", random.nextInt(1000000000));
-        } while (accountRepository.existsByAccountNumber(accountNumber));
+    /**
+     * Commits a batch of legs without checking transfer limits. Used by the
+     * group-commit pipeline, whose transfers were already counted by transferFunds.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchTransferResponseDto commitBatch(List<TransferDto> transfers) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (TransferDto transfer : transfers) {
+            accountIds.add(transfer.getFromAccountId());
+            accountIds.add(transfer.getToAccountId());
+        }
+
+        if (balanceLedger != null) {
+            BatchTransferResponseDto response;
+            try (AccountLockManager.Held ignored = accountLockManager.lockAll(accountIds)) {
+                response = applyBatchToLedger(transfers);
+            }
+            balanceLedger.awaitDurable();
+            accountCache.evictAccountsAfterCommit(accountIds);
+            return response;
+        }
 
-        return accountNumber;
+        // A batch spanning shards cannot commit in one transaction, so its legs go one by one
+        int shard = shardRouter.commonShard(accountIds);
+        if (shard < 0 || accountIds.stream().anyMatch(balanceSlotService::isHot)) {
+            return applyBatchSequentially(transfers);
+        }
+
+        try (AccountLockManager.Held ignored = accountLockManager.lockAll(accountIds)) {
+            return shardRouter.onShard(shard, () ->
+                    optimisticRetryExecutor.execute(() -> applyBatch(transfers, accountIds)));
+        } catch (BalanceSlotService.LayoutChangedException e) {
+            return applyBatchSequentially(transfers);
+        }
+    }
+
+    /**
+     * Batches touching hot accounts or spanning shards cannot be netted into
+     * single row updates, so their legs go through transferFunds one at a time, in order.
+     */
+    private BatchTransferResponseDto applyBatchSequentially(List<TransferDto> transfers) {
+        List<TransferLegResultDto> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDto leg = transfers.get(i);
+            boolean success = true;
+            String message;
+            try {
+                message = transferDirect(leg);
+            } catch (AccountNotFoundException | InsufficientFundsException | InvalidAccountOperationException e) {
+                success = false;
+                message = e.getMessage();
+            }
+            results.add(new TransferLegResultDto(i, leg.getFromAccountId(), leg.getToAccountId(), leg.getAmount(),
+                    success, message));
+        }
+        return new BatchTransferResponseDto(results);
+    }
+
+    private BatchTransferResponseDto applyBatchToLedger(List<TransferDto> transfers) {
+        List<TransferLegResultDto> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDto leg = transfers.get(i);
+            String failure = balanceLedger.tryTransferLocked(leg.getFromAccountId(), leg.getToAccountId(),
+                    BalanceLedger.toMinorUnits(leg.getAmount()));
+            results.add(new TransferLegResultDto(i, leg.getFromAccountId(), leg.getToAccountId(), leg.getAmount(),
+                    failure == null, failure == null ? "Account updated successfully." : failure));
+        }
+        return new BatchTransferResponseDto(results);
+    }
+
+    private BatchTransferResponseDto applyBatch(List<TransferDto> transfers, Set<UUID> accountIds) {
+        Map<UUID, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllById(accountIds)) {
+            if (account.hasBalanceSlots()) {
+                balanceSlotService.remember(account);
+                throw new BalanceSlotService.LayoutChangedException();
+            }
+            accounts.put(account.getId(), account);
+        }
+
+        // Legs are evaluated in submission order against running balances,
+        // so a leg only fails if the legs accepted before it drained the account.
+        Map<UUID, BigDecimal> deltas = new HashMap<>();
+        List<TransferLegResultDto> results = new ArrayList<>(transfers.size());
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferDto leg = transfers.get(i);
+            Account from = accounts.get(leg.getFromAccountId());
+            Account to = accounts.get(leg.getToAccountId());
+
+            String failure = null;
+            if (from == null) {
+                failure = "From account not found.";
+            } else if (to == null) {
+                failure = "To account not found.";
+            } else {
+                BigDecimal available = from.getAvailableBalance()
+                        .add(deltas.getOrDefault(from.getId(), BigDecimal.ZERO));
+                if (available.compareTo(leg.getAmount()) < 0) {
+                    failure = "Insufficient funds in the from account.";
+                }
+            }
+
+            if (failure != null) {
+                results.add(new TransferLegResultDto(i, leg.getFromAccountId(), leg.getToAccountId(),
+                        leg.getAmount(), false, failure));
+                continue;
+            }
+
+            deltas.merge(from.getId(), leg.getAmount().negate(), BigDecimal::add);
+            deltas.merge(to.getId(), leg.getAmount(), BigDecimal::add);
+            results.add(new TransferLegResultDto(i, leg.getFromAccountId(), leg.getToAccountId(),
+                    leg.getAmount(), true, "Account updated successfully."));
+        }
+
+        List<AccountBalanceWriter.BalanceDelta> writes = new ArrayList<>(deltas.size());
+        deltas.forEach((accountId, delta) -> writes.add(
+                new AccountBalanceWriter.BalanceDelta(accountId, delta, accounts.get(accountId).getVersion())));
+
+        if (!writes.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            List<UUID> conflicts = accountBalanceWriter.applyDeltas(writes, now);
+            if (!conflicts.isEmpty()) {
+                throw new ObjectOptimisticLockingFailureException(Account.class, conflicts.get(0));
+            }
+            balanceHistoryRecorder.recordAll(deltas, now);
+            accountCache.evictAccountsAfterCommit(new ArrayList<>(deltas.keySet()));
+        }
+
+        return new BatchTransferResponseDto(results);
+    }
+
+    /**
+     * Marks ACTIVE accounts without a transaction since the threshold as INACTIVE.
+     * Candidates are walked in (lastTransactionAt, id) keyset order and each chunk
+     * is updated in its own short transaction. Only ids in the buckets of
+     * {@code range} are considered, so replicas can split the work between
+     * them. Each shard is walked in turn.
+     *
+     * @return number of accounts inactivated
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int inactivateStaleAccounts(LocalDateTime threshold, int chunkSize, IdRange range) {
+        return shardRouter.onEachShard(shard -> inactivateStaleOnShard(threshold, chunkSize, range))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int inactivateStaleOnShard(LocalDateTime threshold, int chunkSize, IdRange range) {
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        int inactivated = 0;
+        AccountKey cursor = null;
+        while (true) {
+            List<AccountKey> keys = cursor == null
+                    ? accountRepository.findStaleKeys(AccountStatus.ACTIVE, threshold,
+                            range.fromBucket(), range.toBucket(), chunk)
+                    : accountRepository.findStaleKeysAfter(AccountStatus.ACTIVE, threshold,
+                            range.fromBucket(), range.toBucket(), cursor.lastTransactionAt(), cursor.id(), chunk);
+            if (keys.isEmpty()) {
+                return inactivated;
+            }
+
+            List<UUID> ids = keys.stream().map(AccountKey::id).collect(Collectors.toList());
+            // Truncated to the column precision so the totals and the outbox can find the rows this update changed
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            Integer updated = transactionTemplate.execute(status -> {
+                int changed = accountRepository.inactivateStale(ids, threshold, now);
+                if (changed > 0) {
+                    userAccountTotals.statusChangedByUpdate(ids, AccountStatus.ACTIVE, AccountStatus.INACTIVE, now);
+                    if (eventOutbox != null) {
+                        eventOutbox.statusChangedByUpdate(ids, AccountStatus.INACTIVE, now);
+                    }
+                }
+                return changed;
+            });
+            inactivated += updated == null ? 0 : updated;
+            ids.forEach(accountCache::evictAccount);
+
+            if (keys.size() < chunkSize) {
+                return inactivated;
+            }
+            cursor = keys.get(keys.size() - 1);
+        }
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AccountResponseDto setBalanceSlots(UUID accountId, int slots) {
+        balanceSlotService.setSlots(accountId, slots);
+        return getAccountById(accountId);
+    }
+
+    private String generateAccountNumber() {
+        return accountNumberAllocator.next();
     }
 }
\ No newline at end of file
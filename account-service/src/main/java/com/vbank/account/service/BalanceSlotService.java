@@ -0,0 +1,322 @@
+package com.vbank.account.service;
+
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.dto.TransferDto;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.lock.AccountLockManager;
+import com.vbank.account.model.Account;
+import com.vbank.account.model.AccountBalanceSlot;
+import com.vbank.account.repository.AccountBalanceSlotRepository;
+import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.shard.ShardRouter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits hot accounts into N sub-balance slots so that concurrent credits
+ * update different rows and take different stripe locks.
+ *
+ * Credits go to one slot picked by hash. Debits try a single slot first and
+ * fall back to sweeping every slot when that slot alone cannot cover the
+ * amount. Reads sum the slots. Each slot has its own lock key, derived from
+ * the account id, so transfers touching different slots never contend.
+ */
+@Service
+public class BalanceSlotService {
+
+    private static final int MAX_LAYOUT_RETRIES = 3;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountBalanceSlotRepository slotRepository;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    // Slot count per hot account known to this replica
+    private final Map<UUID, Integer> slotCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void loadLayouts() {
+        shardRouter.onEachShard(shard -> {
+            for (Object[] layout : accountRepository.findBalanceSlotLayouts()) {
+                slotCounts.put((UUID) layout[0], (Integer) layout[1]);
+            }
+            return null;
+        });
+    }
+
+    public boolean isHot(UUID accountId) {
+        return slotCounts.containsKey(accountId);
+    }
+
+    int slotCount(UUID accountId) {
+        return slotCounts.getOrDefault(accountId, 0);
+    }
+
+    public void remember(Account account) {
+        if (account.hasBalanceSlots()) {
+            slotCounts.put(account.getId(), account.getBalanceSlots());
+        } else {
+            slotCounts.remove(account.getId());
+        }
+    }
+
+    public BigDecimal totalBalance(UUID accountId) {
+        return slotRepository.sumBalance(accountId);
+    }
+
+    /**
+     * Re-splits an account into {@code slots} sub-balances, or merges it back when {@code slots} is 1.
+     */
+    public void setSlots(UUID accountId, int slots) {
+        if (balanceLedger != null) {
+            throw new InvalidAccountOperationException("Balance slots are not used when the balance ledger is enabled.");
+        }
+        int current = slotCounts.getOrDefault(accountId, 0);
+        List<UUID> keys = new ArrayList<>();
+        keys.add(accountId);
+        for (int slot = 0; slot < Math.max(current, slots); slot++) {
+            keys.add(slotKey(accountId, slot));
+        }
+
+        try (AccountLockManager.Held ignored = accountLockManager.lockAll(keys)) {
+            shardRouter.onAccount(accountId, () -> optimisticRetryExecutor.execute(() -> {
+                Account account = accountRepository.findById(accountId)
+                        .orElseThrow(() -> new AccountNotFoundException("Account with ID " + accountId + " not found."));
+
+                if (slots > 1 && account.getHeldAmount().signum() > 0) {
+                    // Slot debits do not see holds, so funds must be released or captured first
+                    throw new InvalidAccountOperationException("Account has active funds holds.");
+                }
+
+                List<AccountBalanceSlot> existing = slotRepository.findByAccountId(accountId);
+                BigDecimal total = account.getBalance();
+                for (AccountBalanceSlot slot : existing) {
+                    total = total.add(slot.getBalance());
+                }
+                slotRepository.deleteAll(existing);
+                slotRepository.flush();
+
+                if (slots <= 1) {
+                    account.setBalance(total);
+                    account.setBalanceSlots(0);
+                } else {
+                    List<AccountBalanceSlot> created = new ArrayList<>(slots);
+                    for (int slot = 0; slot < slots; slot++) {
+                        created.add(new AccountBalanceSlot(accountId, slot, slot == 0 ? total : BigDecimal.ZERO));
+                    }
+                    slotRepository.saveAll(created);
+                    account.setBalance(BigDecimal.ZERO);
+                    account.setBalanceSlots(slots);
+                }
+                accountRepository.save(account);
+                afterCommit(() -> remember(account));
+                accountCache.evictAccountsAfterCommit(List.of(accountId));
+                return null;
+            }));
+        }
+    }
+
+    /**
+     * Transfers where at least one side is a hot account.
+     */
+    public String transfer(TransferDto transferDto) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return route(transferDto);
+            } catch (LayoutChangedException e) {
+                if (attempt >= MAX_LAYOUT_RETRIES) {
+                    throw new InvalidAccountOperationException("Account balance layout is changing, retry the transfer.");
+                }
+            }
+        }
+    }
+
+    private String route(TransferDto transferDto) {
+        UUID from = transferDto.getFromAccountId();
+        UUID to = transferDto.getToAccountId();
+        int fromSlots = slotCounts.getOrDefault(from, 0);
+        int toSlots = slotCounts.getOrDefault(to, 0);
+
+        int creditSlot = toSlots > 0 ? pickSlot(from, toSlots) : -1;
+        UUID creditKey = toSlots > 0 ? slotKey(to, creditSlot) : to;
+
+        if (fromSlots == 0) {
+            try (AccountLockManager.Held ignored = accountLockManager.lockAll(List.of(from, creditKey))) {
+                return optimisticRetryExecutor.execute(() ->
+                        apply(transferDto, fromSlots, null, toSlots, creditSlot));
+            }
+        }
+
+        // Try to debit a single slot first; that keeps unrelated debits off each other's locks
+        int[] single = {pickSlot(to, fromSlots)};
+        try (AccountLockManager.Held ignored =
+                     accountLockManager.lockAll(List.of(slotKey(from, single[0]), creditKey))) {
+            String result = optimisticRetryExecutor.execute(() ->
+                    apply(transferDto, fromSlots, single, toSlots, creditSlot));
+            if (result != null) {
+                return result;
+            }
+        }
+
+        // Fallback sweep over every slot of the debited account
+        int[] all = new int[fromSlots];
+        List<UUID> keys = new ArrayList<>(fromSlots + 1);
+        for (int slot = 0; slot < fromSlots; slot++) {
+            all[slot] = slot;
+            keys.add(slotKey(from, slot));
+        }
+        keys.add(creditKey);
+        try (AccountLockManager.Held ignored = accountLockManager.lockAll(keys)) {
+            String result = optimisticRetryExecutor.execute(() ->
+                    apply(transferDto, fromSlots, all, toSlots, creditSlot));
+            if (result == null) {
+                throw new InsufficientFundsException("Insufficient funds in the from account.");
+            }
+            return result;
+        }
+    }
+
+    /**
+     * @return null if the selected debit slots cannot cover the amount
+     */
+    private String apply(TransferDto transferDto, int fromSlots, int[] debitSlots, int toSlots, int creditSlot) {
+        BigDecimal amount = transferDto.getAmount();
+        LocalDateTime now = LocalDateTime.now();
+
+        Account fromAccount = accountRepository.findById(transferDto.getFromAccountId())
+                .orElseThrow(() -> new AccountNotFoundException("From account not found."));
+        Account toAccount = accountRepository.findById(transferDto.getToAccountId())
+                .orElseThrow(() -> new AccountNotFoundException("To account not found."));
+        checkLayout(fromAccount, fromSlots);
+        checkLayout(toAccount, toSlots);
+
+        if (debitSlots == null) {
+            if (fromAccount.getAvailableBalance().compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in the from account.");
+            }
+            fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+            fromAccount.setLastTransactionAt(now);
+            accountRepository.save(fromAccount);
+        } else {
+            List<AccountBalanceSlot> slots = new ArrayList<>(debitSlots.length);
+            BigDecimal available = BigDecimal.ZERO;
+            for (int slot : debitSlots) {
+                AccountBalanceSlot row = loadSlot(fromAccount.getId(), slot);
+                slots.add(row);
+                available = available.add(row.getBalance());
+            }
+            if (available.compareTo(amount) < 0) {
+                return null;
+            }
+            BigDecimal remaining = amount;
+            for (AccountBalanceSlot row : slots) {
+                if (remaining.signum() == 0) {
+                    break;
+                }
+                BigDecimal taken = row.getBalance().min(remaining);
+                if (taken.signum() > 0) {
+                    row.setBalance(row.getBalance().subtract(taken));
+                    row.setLastTransactionAt(now);
+                    remaining = remaining.subtract(taken);
+                }
+            }
+        }
+
+        if (creditSlot < 0) {
+            toAccount.setBalance(toAccount.getBalance().add(amount));
+            toAccount.setLastTransactionAt(now);
+            accountRepository.save(toAccount);
+        } else {
+            AccountBalanceSlot row = loadSlot(toAccount.getId(), creditSlot);
+            row.setBalance(row.getBalance().add(amount));
+            row.setLastTransactionAt(now);
+        }
+
+        balanceHistoryRecorder.record(fromAccount.getId(), amount.negate(), now);
+        balanceHistoryRecorder.record(toAccount.getId(), amount, now);
+        accountCache.evictAccountsAfterCommit(List.of(fromAccount.getId(), toAccount.getId()));
+        return "Account updated successfully.";
+    }
+
+    AccountBalanceSlot loadSlot(UUID accountId, int slot) {
+        return slotRepository.findById(new AccountBalanceSlot.Key(accountId, slot))
+                .orElseThrow(LayoutChangedException::new);
+    }
+
+    void checkLayout(Account account, int expectedSlots) {
+        if (account.getBalanceSlots() != expectedSlots) {
+            remember(account);
+            throw new LayoutChangedException();
+        }
+    }
+
+    static int pickSlot(UUID counterparty, int slots) {
+        long h = counterparty.getLeastSignificantBits() ^ Thread.currentThread().getId()
+                ^ ThreadLocalRandom.current().nextLong();
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) slots);
+    }
+
+    /**
+     * Lock key for one slot of an account, distinct from the account's own key.
+     */
+    static UUID slotKey(UUID accountId, int slot) {
+        return new UUID(accountId.getMostSignificantBits() ^ 0x5107L, accountId.getLeastSignificantBits() + slot);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * The account's slot layout differs from what this replica assumed; the caller re-routes.
+     */
+    public static class LayoutChangedException extends RuntimeException {
+        public LayoutChangedException() {
+            super("Account balance slot layout changed", null, false, false);
+        }
+    }
+}
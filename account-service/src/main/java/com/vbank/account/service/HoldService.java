@@ -0,0 +1,453 @@
+package com.vbank.account.service;
+
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.cluster.ClusterJobRunner;
+import com.vbank.account.dto.HoldRequestDto;
+import com.vbank.account.dto.HoldResponseDto;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.HoldNotFoundException;
+import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.exception.TransferLimitExceededException;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.inactivity.AccountInactivityTracker;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.limit.TransferLimiter;
+import com.vbank.account.lock.AccountLockManager;
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.model.Account;
+import com.vbank.account.model.AccountBalanceSlot;
+import com.vbank.account.model.FundsHold;
+import com.vbank.account.model.FundsHold.HoldStatus;
+import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.repository.FundsHoldRepository;
+import com.vbank.account.shard.CrossShardTransferCoordinator;
+import com.vbank.account.shard.ShardRouter;
+import com.vbank.account.timer.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reserves funds ahead of a transfer. A hold moves part of an account's
+ * available balance into its held amount; capturing it transfers that amount
+ * to the destination, and releasing or expiring it makes it available again.
+ *
+ * Deadlines of the holds placed on this replica sit in a timing wheel, so
+ * the expiry tick only touches holds that are actually due. Holds left behind
+ * by a replica that stopped are picked up by its wheel on restart, or by the
+ * slow reconcile sweep in the meantime.
+ *
+ * A hold lives on its account's shard and its id is drawn to hash to that
+ * shard, so it can be found from the id alone.
+ */
+@Service
+public class HoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoldService.class);
+    private static final LogThrottle expiryFailureLog = new LogThrottle(Duration.ofSeconds(30));
+
+    private static final int MAX_LAYOUT_RETRIES = 3;
+    private static final int EXPIRY_CHUNK = 500;
+
+    @Autowired
+    private FundsHoldRepository holdRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired(required = false)
+    private BalanceLedger balanceLedger;
+
+    @Autowired(required = false)
+    private TransferLimiter transferLimiter;
+
+    @Autowired(required = false)
+    private AccountInactivityTracker inactivityTracker;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CrossShardTransferCoordinator crossShardTransferCoordinator;
+
+    @Autowired
+    private ClusterJobRunner clusterJobRunner;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.holds.default-ttl-seconds:900}")
+    private long defaultTtlSeconds;
+
+    @Value("${vbank.account.holds.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${vbank.account.holds.wheel-size:4096}")
+    private int wheelSize;
+
+    private TimingWheel<UUID> expiryWheel;
+
+    @PostConstruct
+    void loadActiveHolds() {
+        expiryWheel = new TimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        List<Object[]> active = new ArrayList<>();
+        shardRouter.onEachShard(shard -> active.addAll(holdRepository.findActiveDeadlines()));
+        for (Object[] deadline : active) {
+            expiryWheel.schedule((UUID) deadline[0], toMillis((LocalDateTime) deadline[1]));
+        }
+        Gauge.builder("account.holds.scheduled", expiryWheel, TimingWheel::size)
+                .description("Active holds waiting in the expiry wheel")
+                .register(meterRegistry);
+        logger.info("Hold expiry wheel loaded with {} active holds", active.size());
+    }
+
+    public HoldResponseDto placeHold(UUID accountId, HoldRequestDto request) {
+        if (balanceLedger != null) {
+            throw new InvalidAccountOperationException("Funds holds are not available when the balance ledger is enabled.");
+        }
+        if (balanceSlotService.isHot(accountId)) {
+            throw new InvalidAccountOperationException("Funds holds are not supported on accounts with balance slots.");
+        }
+        BigDecimal amount = request.getAmount();
+        long ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : defaultTtlSeconds;
+
+        // A hold is where the transfer is decided, so it is what counts against the account's limits;
+        // the count is refunded if the hold is released or expires instead of being captured
+        long stamp = 0L;
+        if (transferLimiter != null) {
+            stamp = transferLimiter.tryAcquire(accountId, BalanceLedger.toMinorUnits(amount));
+            if (stamp < 0) {
+                throw new TransferLimitExceededException(TransferLimiter.describe(stamp));
+            }
+        }
+        long limitStamp = stamp;
+
+        int shard = shardRouter.shardOf(accountId);
+        FundsHold hold;
+        try (AccountLockManager.Held ignored = accountLockManager.lock(accountId, accountId)) {
+            hold = shardRouter.onShard(shard, () -> optimisticRetryExecutor.execute(() -> {
+                Account account = accountRepository.findById(accountId)
+                        .orElseThrow(() -> new AccountNotFoundException("Account with ID " + accountId + " not found."));
+                if (account.hasBalanceSlots()) {
+                    balanceSlotService.remember(account);
+                    throw new InvalidAccountOperationException("Funds holds are not supported on accounts with balance slots.");
+                }
+                if (account.getAvailableBalance().compareTo(amount) < 0) {
+                    throw new InsufficientFundsException("Insufficient funds in the account.");
+                }
+                account.setHeldAmount(account.getHeldAmount().add(amount));
+                accountRepository.save(account);
+
+                LocalDateTime now = LocalDateTime.now();
+                FundsHold placed = new FundsHold(accountId, amount, now, now.plusSeconds(ttlSeconds));
+                placed.setId(shardRouter.newIdOnShard(shard));
+                placed.setLimitStamp(limitStamp);
+                placed.setLimitNodeId(clusterJobRunner.getNodeId());
+                return holdRepository.save(placed);
+            }));
+        } catch (RuntimeException e) {
+            if (transferLimiter != null) {
+                transferLimiter.release(accountId, BalanceLedger.toMinorUnits(amount), stamp);
+            }
+            throw e;
+        }
+
+        expiryWheel.schedule(hold.getId(), toMillis(hold.getExpiresAt()));
+        meterRegistry.counter("account.holds", "outcome", "placed").increment();
+        return new HoldResponseDto(hold);
+    }
+
+    public HoldResponseDto getHold(UUID holdId) {
+        return new HoldResponseDto(findHold(holdId));
+    }
+
+    /**
+     * Transfers the held amount to {@code toAccountId}. Capturing an already
+     * captured hold into the same account succeeds again without moving money.
+     */
+    public String captureHold(UUID holdId, UUID toAccountId) {
+        FundsHold hold = findHold(holdId);
+        if (isCapturedInto(hold, toAccountId)) {
+            return "Hold captured successfully.";
+        }
+        requireActive(hold);
+
+        UUID fromAccountId = hold.getAccountId();
+        int shard = shardRouter.shardOf(fromAccountId);
+        if (shard != shardRouter.shardOf(toAccountId)) {
+            String result = crossShardTransferCoordinator.captureHold(hold, toAccountId);
+            capturedHold(holdId, fromAccountId, toAccountId);
+            return result;
+        }
+        for (int attempt = 1; ; attempt++) {
+            int toSlots = balanceSlotService.slotCount(toAccountId);
+            int creditSlot = toSlots > 0 ? BalanceSlotService.pickSlot(fromAccountId, toSlots) : -1;
+            UUID creditKey = toSlots > 0 ? BalanceSlotService.slotKey(toAccountId, creditSlot) : toAccountId;
+
+            try (AccountLockManager.Held ignored = accountLockManager.lockAll(List.of(fromAccountId, creditKey))) {
+                String result = shardRouter.onShard(shard, () -> optimisticRetryExecutor.execute(() ->
+                        applyCapture(holdId, toAccountId, toSlots, creditSlot)));
+                capturedHold(holdId, fromAccountId, toAccountId);
+                return result;
+            } catch (BalanceSlotService.LayoutChangedException e) {
+                if (attempt >= MAX_LAYOUT_RETRIES) {
+                    throw new InvalidAccountOperationException("Account balance layout is changing, retry the capture.");
+                }
+            }
+        }
+    }
+
+    private void capturedHold(UUID holdId, UUID fromAccountId, UUID toAccountId) {
+        expiryWheel.cancel(holdId);
+        if (inactivityTracker != null) {
+            inactivityTracker.touch(List.of(fromAccountId, toAccountId));
+        }
+        meterRegistry.counter("account.holds", "outcome", "captured").increment();
+    }
+
+    private String applyCapture(UUID holdId, UUID toAccountId, int toSlots, int creditSlot) {
+        FundsHold hold = findHold(holdId);
+        if (isCapturedInto(hold, toAccountId)) {
+            return "Hold captured successfully.";
+        }
+        requireActive(hold);
+        LocalDateTime now = LocalDateTime.now();
+        if (!hold.getExpiresAt().isAfter(now)) {
+            throw new InvalidAccountOperationException("Hold has expired.");
+        }
+
+        Account fromAccount = accountRepository.findById(hold.getAccountId())
+                .orElseThrow(() -> new AccountNotFoundException("From account not found."));
+        Account toAccount = accountRepository.findById(toAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("To account not found."));
+        balanceSlotService.checkLayout(toAccount, toSlots);
+
+        // The held amount was already checked against the available balance when the hold was placed
+        BigDecimal amount = hold.getAmount();
+        fromAccount.setHeldAmount(fromAccount.getHeldAmount().subtract(amount));
+        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+        fromAccount.setLastTransactionAt(now);
+        accountRepository.save(fromAccount);
+
+        if (creditSlot < 0) {
+            toAccount.setBalance(toAccount.getBalance().add(amount));
+            toAccount.setLastTransactionAt(now);
+            accountRepository.save(toAccount);
+        } else {
+            AccountBalanceSlot row = balanceSlotService.loadSlot(toAccountId, creditSlot);
+            row.setBalance(row.getBalance().add(amount));
+            row.setLastTransactionAt(now);
+        }
+
+        hold.setCapturedToAccountId(toAccountId);
+        hold.settle(HoldStatus.CAPTURED, now);
+        holdRepository.save(hold);
+
+        balanceHistoryRecorder.record(fromAccount.getId(), amount.negate(), now);
+        balanceHistoryRecorder.record(toAccountId, amount, now);
+        accountCache.evictAccountsAfterCommit(List.of(fromAccount.getId(), toAccountId));
+        return "Hold captured successfully.";
+    }
+
+    /**
+     * Returns the held amount to the account. Releasing a hold that is already
+     * released or expired returns it unchanged.
+     */
+    public HoldResponseDto releaseHold(UUID holdId) {
+        FundsHold hold = findHold(holdId);
+        if (hold.getStatus() == HoldStatus.ACTIVE) {
+            boolean[] released = new boolean[1];
+            try (AccountLockManager.Held ignored = accountLockManager.lock(hold.getAccountId(), hold.getAccountId())) {
+                hold = shardRouter.onAccount(hold.getAccountId(), () -> optimisticRetryExecutor.execute(() -> {
+                    FundsHold current = findHold(holdId);
+                    released[0] = current.getStatus() == HoldStatus.ACTIVE;
+                    if (released[0]) {
+                        settle(current, accountRepository.findById(current.getAccountId()).orElseThrow(() ->
+                                new AccountNotFoundException("Account with ID " + current.getAccountId() + " not found.")),
+                                HoldStatus.RELEASED, LocalDateTime.now());
+                    }
+                    return current;
+                }));
+            }
+            expiryWheel.cancel(holdId);
+            if (released[0]) {
+                refundLimit(hold);
+                meterRegistry.counter("account.holds", "outcome", "released").increment();
+            }
+        }
+        if (hold.getStatus() == HoldStatus.CAPTURED) {
+            throw new InvalidAccountOperationException("Hold has already been captured.");
+        }
+        if (hold.getStatus() == HoldStatus.CAPTURING) {
+            throw new InvalidAccountOperationException("Hold capture is in progress.");
+        }
+        return new HoldResponseDto(hold);
+    }
+
+    /**
+     * Expires the holds whose deadline passed since the last tick.
+     */
+    public int expireDue() {
+        List<UUID> due = expiryWheel.advance(System.currentTimeMillis());
+        int expired = 0;
+        for (int i = 0; i < due.size(); i += EXPIRY_CHUNK) {
+            List<UUID> chunk = due.subList(i, Math.min(due.size(), i + EXPIRY_CHUNK));
+            try {
+                expired += expire(chunk);
+            } catch (RuntimeException e) {
+                // Try again on a later tick
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                chunk.forEach(holdId -> expiryWheel.schedule(holdId, retryAt));
+                long suppressed = expiryFailureLog.tryAcquire();
+                if (suppressed >= 0) {
+                    logger.warn("Failed to expire {} holds ({} similar suppressed): {}", chunk.size(), suppressed,
+                            e.getMessage());
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Expires active holds that are overdue by more than {@code graceMillis},
+     * such as holds placed on a replica that has stopped.
+     */
+    public int expireOverdue(long graceMillis) {
+        LocalDateTime before = LocalDateTime.now().minusNanos(graceMillis * 1_000_000);
+        return shardRouter.onEachShard(shard -> expireOverdueOnShard(before))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    private int expireOverdueOnShard(LocalDateTime before) {
+        int expired = 0;
+        while (true) {
+            List<UUID> overdue = holdRepository.findIdsByStatusAndExpiresAtBefore(HoldStatus.ACTIVE, before,
+                    PageRequest.of(0, EXPIRY_CHUNK));
+            if (overdue.isEmpty()) {
+                return expired;
+            }
+            int count = expire(overdue);
+            expired += count;
+            if (count == 0 || overdue.size() < EXPIRY_CHUNK) {
+                return expired;
+            }
+        }
+    }
+
+    private int expire(List<UUID> holdIds) {
+        int expired = 0;
+        for (Map.Entry<Integer, List<UUID>> group : shardRouter.groupByShard(holdIds).entrySet()) {
+            expired += shardRouter.onShard(group.getKey(), () -> expireOnShard(group.getValue()));
+        }
+        return expired;
+    }
+
+    private int expireOnShard(List<UUID> holdIds) {
+        Set<UUID> accountIds = new HashSet<>();
+        for (FundsHold hold : holdRepository.findAllById(holdIds)) {
+            if (hold.getStatus() == HoldStatus.ACTIVE) {
+                accountIds.add(hold.getAccountId());
+            }
+        }
+        if (accountIds.isEmpty()) {
+            return 0;
+        }
+
+        List<FundsHold> expired;
+        try (AccountLockManager.Held ignored = accountLockManager.lockAll(accountIds)) {
+            expired = optimisticRetryExecutor.execute(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                Map<UUID, Account> accounts = new HashMap<>();
+                for (Account account : accountRepository.findAllById(accountIds)) {
+                    accounts.put(account.getId(), account);
+                }
+                List<FundsHold> settled = new ArrayList<>();
+                for (FundsHold hold : holdRepository.findAllById(holdIds)) {
+                    Account account = accounts.get(hold.getAccountId());
+                    if (hold.getStatus() == HoldStatus.ACTIVE && !hold.getExpiresAt().isAfter(now) && account != null) {
+                        settle(hold, account, HoldStatus.EXPIRED, now);
+                        settled.add(hold);
+                    }
+                }
+                return settled;
+            });
+        }
+        expired.forEach(this::refundLimit);
+        meterRegistry.counter("account.holds", "outcome", "expired").increment(expired.size());
+        return expired.size();
+    }
+
+    /**
+     * Gives back the limit a released or expired hold was counted against.
+     * Limits are kept per replica, so only the replica that placed the hold
+     * can refund it; the limiter itself ignores stamps from before a restart.
+     */
+    private void refundLimit(FundsHold hold) {
+        if (transferLimiter != null && clusterJobRunner.getNodeId().equals(hold.getLimitNodeId())) {
+            transferLimiter.release(hold.getAccountId(), BalanceLedger.toMinorUnits(hold.getAmount()),
+                    hold.getLimitStamp());
+        }
+    }
+
+    private void settle(FundsHold hold, Account account, HoldStatus outcome, LocalDateTime now) {
+        account.setHeldAmount(account.getHeldAmount().subtract(hold.getAmount()));
+        accountRepository.save(account);
+        hold.settle(outcome, now);
+        holdRepository.save(hold);
+    }
+
+    private FundsHold findHold(UUID holdId) {
+        return shardRouter.onShard(shardRouter.shardOf(holdId), () -> holdRepository.findById(holdId)
+                .orElseThrow(() -> new HoldNotFoundException("Hold with ID " + holdId + " not found.")));
+    }
+
+    private static boolean isCapturedInto(FundsHold hold, UUID toAccountId) {
+        return hold.getStatus() == HoldStatus.CAPTURED && toAccountId.equals(hold.getCapturedToAccountId());
+    }
+
+    private static void requireActive(FundsHold hold) {
+        if (hold.getStatus() != HoldStatus.ACTIVE) {
+            throw new InvalidAccountOperationException("Hold is " + hold.getStatus().name().toLowerCase() + ".");
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
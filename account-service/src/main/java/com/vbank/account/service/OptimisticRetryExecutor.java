@@ -0,0 +1,60 @@
+package com.vbank.account.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs balance updates in a fresh transaction, retrying a bounded number of
+ * times when the commit hits an optimistic locking conflict or the
+ * transaction is picked as a deadlock victim. The latter happens when two
+ * transfers in opposite directions between the same users update those
+ * users' totals in opposite order.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.transfer.max-retries:5}")
+    private int maxRetries;
+
+    private Counter retries;
+    private Counter retriesExhausted;
+
+    @PostConstruct
+    void initMetrics() {
+        retries = Counter.builder("account.transfer.optimistic.retries")
+                .description("Transfers retried after an optimistic locking conflict or a deadlock")
+                .register(meterRegistry);
+        retriesExhausted = Counter.builder("account.transfer.optimistic.exhausted")
+                .description("Transfers that gave up after the maximum number of retries")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException | PessimisticLockingFailureException e) {
+                if (attempt >= maxRetries) {
+                    retriesExhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.vbank.account.service;
+
+import com.vbank.account.dto.BatchTransferResponseDto;
+import com.vbank.account.dto.TransferDto;
+import com.vbank.account.dto.TransferLegResultDto;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.exception.ServiceBusyException;
+import com.vbank.account.logging.LogThrottle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group-commit pipeline for single transfers. Callers enqueue a transfer and
+ * block on its future; one committer thread drains the queue into
+ * micro-batches of up to max-batch transfers or max-wait-micros, applies each
+ * micro-batch through {@link AccountService#commitBatch} in one transaction
+ * and then completes every caller's future.
+ *
+ * Callers wait at most enqueue-timeout-ms plus the batch window for the
+ * committer to pick their transfer up. A transfer still queued by then is
+ * dropped and the caller gets a retryable error. Once the committer has a
+ * transfer the caller waits for its outcome, which the committer always
+ * reports, so a reply never leaves a commit in flight behind it.
+ */
+@Component
+@ConditionalOnProperty(name = "vbank.account.pipeline.enabled", havingValue = "true")
+public class TransferPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferPipeline.class);
+    private static final LogThrottle batchFailureLog = new LogThrottle(Duration.ofSeconds(30));
+
+    // AccountService submits to the pipeline, so the dependency back to it is resolved lazily
+    @Lazy
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vbank.account.pipeline.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${vbank.account.pipeline.max-batch:256}")
+    private int maxBatch;
+
+    @Value("${vbank.account.pipeline.max-wait-micros:500}")
+    private long maxWaitMicros;
+
+    @Value("${vbank.account.pipeline.enqueue-timeout-ms:1000}")
+    private long enqueueTimeoutMillis;
+
+    private BlockingQueue<PendingTransfer> queue;
+    private Thread committer;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer commitTimer;
+    private Timer waitTimer;
+    private Counter timeouts;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("account.pipeline.batch.size")
+                .description("Transfers committed per micro-batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        commitTimer = Timer.builder("account.pipeline.commit")
+                .description("Time to apply and commit one micro-batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        waitTimer = Timer.builder("account.pipeline.latency")
+                .description("Time from enqueue until the caller's transfer committed")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        timeouts = Counter.builder("account.pipeline.timeouts")
+                .description("Callers that stopped waiting for their transfer to commit")
+                .register(meterRegistry);
+        Gauge.builder("account.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("Transfers waiting for the committer")
+                .register(meterRegistry);
+
+        running = true;
+        committer = new Thread(this::run, "transfer-pipeline-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Enqueues a transfer and waits until the micro-batch containing it has committed.
+     */
+    public String submit(TransferDto transferDto) {
+        PendingTransfer pending = new PendingTransfer(transferDto, System.nanoTime());
+        try {
+            if (!running || !queue.offer(pending, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceBusyException("Transfer pipeline is saturated, retry the transfer.");
+            }
+            return await(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for the transfer to commit.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            waitTimer.record(System.nanoTime() - pending.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String await(PendingTransfer pending) throws InterruptedException, ExecutionException {
+        long timeoutMillis = enqueueTimeoutMillis + TimeUnit.MICROSECONDS.toMillis(maxWaitMicros) + 1;
+        try {
+            return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            if (pending.abandon()) {
+                throw new ServiceBusyException("Transfer pipeline did not reach the transfer in time, retry the transfer.");
+            }
+        }
+        // The committer already took the transfer; replying before it finishes would let a
+        // retry under the same idempotency key apply the transfer twice
+        return pending.result.get();
+    }
+
+    private void run() {
+        List<PendingTransfer> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(maxWaitMicros);
+                while (batch.size() < maxBatch) {
+                    // Take whatever is already queued without waiting, then wait out the remaining window
+                    if (queue.drainTo(batch, maxBatch - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Throwable t) {
+                // Keep the committer alive and release the callers of the drained transfers
+                batch.forEach(pending -> pending.result.completeExceptionally(t));
+                long suppressed = batchFailureLog.tryAcquire();
+                if (suppressed >= 0) {
+                    logger.error("Transfer pipeline failed a batch of {} transfers ({} similar suppressed)",
+                            batch.size(), suppressed, t);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingTransfer> drained) {
+        List<PendingTransfer> batch = new ArrayList<>(drained.size());
+        List<TransferDto> legs = new ArrayList<>(drained.size());
+        for (PendingTransfer pending : drained) {
+            // Skip transfers whose callers already gave up
+            if (pending.claim()) {
+                batch.add(pending);
+                legs.add(pending.transfer);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSizes.record(batch.size());
+
+        BatchTransferResponseDto response;
+        long start = System.nanoTime();
+        try {
+            response = accountService.commitBatch(legs);
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        for (TransferLegResultDto leg : response.getResults()) {
+            CompletableFuture<String> result = batch.get(leg.getIndex()).result;
+            if (leg.isSuccess()) {
+                result.complete(leg.getMessage());
+            } else {
+                result.completeExceptionally(toException(leg.getMessage()));
+            }
+        }
+    }
+
+    private static RuntimeException toException(String failure) {
+        if (failure.startsWith("Insufficient")) {
+            return new InsufficientFundsException(failure);
+        }
+        if (failure.contains("not found")) {
+            return new AccountNotFoundException(failure);
+        }
+        return new InvalidAccountOperationException(failure);
+    }
+
+    private static final class PendingTransfer {
+        private static final int QUEUED = 0;
+        private static final int CLAIMED = 1;
+        private static final int ABANDONED = 2;
+
+        final TransferDto transfer;
+        final long enqueuedAt;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        PendingTransfer(TransferDto transfer, long enqueuedAt) {
+            this.transfer = transfer;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        /**
+         * Taken by the committer before the transfer goes into a batch.
+         */
+        boolean claim() {
+            return state.compareAndSet(QUEUED, CLAIMED);
+        }
+
+        /**
+         * Taken by a caller that stops waiting; fails once the committer has the transfer.
+         */
+        boolean abandon() {
+            return state.compareAndSet(QUEUED, ABANDONED);
+        }
+    }
+}
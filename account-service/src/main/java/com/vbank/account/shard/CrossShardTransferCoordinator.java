@@ -0,0 +1,334 @@
+package com.vbank.account.shard;
+
+import com.vbank.account.cache.AccountCache;
+import com.vbank.account.exception.AccountNotFoundException;
+import com.vbank.account.exception.HoldNotFoundException;
+import com.vbank.account.exception.InsufficientFundsException;
+import com.vbank.account.exception.InvalidAccountOperationException;
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.id.UuidV7;
+import com.vbank.account.lock.AccountLockManager;
+import com.vbank.account.logging.LogThrottle;
+import com.vbank.account.model.Account;
+import com.vbank.account.model.FundsHold;
+import com.vbank.account.model.FundsHold.HoldStatus;
+import com.vbank.account.model.ShardTransfer;
+import com.vbank.account.model.ShardTransfer.Side;
+import com.vbank.account.model.ShardTransfer.Status;
+import com.vbank.account.repository.AccountRepository;
+import com.vbank.account.repository.FundsHoldRepository;
+import com.vbank.account.repository.ShardTransferRepository;
+import com.vbank.account.service.BalanceSlotService;
+import com.vbank.account.service.OptimisticRetryExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Moves money between accounts on different shards with a two-phase protocol.
+ *
+ * Prepare reserves the amount on the debit shard (in the account's held
+ * amount, or by marking a hold CAPTURING) and records the transfer on the
+ * credit shard after checking the destination. Committing the debit row is
+ * the decision: from then on the transfer stands and the credit is applied
+ * by the caller or, if it stops first, by {@link #recover}. A debit left
+ * PREPARED past the timeout is aborted, and credits follow whatever their
+ * debit row says, so both shards always end in the same outcome.
+ */
+@Component
+public class CrossShardTransferCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrossShardTransferCoordinator.class);
+    private static final LogThrottle creditFailureLog = new LogThrottle(Duration.ofSeconds(30));
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private FundsHoldRepository holdRepository;
+
+    @Autowired
+    private ShardTransferRepository transferRepository;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @Autowired
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceHistoryRecorder balanceHistoryRecorder;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Prepared transfers older than this are assumed to have lost their coordinator
+    @Value("${vbank.account.shards.prepared-timeout-ms:60000}")
+    private long preparedTimeoutMillis;
+
+    @Value("${vbank.account.shards.recovery-batch-size:500}")
+    private int recoveryBatchSize;
+
+    public String transfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+        return execute(fromAccountId, toAccountId, amount, null);
+    }
+
+    /**
+     * Captures an active hold into an account on another shard.
+     */
+    public String captureHold(FundsHold hold, UUID toAccountId) {
+        return execute(hold.getAccountId(), toAccountId, hold.getAmount(), hold.getId());
+    }
+
+    private String execute(UUID fromAccountId, UUID toAccountId, BigDecimal amount, UUID holdId) {
+        if (balanceSlotService.isHot(fromAccountId) || balanceSlotService.isHot(toAccountId)) {
+            throw slotsNotSupported();
+        }
+        UUID transferId = UuidV7.next();
+
+        locked(fromAccountId, () -> prepareDebit(transferId, fromAccountId, toAccountId, amount, holdId));
+        try {
+            shardRouter.onAccount(toAccountId, () -> optimisticRetryExecutor.execute(() ->
+                    prepareCredit(transferId, toAccountId, fromAccountId, amount)));
+        } catch (RuntimeException e) {
+            locked(fromAccountId, () -> abortDebit(transferId));
+            meterRegistry.counter("account.shard.transfers", "outcome", "aborted").increment();
+            throw e;
+        }
+
+        if (!locked(fromAccountId, () -> commitDebit(transferId))) {
+            // Recovery aborted the debit while this transfer was being prepared
+            shardRouter.onAccount(toAccountId, () -> optimisticRetryExecutor.execute(() -> abortCredit(transferId)));
+            meterRegistry.counter("account.shard.transfers", "outcome", "aborted").increment();
+            throw new InvalidAccountOperationException("Transfer timed out, retry the transfer.");
+        }
+
+        try {
+            locked(toAccountId, () -> commitCredit(transferId));
+        } catch (RuntimeException e) {
+            // The transfer is decided; recovery applies the credit
+            long suppressed = creditFailureLog.tryAcquire();
+            if (suppressed >= 0) {
+                logger.warn("Credit of cross-shard transfer {} left to recovery ({} similar suppressed): {}",
+                        transferId, suppressed, e.getMessage());
+            }
+        }
+        meterRegistry.counter("account.shard.transfers", "outcome", "committed").increment();
+        return "Account updated successfully.";
+    }
+
+    /**
+     * Resolves transfers left PREPARED by a coordinator that stopped.
+     *
+     * @return number of transfer sides resolved
+     */
+    public int recover() {
+        LocalDateTime before = LocalDateTime.now().minusNanos(preparedTimeoutMillis * 1_000_000);
+        int resolved = 0;
+
+        // Debits first, so that credits of abandoned transfers find a decision
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            for (UUID transferId : findPrepared(shard, Side.DEBIT, before)) {
+                ShardTransfer debit = find(shard, transferId);
+                if (debit != null && locked(debit.getAccountId(), () -> abortDebit(transferId))) {
+                    resolved++;
+                }
+            }
+        }
+
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            for (UUID transferId : findPrepared(shard, Side.CREDIT, before)) {
+                ShardTransfer credit = find(shard, transferId);
+                if (credit == null) {
+                    continue;
+                }
+                ShardTransfer debit = find(shardRouter.shardOf(credit.getCounterpartyAccountId()), transferId);
+                Status decision = debit == null ? Status.ABORTED : debit.getStatus();
+                boolean changed = false;
+                if (decision == Status.COMMITTED) {
+                    changed = locked(credit.getAccountId(), () -> commitCredit(transferId));
+                } else if (decision == Status.ABORTED) {
+                    changed = shardRouter.onShard(shard, () -> optimisticRetryExecutor.execute(() ->
+                            abortCredit(transferId)));
+                }
+                if (changed) {
+                    resolved++;
+                }
+            }
+        }
+        meterRegistry.counter("account.shard.transfers.recovered").increment(resolved);
+        return resolved;
+    }
+
+    private Boolean prepareDebit(UUID transferId, UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                                 UUID holdId) {
+        Account account = accountRepository.findById(fromAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("From account not found."));
+        requireUnsplit(account);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (holdId == null) {
+            if (account.getAvailableBalance().compareTo(amount) < 0) {
+                throw new InsufficientFundsException("Insufficient funds in the from account.");
+            }
+            account.setHeldAmount(account.getHeldAmount().add(amount));
+            accountRepository.save(account);
+        } else {
+            // The hold already reserves the amount and keeps doing so until the decision
+            FundsHold hold = holdRepository.findById(holdId)
+                    .orElseThrow(() -> new HoldNotFoundException("Hold with ID " + holdId + " not found."));
+            if (hold.getStatus() != HoldStatus.ACTIVE) {
+                throw new InvalidAccountOperationException("Hold is " + hold.getStatus().name().toLowerCase() + ".");
+            }
+            if (!hold.getExpiresAt().isAfter(now)) {
+                throw new InvalidAccountOperationException("Hold has expired.");
+            }
+            hold.setStatus(HoldStatus.CAPTURING);
+            hold.setCapturedToAccountId(toAccountId);
+            holdRepository.save(hold);
+        }
+        transferRepository.save(new ShardTransfer(transferId, Side.DEBIT, fromAccountId, toAccountId, amount,
+                holdId, now));
+        return true;
+    }
+
+    private Boolean prepareCredit(UUID transferId, UUID toAccountId, UUID fromAccountId, BigDecimal amount) {
+        Account account = accountRepository.findById(toAccountId)
+                .orElseThrow(() -> new AccountNotFoundException("To account not found."));
+        requireUnsplit(account);
+        transferRepository.save(new ShardTransfer(transferId, Side.CREDIT, toAccountId, fromAccountId, amount,
+                null, LocalDateTime.now()));
+        return true;
+    }
+
+    private Boolean commitDebit(UUID transferId) {
+        ShardTransfer transfer = transferRepository.findById(transferId).orElse(null);
+        if (transfer == null || transfer.getStatus() != Status.PREPARED) {
+            return transfer != null && transfer.getStatus() == Status.COMMITTED;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Account account = loadAccount(transfer.getAccountId());
+        account.setHeldAmount(account.getHeldAmount().subtract(transfer.getAmount()));
+        account.setBalance(account.getBalance().subtract(transfer.getAmount()));
+        account.setLastTransactionAt(now);
+        accountRepository.save(account);
+
+        if (transfer.getHoldId() != null) {
+            holdRepository.findById(transfer.getHoldId()).ifPresent(hold -> {
+                hold.settle(HoldStatus.CAPTURED, now);
+                holdRepository.save(hold);
+            });
+        }
+        transfer.resolve(Status.COMMITTED, now);
+        transferRepository.save(transfer);
+        balanceHistoryRecorder.record(account.getId(), transfer.getAmount().negate(), now);
+        accountCache.evictAccountsAfterCommit(List.of(account.getId()));
+        return true;
+    }
+
+    private Boolean commitCredit(UUID transferId) {
+        ShardTransfer transfer = transferRepository.findById(transferId).orElse(null);
+        if (transfer == null || transfer.getStatus() != Status.PREPARED) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Account account = loadAccount(transfer.getAccountId());
+        account.setBalance(account.getBalance().add(transfer.getAmount()));
+        account.setLastTransactionAt(now);
+        accountRepository.save(account);
+
+        transfer.resolve(Status.COMMITTED, now);
+        transferRepository.save(transfer);
+        balanceHistoryRecorder.record(account.getId(), transfer.getAmount(), now);
+        accountCache.evictAccountsAfterCommit(List.of(account.getId()));
+        return true;
+    }
+
+    private Boolean abortDebit(UUID transferId) {
+        ShardTransfer transfer = transferRepository.findById(transferId).orElse(null);
+        if (transfer == null || transfer.getStatus() != Status.PREPARED) {
+            return false;
+        }
+        if (transfer.getHoldId() == null) {
+            Account account = loadAccount(transfer.getAccountId());
+            account.setHeldAmount(account.getHeldAmount().subtract(transfer.getAmount()));
+            accountRepository.save(account);
+        } else {
+            // The hold goes back to ACTIVE; if it is past its deadline the reconcile sweep expires it
+            holdRepository.findById(transfer.getHoldId()).ifPresent(hold -> {
+                hold.setStatus(HoldStatus.ACTIVE);
+                hold.setCapturedToAccountId(null);
+                holdRepository.save(hold);
+            });
+        }
+        transfer.resolve(Status.ABORTED, LocalDateTime.now());
+        transferRepository.save(transfer);
+        accountCache.evictAccountsAfterCommit(List.of(transfer.getAccountId()));
+        return true;
+    }
+
+    private Boolean abortCredit(UUID transferId) {
+        ShardTransfer transfer = transferRepository.findById(transferId).orElse(null);
+        if (transfer == null || transfer.getStatus() != Status.PREPARED) {
+            return false;
+        }
+        transfer.resolve(Status.ABORTED, LocalDateTime.now());
+        transferRepository.save(transfer);
+        return true;
+    }
+
+    /**
+     * Runs one step on the account's shard under its stripe lock.
+     */
+    private <T> T locked(UUID accountId, Supplier<T> step) {
+        try (AccountLockManager.Held ignored = accountLockManager.lock(accountId, accountId)) {
+            return shardRouter.onAccount(accountId, () -> optimisticRetryExecutor.execute(step));
+        }
+    }
+
+    private List<UUID> findPrepared(int shard, Side side, LocalDateTime before) {
+        return shardRouter.onShard(shard, () ->
+                transferRepository.findPreparedBefore(side, before, PageRequest.of(0, recoveryBatchSize)));
+    }
+
+    private ShardTransfer find(int shard, UUID transferId) {
+        return shardRouter.onShard(shard, () -> transferRepository.findById(transferId).orElse(null));
+    }
+
+    private Account loadAccount(UUID accountId) {
+        return accountRepository.findById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account with ID " + accountId + " not found."));
+    }
+
+    private void requireUnsplit(Account account) {
+        if (account.hasBalanceSlots()) {
+            balanceSlotService.remember(account);
+            throw slotsNotSupported();
+        }
+    }
+
+    private static InvalidAccountOperationException slotsNotSupported() {
+        return new InvalidAccountOperationException(
+                "Transfers between shards are not supported for accounts with balance slots.");
+    }
+}
@@ -0,0 +1,149 @@
+package com.vbank.account.shard;
+
+import com.vbank.account.id.UuidV7;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps accounts to storage shards and selects the shard that repository
+ * calls on the current thread go to.
+ *
+ * An account lives on the shard given by a stable hash of its id. Work is
+ * pinned to a shard with {@link #onShard}; the routing datasource reads the
+ * pinned shard when a transaction first touches the database, so the shard
+ * must be selected before that and cannot change for the rest of the
+ * transaction. Unpinned work goes to the directory shard, which also holds
+ * the tables that are not per account (number blocks, job leases, the user
+ * directory).
+ *
+ * With a single shard every method here runs its work directly.
+ */
+@Component
+public class ShardRouter {
+
+    public static final int DIRECTORY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shardCount;
+
+    public ShardRouter(@Value("${vbank.account.shards.count:1}") int shardCount) {
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    /**
+     * Shard pinned on this thread, or null when unpinned.
+     */
+    static Integer current() {
+        return CURRENT.get();
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(UUID accountId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        long h = (accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits()) * 0x9E3779B97F4A7C15L;
+        return (int) Long.remainderUnsigned(h >>> 16, shardCount);
+    }
+
+    /**
+     * A new time-ordered id that hashes to {@code shard}, for records that
+     * are looked up by their own id but must live next to an account.
+     */
+    public UUID newIdOnShard(int shard) {
+        while (true) {
+            UUID id = UuidV7.next();
+            if (shardOf(id) == shard) {
+                return id;
+            }
+        }
+    }
+
+    public <T> T onShard(int shard, Supplier<T> work) {
+        if (shardCount == 1) {
+            return work.get();
+        }
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public void onShard(int shard, Runnable work) {
+        onShard(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T onAccount(UUID accountId, Supplier<T> work) {
+        return onShard(shardOf(accountId), work);
+    }
+
+    public <T> T onDirectory(Supplier<T> work) {
+        return onShard(DIRECTORY, work);
+    }
+
+    /**
+     * Runs the work once per shard, in shard order, and collects the results.
+     */
+    public <T> List<T> onEachShard(IntFunction<T> work) {
+        List<T> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            results.add(onShard(current, () -> work.apply(current)));
+        }
+        return results;
+    }
+
+    /**
+     * The shard all the accounts live on, or -1 if they span shards.
+     */
+    public int commonShard(Collection<UUID> accountIds) {
+        int common = -1;
+        for (UUID accountId : accountIds) {
+            int shard = shardOf(accountId);
+            if (common == -1) {
+                common = shard;
+            } else if (common != shard) {
+                return -1;
+            }
+        }
+        return common == -1 ? DIRECTORY : common;
+    }
+
+    /**
+     * Splits account ids by shard, keeping their relative order.
+     */
+    public Map<Integer, List<UUID>> groupByShard(Collection<UUID> accountIds) {
+        Map<Integer, List<UUID>> groups = new LinkedHashMap<>();
+        for (UUID accountId : accountIds) {
+            groups.computeIfAbsent(shardOf(accountId), shard -> new ArrayList<>()).add(accountId);
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,15 @@
+package com.vbank.account.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the shard pinned on the calling thread by
+ * {@link ShardRouter}, or of the directory shard when none is pinned.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRouter.current();
+    }
+}
@@ -0,0 +1,81 @@
+package com.vbank.account.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate generates the schema on the directory shard only. When it
+ * creates the schema (ddl-auto create or create-drop), this copies the
+ * generated DDL to every other shard as soon as the entity manager factory
+ * is ready, before any bean that loads state at startup can query them.
+ */
+public class ShardSchemaReplicator implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardSchemaReplicator.class);
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final boolean enabled;
+
+    public ShardSchemaReplicator(ObjectProvider<DataSource> dataSource, String ddlAuto) {
+        this.dataSource = dataSource;
+        this.enabled = ddlAuto.equals("create") || ddlAuto.equals("create-drop");
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && beanName.equals("entityManagerFactory")) {
+            replicate();
+        }
+        return bean;
+    }
+
+    private void replicate() {
+        DataSource target = dataSource.getObject();
+        if (target instanceof LazyConnectionDataSourceProxy proxy) {
+            target = proxy.getTargetDataSource();
+        }
+        Map<Object, DataSource> shards = ((ShardRoutingDataSource) target).getResolvedDataSources();
+
+        List<String> ddl = new ArrayList<>();
+        try (Connection connection = shards.get(ShardRouter.DIRECTORY).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (!sql.startsWith("CREATE USER")) {
+                    ddl.add(sql);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the schema of the directory shard", e);
+        }
+
+        for (Map.Entry<Object, DataSource> shard : shards.entrySet()) {
+            if (shard.getKey().equals(ShardRouter.DIRECTORY)) {
+                continue;
+            }
+            try (Connection connection = shard.getValue().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+                for (String sql : ddl) {
+                    statement.execute(sql);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not create the schema on shard " + shard.getKey(), e);
+            }
+        }
+        logger.info("Replicated {} schema statements to {} shards", ddl.size(), shards.size() - 1);
+    }
+}
@@ -0,0 +1,69 @@
+package com.vbank.account.shard;
+
+import com.vbank.account.model.UserShard;
+import com.vbank.account.repository.UserShardRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Secondary index from user id to the shards holding that user's accounts,
+ * so per-user lookups only visit those shards. Entries are only ever added;
+ * a user is registered on a shard before the account is written there, so
+ * the directory never misses an account.
+ */
+@Component
+public class UserShardDirectory {
+
+    @Autowired
+    private UserShardRepository userShardRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate directoryTemplate;
+
+    @PostConstruct
+    void init() {
+        // Entries must commit on the directory shard independently of the account write
+        directoryTemplate = new TransactionTemplate(transactionManager);
+        directoryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void register(UUID userId, int shard) {
+        if (!shardRouter.isSharded()) {
+            return;
+        }
+        String key = UserShard.key(userId, shard);
+        shardRouter.onDirectory(() -> {
+            try {
+                directoryTemplate.executeWithoutResult(status -> {
+                    if (!userShardRepository.existsById(key)) {
+                        userShardRepository.save(new UserShard(userId, shard));
+                    }
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Registered concurrently
+            }
+            return null;
+        });
+    }
+
+    public List<Integer> shardsOf(UUID userId) {
+        if (!shardRouter.isSharded()) {
+            return List.of(0);
+        }
+        return shardRouter.onDirectory(() -> directoryTemplate.execute(status ->
+                userShardRepository.findShardsByUserId(userId)));
+    }
+}
@@ -0,0 +1,120 @@
+package com.vbank.account.summary;
+
+import com.vbank.account.history.BalanceHistoryRecorder;
+import com.vbank.account.ledger.BalanceLedger;
+import com.vbank.account.model.Account.AccountStatus;
+import com.vbank.account.model.Account.AccountType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains the user_account_totals rows. Every method works out the
+ * affected row from the account itself, so callers only pass account ids
+ * and must call inside the transaction that changes the account, after the
+ * change is visible to SQL.
+ */
+@Component
+public class UserAccountTotals {
+
+    private static final String KEY = "CAST(a.user_id AS VARCHAR(36)) || '#' || a.account_type || '#' || ";
+
+    private static final String OPEN_SQL =
+            "MERGE INTO user_account_totals t " +
+                    "USING (SELECT " + KEY + "a.status AS id, a.user_id, a.account_type, a.status " +
+                    "FROM accounts a WHERE a.id = ?) s ON t.id = s.id " +
+                    "WHEN MATCHED THEN UPDATE SET account_count = t.account_count + 1 " +
+                    "WHEN NOT MATCHED THEN INSERT (id, user_id, account_type, status, account_count, balance) " +
+                    "VALUES (s.id, s.user_id, s.account_type, s.status, 1, 0)";
+
+    private static final String BALANCE_SQL =
+            "UPDATE user_account_totals SET balance = balance + ? " +
+                    "WHERE id = (SELECT " + KEY + "a.status FROM accounts a WHERE a.id = ?)";
+
+    // Only rows the caller's bulk update just changed carry its timestamp
+    private static final String LEAVE_SQL =
+            "UPDATE user_account_totals SET account_count = account_count - 1, " +
+                    "balance = balance - (SELECT a.balance FROM accounts a WHERE a.id = ?) " +
+                    "WHERE id = (SELECT " + KEY + "CAST(? AS VARCHAR(16)) FROM accounts a " +
+                    "WHERE a.id = ? AND a.status = ? AND a.updated_at = ?)";
+
+    private static final String ENTER_SQL =
+            "MERGE INTO user_account_totals t " +
+                    "USING (SELECT " + KEY + "a.status AS id, a.user_id, a.account_type, a.status, a.balance " +
+                    "FROM accounts a WHERE a.id = ? AND a.status = ? AND a.updated_at = ?) s ON t.id = s.id " +
+                    "WHEN MATCHED THEN UPDATE SET account_count = t.account_count + 1, balance = t.balance + s.balance " +
+                    "WHEN NOT MATCHED THEN INSERT (id, user_id, account_type, status, account_count, balance) " +
+                    "VALUES (s.id, s.user_id, s.account_type, s.status, 1, s.balance)";
+
+    private static final String SELECT_SQL =
+            "SELECT account_type, status, account_count, balance FROM user_account_totals WHERE user_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Counts newly written accounts. Their opening balances arrive through
+     * {@link #balanceChanged} like any other change.
+     */
+    public void accountsOpened(Collection<UUID> accountIds) {
+        List<Object[]> args = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            args.add(new Object[]{accountId});
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(OPEN_SQL, args);
+        }
+    }
+
+    public void balanceChanged(List<BalanceHistoryRecorder.Change> changes) {
+        List<Object[]> args = new ArrayList<>(changes.size());
+        for (BalanceHistoryRecorder.Change change : changes) {
+            if (change.amount() != 0) {
+                args.add(new Object[]{BalanceLedger.fromMinorUnits(change.amount()), change.accountId()});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(BALANCE_SQL, args);
+        }
+    }
+
+    /**
+     * Moves the accounts that a bulk update in this transaction took from
+     * {@code from} to {@code to} with updatedAt {@code at}, together with
+     * their balances; accounts the update skipped stay where they are.
+     * {@code at} must fit the column exactly (microseconds), or no row matches.
+     */
+    public void statusChangedByUpdate(Collection<UUID> accountIds, AccountStatus from, AccountStatus to,
+                                      LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        List<Object[]> leaving = new ArrayList<>(accountIds.size());
+        List<Object[]> entering = new ArrayList<>(accountIds.size());
+        for (UUID accountId : accountIds) {
+            leaving.add(new Object[]{accountId, from.name(), accountId, to.name(), timestamp});
+            entering.add(new Object[]{accountId, to.name(), timestamp});
+        }
+        if (!leaving.isEmpty()) {
+            jdbcTemplate.batchUpdate(LEAVE_SQL, leaving);
+            jdbcTemplate.batchUpdate(ENTER_SQL, entering);
+        }
+    }
+
+    /**
+     * The user's rows on the current shard.
+     */
+    public List<Total> totalsOf(UUID userId) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Total(
+                AccountType.valueOf(rs.getString(1)), AccountStatus.valueOf(rs.getString(2)),
+                rs.getLong(3), rs.getBigDecimal(4)), userId);
+    }
+
+    public record Total(AccountType accountType, AccountStatus status, long accountCount, BigDecimal balance) {}
+}
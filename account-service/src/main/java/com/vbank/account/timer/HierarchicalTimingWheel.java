@@ -0,0 +1,186 @@
+package com.vbank.account.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Hierarchical timing wheel for large numbers of long deadlines, such as one
+ * per account. Level 0 has one bucket per tick; every level above covers 64
+ * buckets of the level below in each of its own. Timers are inserted at the
+ * lowest level whose range reaches their deadline and cascade down as the
+ * wheel turns, so each timer is touched O(levels) times no matter how many
+ * are scheduled. Deadlines beyond the top level wait there and are re-placed
+ * on each rotation.
+ *
+ * {@link #postpone} only moves a deadline later and is lock-free: it records
+ * the new deadline on the timer, which is re-placed instead of fired when
+ * its old bucket comes due. Keys fire once their whole tick has passed.
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private static final int BUCKET_BITS = 6;
+    private static final int BUCKETS = 1 << BUCKET_BITS;
+    private static final int BUCKET_MASK = BUCKETS - 1;
+
+    // Deadline of a timer that has been fired and taken out of the wheel
+    private static final long FIRED = Long.MIN_VALUE;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Timer> DEADLINE_TICK =
+            AtomicLongFieldUpdater.newUpdater(Timer.class, "deadlineTick");
+
+    private final long tickMillis;
+    private final int levels;
+    // Sentinel heads of circular doubly linked lists, [level][bucket]
+    private final Timer<K>[][] buckets;
+    private final ConcurrentHashMap<K, Timer<K>> timers = new ConcurrentHashMap<>();
+    // Last tick that has been processed
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int levels, long startMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.levels = Math.max(1, Math.min(levels, 63 / BUCKET_BITS));
+        this.buckets = new Timer[this.levels][BUCKETS];
+        for (Timer<K>[] level : buckets) {
+            for (int i = 0; i < BUCKETS; i++) {
+                level[i] = new Timer<>(null, 0L);
+            }
+        }
+        this.currentTick = startMillis / this.tickMillis - 1;
+    }
+
+    /**
+     * Schedules the key, replacing any deadline it already had.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Timer<K> timer = timers.get(key);
+        if (timer != null) {
+            timer.unlink();
+            timer.deadlineTick = deadlineMillis / tickMillis;
+        } else {
+            timer = new Timer<>(key, deadlineMillis / tickMillis);
+            timers.put(key, timer);
+        }
+        place(timer);
+    }
+
+    /**
+     * Moves the key's deadline later without taking the wheel's monitor,
+     * unless the key is not scheduled yet. Earlier deadlines are ignored.
+     */
+    public void postpone(K key, long deadlineMillis) {
+        Timer<K> timer = timers.get(key);
+        if (timer != null) {
+            long tick = deadlineMillis / tickMillis;
+            while (true) {
+                long current = timer.deadlineTick;
+                if (current == FIRED) {
+                    break;
+                }
+                if (tick <= current || DEADLINE_TICK.compareAndSet(timer, current, tick)) {
+                    return;
+                }
+            }
+        }
+        schedule(key, deadlineMillis);
+    }
+
+    public synchronized void cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer != null) {
+            timer.unlink();
+        }
+    }
+
+    /**
+     * Turns the wheel to {@code nowMillis} and removes every key whose tick has passed.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long completedTick = nowMillis / tickMillis - 1;
+        List<K> due = new ArrayList<>();
+        while (currentTick < completedTick) {
+            currentTick++;
+            // Higher levels first, so their timers can land in a lower bucket cascaded in the same tick
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (BUCKET_BITS * level)) - 1)) == 0) {
+                    drain(buckets[level][bucketIndex(currentTick, level)], due);
+                }
+            }
+            drain(buckets[0][(int) (currentTick & BUCKET_MASK)], due);
+        }
+        return due;
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Fires the bucket's due timers and re-places the rest, which were
+     * cascaded from a higher level or postponed since they were placed.
+     */
+    private void drain(Timer<K> head, List<K> due) {
+        Timer<K> timer = head.next;
+        while (timer != head) {
+            Timer<K> next = timer.next;
+            timer.unlink();
+            while (true) {
+                long deadline = timer.deadlineTick;
+                if (deadline > currentTick) {
+                    place(timer);
+                    break;
+                }
+                // Fails only if postpone moved the deadline concurrently
+                if (DEADLINE_TICK.compareAndSet(timer, deadline, FIRED)) {
+                    timers.remove(timer.key, timer);
+                    due.add(timer.key);
+                    break;
+                }
+            }
+            timer = next;
+        }
+    }
+
+    private void place(Timer<K> timer) {
+        long tick = Math.max(timer.deadlineTick, currentTick + 1);
+        long delta = tick - currentTick;
+        int level = 0;
+        while (level < levels - 1 && delta >= (1L << (BUCKET_BITS * (level + 1)))) {
+            level++;
+        }
+        timer.linkBefore(buckets[level][bucketIndex(tick, level)]);
+    }
+
+    private static int bucketIndex(long tick, int level) {
+        return (int) ((tick >>> (BUCKET_BITS * level)) & BUCKET_MASK);
+    }
+
+    private static final class Timer<K> {
+        final K key;
+        volatile long deadlineTick;
+        Timer<K> prev = this;
+        Timer<K> next = this;
+
+        Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+
+        void linkBefore(Timer<K> head) {
+            prev = head.prev;
+            next = head;
+            head.prev.next = this;
+            head.prev = this;
+        }
+
+        void unlink() {
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.vbank.account.timer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel of keyed deadlines. Scheduling and cancelling are
+ * O(1), and {@link #advance} only visits the buckets of the ticks that
+ * elapsed, so finding due keys never scans everything that is scheduled.
+ * Deadlines more than one rotation away stay in their bucket until the pass
+ * that reaches their tick. Keys fire once their whole tick has passed, so
+ * never early and at most one tick late.
+ */
+public class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final Set<K>[] buckets;
+    private final Map<K, Timeout> timeouts = new HashMap<>();
+    // Last tick whose bucket has been processed
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1) << 1);
+        this.tickMillis = Math.max(1, tickMillis);
+        this.mask = size - 1;
+        this.buckets = new Set[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new HashSet<>();
+        }
+        this.lastTick = startMillis / this.tickMillis - 1;
+    }
+
+    /**
+     * Schedules the key, replacing any deadline it already had.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // Deadlines whose tick has already been processed go into the next one
+        long tick = Math.max(deadlineMillis / tickMillis, lastTick + 1);
+        int bucket = (int) (tick & mask);
+        timeouts.put(key, new Timeout(tick, bucket));
+        buckets[bucket].add(key);
+    }
+
+    public synchronized void cancel(K key) {
+        Timeout timeout = timeouts.remove(key);
+        if (timeout != null) {
+            buckets[timeout.bucket()].remove(key);
+        }
+    }
+
+    /**
+     * Moves the wheel to {@code nowMillis} and removes every key whose tick has passed.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        long completedTick = nowMillis / tickMillis - 1;
+        List<K> due = new ArrayList<>();
+        if (completedTick <= lastTick) {
+            return due;
+        }
+        // After a full rotation every bucket has been visited once
+        long first = Math.max(lastTick + 1, completedTick - mask);
+        for (long tick = first; tick <= completedTick; tick++) {
+            buckets[(int) (tick & mask)].removeIf(key -> {
+                if (timeouts.get(key).tick() <= completedTick) {
+                    timeouts.remove(key);
+                    due.add(key);
+                    return true;
+                }
+                return false;
+            });
+        }
+        lastTick = completedTick;
+        return due;
+    }
+
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private record Timeout(long tick, int bucket) {}
+}
@@ -0,0 +1,194 @@
+package com.vbank.account.journal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceJournalRecoveryTest {
+
+    private static final UUID A = UUID.fromString("00000000-0000-0000-0000-00000000000a");
+    private static final UUID B = UUID.fromString("00000000-0000-0000-0000-00000000000b");
+    private static final UUID C = UUID.fromString("00000000-0000-0000-0000-00000000000c");
+
+    @TempDir
+    Path dir;
+
+    private final List<BalanceJournal> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws IOException {
+        for (BalanceJournal journal : opened) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void replaysTheJournalWithoutASnapshot() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        journal.appendOpen(B, 500);
+        journal.appendTransfer(A, B, 200);
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertEquals(0L, state.snapshotSeq());
+        assertArrayEquals(new long[]{800, 3}, state.accounts().get(A));
+        assertArrayEquals(new long[]{700, 3}, state.accounts().get(B));
+        assertTrue(state.hasBaseline(A));
+        assertTrue(state.hasBaseline(B));
+    }
+
+    @Test
+    void appliesOnlyTheTailAfterTheSnapshot() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        journal.appendOpen(B, 500);
+        long snapshotSeq = journal.appendTransfer(A, B, 200);
+        try (BalanceSnapshotStore.Writer writer = snapshots.begin(snapshotSeq)) {
+            writer.write(A, 800, snapshotSeq);
+            writer.write(B, 700, snapshotSeq);
+            writer.commit();
+        }
+        journal.appendTransfer(B, A, 50);
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertEquals(snapshotSeq, state.snapshotSeq());
+        assertArrayEquals(new long[]{850, 4}, state.accounts().get(A));
+        assertArrayEquals(new long[]{650, 4}, state.accounts().get(B));
+        assertTrue(state.hasBaseline(A));
+        assertTrue(state.hasBaseline(B));
+    }
+
+    @Test
+    void skipsRecordsAnAccountsSnapshotEntryAlreadyCovers() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        journal.appendOpen(B, 500);
+        journal.appendTransfer(A, B, 100);
+        journal.appendTransfer(A, B, 100);
+        // A snapshot taken at seq 3 while the transfer at seq 4 was already applied to both accounts
+        try (BalanceSnapshotStore.Writer writer = snapshots.begin(3)) {
+            writer.write(A, 800, 4);
+            writer.write(B, 700, 4);
+            writer.commit();
+        }
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertArrayEquals(new long[]{800, 4}, state.accounts().get(A));
+        assertArrayEquals(new long[]{700, 4}, state.accounts().get(B));
+    }
+
+    @Test
+    void replaysAcrossSegments() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(4);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        journal.appendOpen(B, 0);
+        for (int i = 0; i < 10; i++) {
+            journal.appendTransfer(A, B, 10);
+        }
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(4).recover(snapshots);
+
+        assertArrayEquals(new long[]{900, 12}, state.accounts().get(A));
+        assertArrayEquals(new long[]{100, 12}, state.accounts().get(B));
+    }
+
+    @Test
+    void accountWithOnlyTransfersHasNoBaseline() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        // C predates the journal, so it has neither an OPEN record nor a snapshot entry
+        journal.appendTransfer(A, C, 300);
+        journal.appendTransfer(C, A, 100);
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertTrue(state.hasBaseline(A));
+        assertArrayEquals(new long[]{800, 3}, state.accounts().get(A));
+        assertFalse(state.hasBaseline(C));
+        assertArrayEquals(new long[]{200, 3}, state.accounts().get(C));
+    }
+
+    @Test
+    void snapshotEntryGivesAnAccountItsBaseline() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        try (BalanceSnapshotStore.Writer writer = snapshots.begin(1)) {
+            writer.write(A, 1_000, 1);
+            writer.write(C, 5_000, 0);
+            writer.commit();
+        }
+        journal.appendTransfer(A, C, 300);
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertTrue(state.hasBaseline(C));
+        assertArrayEquals(new long[]{5_300, 2}, state.accounts().get(C));
+    }
+
+    @Test
+    void uncommittedSnapshotIsIgnored() throws IOException {
+        BalanceSnapshotStore snapshots = snapshotStore();
+        BalanceJournal journal = journal(16);
+        journal.recover(snapshots);
+        journal.appendOpen(A, 1_000);
+        try (BalanceSnapshotStore.Writer writer = snapshots.begin(1)) {
+            writer.write(A, 42, 1);
+        }
+        journal.awaitDurable();
+
+        BalanceJournal.RecoveredState state = journal(16).recover(snapshots);
+
+        assertEquals(0L, state.snapshotSeq());
+        assertArrayEquals(new long[]{1_000, 1}, state.accounts().get(A));
+    }
+
+    private BalanceSnapshotStore snapshotStore() {
+        BalanceSnapshotStore store = new BalanceSnapshotStore();
+        ReflectionTestUtils.setField(store, "directory", dir.toString());
+        ReflectionTestUtils.setField(store, "retained", 2);
+        return store;
+    }
+
+    private BalanceJournal journal(int segmentRecords) throws IOException {
+        BalanceJournal journal = new BalanceJournal();
+        ReflectionTestUtils.setField(journal, "directory", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentRecords", segmentRecords);
+        ReflectionTestUtils.setField(journal, "syncIntervalMicros", 100L);
+        journal.open();
+        opened.add(journal);
+        return journal;
+    }
+}
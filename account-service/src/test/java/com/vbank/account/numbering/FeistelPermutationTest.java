@@ -0,0 +1,77 @@
+package com.vbank.account.numbering;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeistelPermutationTest {
+
+    @Test
+    void isABijectionOnAnEvenBitDomain() {
+        assertBijective(new FeistelPermutation(1 << 16, "key"), 1 << 16);
+    }
+
+    @Test
+    void cycleWalksBackIntoADomainThatIsNotAPowerOfTwo() {
+        // 1000 needs 10 bits, so about 2% of encryptions land outside and are re-encrypted
+        assertBijective(new FeistelPermutation(1000, "key"), 1000);
+        // Odd bit width: 5000 needs 13 bits and the network runs on 14
+        assertBijective(new FeistelPermutation(5000, "key"), 5000);
+    }
+
+    @Test
+    void smallestDomainIsStillABijection() {
+        assertBijective(new FeistelPermutation(4, "key"), 4);
+        assertBijective(new FeistelPermutation(5, "key"), 5);
+    }
+
+    @Test
+    void sameKeyGivesTheSameMappingAndAnotherKeyDoesNot() {
+        FeistelPermutation first = new FeistelPermutation(1_000_000, "key");
+        FeistelPermutation again = new FeistelPermutation(1_000_000, "key");
+        FeistelPermutation other = new FeistelPermutation(1_000_000, "other key");
+
+        boolean differs = false;
+        for (long value = 0; value < 100; value++) {
+            assertEquals(first.permute(value), again.permute(value));
+            differs |= first.permute(value) != other.permute(value);
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    void scramblesSequentialInput() {
+        FeistelPermutation permutation = new FeistelPermutation(9_000_000_000L, "key");
+        int ascending = 0;
+        for (long value = 0; value < 100; value++) {
+            long result = permutation.permute(value);
+            assertTrue(result >= 0 && result < 9_000_000_000L);
+            if (value > 0 && result > permutation.permute(value - 1)) {
+                ascending++;
+            }
+        }
+        assertNotEquals(99, ascending);
+    }
+
+    @Test
+    void rejectsValuesOutsideTheDomain() {
+        FeistelPermutation permutation = new FeistelPermutation(1000, "key");
+        assertThrows(IllegalArgumentException.class, () -> permutation.permute(-1));
+        assertThrows(IllegalArgumentException.class, () -> permutation.permute(1000));
+        assertThrows(IllegalArgumentException.class, () -> new FeistelPermutation(3, "key"));
+    }
+
+    private static void assertBijective(FeistelPermutation permutation, int domain) {
+        boolean[] seen = new boolean[domain];
+        for (int value = 0; value < domain; value++) {
+            long result = permutation.permute(value);
+            assertTrue(result >= 0 && result < domain, "out of domain: " + result);
+            assertFalse(seen[(int) result], "collision on " + result);
+            seen[(int) result] = true;
+        }
+    }
+}
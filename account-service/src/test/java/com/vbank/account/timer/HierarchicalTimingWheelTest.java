@@ -0,0 +1,107 @@
+package com.vbank.account.timer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void firesKeysInDeadlineOrderWithinOneAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("x", 3_500);
+        wheel.schedule("z", 200_000);
+        wheel.schedule("y", 1_200);
+
+        assertEquals(List.of("y", "x", "z"), wheel.advance(300_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesFromHigherLevelsAndFiresOnlyOnceTheTickHasPassed() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("level0", 500);
+        wheel.schedule("level1", 70_000);
+        wheel.schedule("level2", 5_000_000);
+
+        assertEquals(List.of("level0"), wheel.advance(1_000));
+        assertEquals(List.of(), wheel.advance(70_999));
+        assertEquals(List.of("level1"), wheel.advance(71_000));
+        assertEquals(List.of(), wheel.advance(5_000_999));
+        assertEquals(List.of("level2"), wheel.advance(5_001_000));
+    }
+
+    @Test
+    void deadlinesBeyondTheTopLevelWaitForTheirRotation() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 1, 0);
+        wheel.schedule("far", 200_000);
+
+        assertEquals(List.of(), wheel.advance(200_999));
+        assertEquals(List.of("far"), wheel.advance(201_000));
+    }
+
+    @Test
+    void postponedKeyIsReplacedInsteadOfFired() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("k", 2_000);
+        wheel.postpone("k", 100_000);
+
+        assertEquals(List.of(), wheel.advance(100_999));
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("k"), wheel.advance(101_000));
+    }
+
+    @Test
+    void postponeIgnoresEarlierDeadlines() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("k", 10_000);
+        wheel.postpone("k", 1_000);
+
+        assertEquals(List.of(), wheel.advance(10_999));
+        assertEquals(List.of("k"), wheel.advance(11_000));
+    }
+
+    @Test
+    void postponeSchedulesUnknownAndAlreadyFiredKeys() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.postpone("k", 2_000);
+        assertEquals(List.of("k"), wheel.advance(3_000));
+
+        wheel.postpone("k", 5_000);
+        assertEquals(List.of(), wheel.advance(5_999));
+        assertEquals(List.of("k"), wheel.advance(6_000));
+    }
+
+    @Test
+    void scheduleCanMoveADeadlineEarlier() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("k", 500_000);
+        wheel.schedule("k", 2_000);
+
+        assertEquals(List.of("k"), wheel.advance(3_000));
+        assertEquals(List.of(), wheel.advance(600_000));
+    }
+
+    @Test
+    void cancelledKeyNeverFires() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 0);
+        wheel.schedule("k", 2_000);
+        wheel.cancel("k");
+
+        assertEquals(List.of(), wheel.advance(10_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void pastDeadlineFiresOnTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 3, 50_000);
+        wheel.schedule("late", 1_000);
+
+        assertEquals(List.of(), wheel.advance(50_999));
+        assertEquals(List.of("late"), wheel.advance(51_000));
+    }
+}
@@ -0,0 +1,185 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.AccountServiceApplication;
+import com.vbank.account.dto.AccountImportResultDto;
+import com.vbank.account.dto.TransferDto;
+import com.vbank.account.model.Account;
+import com.vbank.account.service.AccountImportService;
+import com.vbank.account.service.AccountService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An account-service application context on a private in-memory H2 database,
+ * seeded through the bulk import path. Account 0 is the hot account that a
+ * {@code hotShare} of generated operations is steered to.
+ */
+final class AccountFixture implements AutoCloseable {
+
+    static final int ACCOUNTS_PER_USER = 4;
+    static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000.00");
+    static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("1.00");
+    // Default balance slots on the hot account in slots mode
+    static final int HOT_ACCOUNT_SLOTS = 16;
+    // Default databases in sharded mode
+    static final int SHARDS = 4;
+
+    final ConfigurableApplicationContext context;
+    final UUID[] accountIds;
+    final UUID[] userIds;
+
+    private AccountFixture(ConfigurableApplicationContext context, UUID[] accountIds, UUID[] userIds) {
+        this.context = context;
+        this.accountIds = accountIds;
+        this.userIds = userIds;
+    }
+
+    /**
+     * Starts the service in one of the benchmark modes:
+     * direct, pipeline, ledger, slots (hot account split into balance slots), limits
+     * or sharded (accounts spread over several in-memory databases).
+     */
+    static AccountFixture start(String mode, int accounts, Account.AccountType accountType,
+                                Map<String, Object> extraProperties) {
+        return start(mode, accounts, accountType, extraProperties, mode.equals("sharded") ? SHARDS : HOT_ACCOUNT_SLOTS);
+    }
+
+    /**
+     * As {@link #start(String, int, Account.AccountType, Map)}, with {@code width}
+     * balance slots on the hot account in slots mode, or {@code width} databases
+     * in sharded mode (one is the unsharded baseline).
+     */
+    static AccountFixture start(String mode, int accounts, Account.AccountType accountType,
+                                Map<String, Object> extraProperties, int width) {
+        Map<String, Object> properties = new HashMap<>();
+        String database = "jdbc:h2:mem:bench-" + UUID.randomUUID();
+        properties.put("spring.datasource.url", database);
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.jpa.properties.hibernate.format_sql", "false");
+        properties.put("logging.level.root", "WARN");
+        switch (mode) {
+            case "direct", "slots" -> { }
+            case "pipeline" -> properties.put("vbank.account.pipeline.enabled", "true");
+            case "ledger" -> properties.put("vbank.account.ledger.enabled", "true");
+            case "limits" -> {
+                // Enforced but never reached, so the benchmark measures the bookkeeping only
+                properties.put("vbank.account.limits.enabled", "true");
+                properties.put("vbank.account.limits.velocity.max-count", "1000000000");
+                properties.put("vbank.account.limits.daily.max-amount-minor", "1000000000000");
+            }
+            case "sharded" -> {
+                properties.put("vbank.account.shards.count", String.valueOf(width));
+                properties.put("vbank.account.shards.url-template", database + "-shard{shard}");
+            }
+            default -> throw new IllegalArgumentException("Unknown benchmark mode " + mode);
+        }
+        properties.putAll(extraProperties);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AccountServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .logStartupInfo(false)
+                .run();
+
+        UUID[] userIds = new UUID[Math.max(1, accounts / ACCOUNTS_PER_USER)];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = UUID.randomUUID();
+        }
+        UUID[] accountIds = seed(context.getBean(AccountImportService.class), accounts, userIds, accountType);
+
+        if (mode.equals("slots")) {
+            context.getBean(AccountService.class).setBalanceSlots(accountIds[0], width);
+        }
+        return new AccountFixture(context, accountIds, userIds);
+    }
+
+    private static UUID[] seed(AccountImportService importService, int accounts, UUID[] userIds,
+                               Account.AccountType accountType) {
+        StringBuilder body = new StringBuilder(accounts * 110);
+        for (int i = 0; i < accounts; i++) {
+            body.append("{\"userId\":\"").append(userIds[i % userIds.length])
+                    .append("\",\"accountType\":\"").append(accountType.name())
+                    .append("\",\"initialBalance\":").append(OPENING_BALANCE.toPlainString()).append("}\n");
+        }
+
+        List<UUID> created = new ArrayList<>(accounts);
+        try {
+            importService.importAccounts(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)),
+                    AccountImportService.Format.NDJSON, new AccountImportService.ResultSink() {
+                        @Override
+                        public void accept(AccountImportResultDto result) {
+                            if (!result.isSuccess()) {
+                                throw new IllegalStateException("Seeding failed: " + result.getMessage());
+                            }
+                            created.add(result.getAccountId());
+                        }
+
+                        @Override
+                        public void batchCompleted() { }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return created.toArray(new UUID[0]);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    UUID pickAccount(double hotShare) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < hotShare) {
+            return accountIds[0];
+        }
+        return accountIds[random.nextInt(accountIds.length)];
+    }
+
+    UUID pickUser(double hotShare) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < hotShare) {
+            return userIds[0];
+        }
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    /**
+     * A transfer between two distinct accounts; with probability {@code hotShare}
+     * one side, in either direction, is the hot account.
+     */
+    TransferDto nextTransfer(double hotShare) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID from;
+        UUID to;
+        if (random.nextDouble() < hotShare) {
+            UUID other = accountIds[1 + random.nextInt(accountIds.length - 1)];
+            boolean hotPays = random.nextBoolean();
+            from = hotPays ? accountIds[0] : other;
+            to = hotPays ? other : accountIds[0];
+        } else {
+            int a = random.nextInt(accountIds.length);
+            int b = random.nextInt(accountIds.length - 1);
+            from = accountIds[a];
+            to = accountIds[b >= a ? b + 1 : b];
+        }
+        return new TransferDto(from, to, TRANSFER_AMOUNT);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.dto.AccountCreationDto;
+import com.vbank.account.dto.AccountResponseDto;
+import com.vbank.account.model.Account;
+import com.vbank.account.numbering.AccountNumberAllocator;
+import com.vbank.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account reads, account creation and account number generation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class AccountServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    @Param({"0", "0.5", "0.9"})
+    public double hotShare;
+
+    @Param({"direct", "ledger"})
+    public String mode;
+
+    private AccountFixture fixture;
+    private AccountService accountService;
+    private AccountNumberAllocator accountNumberAllocator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = AccountFixture.start(mode, accounts, Account.AccountType.CHECKING, Map.of());
+        accountService = fixture.bean(AccountService.class);
+        accountNumberAllocator = fixture.bean(AccountNumberAllocator.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public AccountResponseDto getAccountById() {
+        return accountService.getAccountById(fixture.pickAccount(hotShare));
+    }
+
+    @Benchmark
+    public List<AccountResponseDto> getAccountsByUserId() {
+        return accountService.getAccountsByUserId(fixture.pickUser(hotShare));
+    }
+
+    @Benchmark
+    public AccountResponseDto createAccount() {
+        UUID userId = fixture.pickUser(hotShare);
+        return accountService.createAccount(
+                new AccountCreationDto(userId, Account.AccountType.CHECKING, BigDecimal.ZERO));
+    }
+
+    /**
+     * AccountService.generateAccountNumber is private and only delegates to the allocator.
+     */
+    @Benchmark
+    public String generateAccountNumber() {
+        return accountNumberAllocator.next();
+    }
+}
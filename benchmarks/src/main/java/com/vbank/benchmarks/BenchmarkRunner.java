@@ -0,0 +1,65 @@
+package com.vbank.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks once per thread count in bench.threads, with the GC
+ * profiler attached for allocation rates, and writes one JSON result file per
+ * thread count to bench.results. bench.accounts, bench.hotShare, bench.mode,
+ * bench.slots and bench.shards override the corresponding @Param values
+ * (comma separated).
+ *
+ * The interest accrual benchmark parallelises internally and only runs
+ * single-threaded.
+ */
+public class BenchmarkRunner {
+
+    private static final String INTEREST = InterestAccrualBenchmark.class.getName();
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("bench.include", ".*");
+        Path results = Path.of(System.getProperty("bench.results", "target/jmh"));
+        Files.createDirectories(results);
+
+        for (String value : System.getProperty("bench.threads", "1,4,16").split(",")) {
+            int threads = Integer.parseInt(value.trim());
+            ChainedOptionsBuilder options = options(include, results.resolve("results-" + threads + "t.json"))
+                    .exclude(Pattern.quote(INTEREST))
+                    .threads(threads);
+            new Runner(options.build()).run();
+        }
+
+        if (Pattern.compile(include).matcher(INTEREST + ".accrue").find()) {
+            new Runner(options(Pattern.quote(INTEREST), results.resolve("results-interest.json"))
+                    .threads(1)
+                    .build()).run();
+        }
+    }
+
+    private static ChainedOptionsBuilder options(String include, Path result) {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .forks(Integer.getInteger("bench.forks", 1))
+                .jvmArgsAppend("-Xms2g", "-Xmx2g")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        for (String param : new String[]{"accounts", "hotShare", "mode", "slots", "shards"}) {
+            String values = System.getProperty("bench." + param, "");
+            if (!values.isBlank()) {
+                options.param(param, values.split(","));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,65 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.dto.InterestAccrualRunDto;
+import com.vbank.account.interest.InterestAccrualEngine;
+import com.vbank.account.model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full accrual run over every savings account per invocation. Each run
+ * accrues the next day, so every invocation credits all accounts. Run
+ * single-threaded; the engine parallelises internally.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class InterestAccrualBenchmark {
+
+    @Param({"10000", "100000"})
+    public int accounts;
+
+    // 0 means one worker per available processor
+    @Param({"1", "4", "0"})
+    public int parallelism;
+
+    private AccountFixture fixture;
+    private InterestAccrualEngine engine;
+    private LocalDate nextRunDate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = AccountFixture.start("direct", accounts, Account.AccountType.SAVINGS,
+                Map.of("vbank.account.interest.parallelism", String.valueOf(parallelism)));
+        engine = fixture.bean(InterestAccrualEngine.class);
+        nextRunDate = LocalDate.now();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public InterestAccrualRunDto accrue() {
+        InterestAccrualRunDto run = engine.accrue(nextRunDate);
+        nextRunDate = nextRunDate.plusDays(1);
+        return run;
+    }
+}
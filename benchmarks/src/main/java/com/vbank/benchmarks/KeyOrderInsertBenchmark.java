@@ -0,0 +1,209 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.id.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Insert rate and on-disk size of the accounts, users and transactions
+ * tables with random and UUIDv7 primary keys, row by row and in JDBC
+ * batches. The tables mirror the entities of account-service, user-service
+ * and transaction-service, which generate their ids with the same UuidV7
+ * code; plain JDBC batches stand in for Hibernate's, which is what keys
+ * assigned before the insert make possible. Throughput is in rows per
+ * second. The database is a file so that the page splits random keys cause
+ * show up as size: bytes per row are printed when each trial ends.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class KeyOrderInsertBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("125.00");
+    // The services' hibernate.jdbc.batch_size
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"accounts", "users", "transactions"})
+    public String table;
+
+    @Param({"random", "v7"})
+    public String keys;
+
+    private Path directory;
+    private String url;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, SQLException {
+        directory = Files.createTempDirectory("key-order-bench");
+        url = "jdbc:h2:file:" + directory.resolve("db").toAbsolutePath();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(ddl());
+            if (table.equals("transactions")) {
+                statement.execute("CREATE INDEX idx_from_account ON transactions (from_account_id)");
+                statement.execute("CREATE INDEX idx_to_account ON transactions (to_account_id)");
+                statement.execute("CREATE INDEX idx_transaction_timestamp ON transactions (timestamp)");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            long rows;
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                rs.next();
+                rows = rs.getLong(1);
+            }
+            statement.execute("CHECKPOINT SYNC");
+            long bytes = Files.size(directory.resolve("db.mv.db"));
+            System.out.println("\n" + table + " keys=" + keys + ": " + rows + " rows, "
+                    + bytes / Math.max(1, rows) + " bytes/row on disk");
+            statement.execute("SHUTDOWN");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+
+        Connection connection;
+        PreparedStatement insert;
+
+        @Setup(Level.Trial)
+        public void open(KeyOrderInsertBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url, "sa", "");
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement(benchmark.insertSql());
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            insert.close();
+            connection.close();
+        }
+    }
+
+    /**
+     * One row per statement and commit, as the services inserted before
+     * JDBC batching was enabled.
+     */
+    @Benchmark
+    public void insertRow(Writer writer) throws SQLException {
+        bind(writer.insert, sequence.incrementAndGet(), new Timestamp(System.currentTimeMillis()));
+        writer.insert.executeUpdate();
+        writer.connection.commit();
+    }
+
+    /**
+     * One JDBC batch per commit, as Hibernate inserts with preassigned ids.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void insertBatch(Writer writer) throws SQLException {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            bind(writer.insert, sequence.incrementAndGet(), now);
+            writer.insert.addBatch();
+        }
+        writer.insert.executeBatch();
+        writer.connection.commit();
+    }
+
+    private UUID nextId() {
+        return keys.equals("v7") ? UuidV7.next() : UUID.randomUUID();
+    }
+
+    private String ddl() {
+        return switch (table) {
+            case "accounts" -> "CREATE TABLE accounts (id UUID PRIMARY KEY, account_number VARCHAR(255) NOT NULL UNIQUE, "
+                    + "user_id UUID NOT NULL, account_type VARCHAR(255) NOT NULL, balance NUMERIC(19,2) NOT NULL, "
+                    + "status VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL, updated_at TIMESTAMP NOT NULL, "
+                    + "last_transaction_at TIMESTAMP NOT NULL, version BIGINT NOT NULL)";
+            case "users" -> "CREATE TABLE users (id UUID PRIMARY KEY, username VARCHAR(255) NOT NULL UNIQUE, "
+                    + "pass VARCHAR(255) NOT NULL, email VARCHAR(255) NOT NULL UNIQUE, f_name VARCHAR(255) NOT NULL, "
+                    + "l_name VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL)";
+            case "transactions" -> "CREATE TABLE transactions (transaction_id UUID PRIMARY KEY, "
+                    + "from_account_id UUID NOT NULL, to_account_id UUID NOT NULL, amount NUMERIC(15,2) NOT NULL, "
+                    + "description VARCHAR(255), status VARCHAR(20) NOT NULL, timestamp TIMESTAMP NOT NULL, "
+                    + "created_at TIMESTAMP NOT NULL)";
+            default -> throw new IllegalArgumentException("Unknown table " + table);
+        };
+    }
+
+    private String insertSql() {
+        return switch (table) {
+            case "accounts" -> "INSERT INTO accounts (id, account_number, user_id, account_type, balance, status, "
+                    + "created_at, updated_at, last_transaction_at, version) VALUES (?, ?, ?, 'CHECKING', ?, 'ACTIVE', ?, ?, ?, 0)";
+            case "users" -> "INSERT INTO users (id, username, pass, email, f_name, l_name, created_at) "
+                    + "VALUES (?, ?, '$2a$10$abcdefghijklmnopqrstuvwxyz0123456789ABCDEFGHIJKLMNOPQ', ?, 'Bench', 'User', ?)";
+            default -> "INSERT INTO transactions (transaction_id, from_account_id, to_account_id, amount, description, "
+                    + "status, timestamp, created_at) VALUES (?, ?, ?, ?, 'benchmark', 'SUCCESS', ?, ?)";
+        };
+    }
+
+    private void bind(PreparedStatement insert, long n, Timestamp now) throws SQLException {
+        insert.setObject(1, nextId());
+        switch (table) {
+            case "accounts" -> {
+                insert.setString(2, String.format("%012d", n));
+                insert.setObject(3, UUID.randomUUID());
+                insert.setBigDecimal(4, AMOUNT);
+                insert.setTimestamp(5, now);
+                insert.setTimestamp(6, now);
+                insert.setTimestamp(7, now);
+            }
+            case "users" -> {
+                insert.setString(2, "user" + n);
+                insert.setString(3, "user" + n + "@bench.local");
+                insert.setTimestamp(4, now);
+            }
+            default -> {
+                insert.setObject(2, UUID.randomUUID());
+                insert.setObject(3, UUID.randomUUID());
+                insert.setBigDecimal(4, AMOUNT);
+                insert.setTimestamp(5, now);
+                insert.setTimestamp(6, now);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.timer.HierarchicalTimingWheel;
+import com.vbank.account.timer.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The hold-expiry and inactivity wheels under the inactivity workload: every
+ * key has a deadline within the next day, activity pushes a deadline a full
+ * day out, and every fired key is scheduled again. Time is simulated, so one
+ * call to {@link #tick} is one wheel tick.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TimingWheelBenchmark {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final long HORIZON_MILLIS = 24 * 3_600_000L;
+
+    @Param({"10000", "1000000"})
+    public int timers;
+
+    @Param({"hashed", "hierarchical"})
+    public String wheel;
+
+    private UUID[] keys;
+    private Wheel target;
+    private final AtomicLong clock = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long start = System.currentTimeMillis();
+        clock.set(start);
+        target = wheel.equals("hashed") ? hashed(new TimingWheel<>(TICK_MILLIS, 4096, start))
+                : hierarchical(new HierarchicalTimingWheel<>(TICK_MILLIS, 4, start));
+        keys = new UUID[timers];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < timers; i++) {
+            keys[i] = UUID.randomUUID();
+            target.schedule(keys[i], start + random.nextLong(HORIZON_MILLIS));
+        }
+    }
+
+    @Benchmark
+    public UUID touch() {
+        UUID key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        target.postpone(key, clock.get() + HORIZON_MILLIS);
+        return key;
+    }
+
+    @Benchmark
+    public int tick() {
+        long now = clock.addAndGet(TICK_MILLIS);
+        List<UUID> due = target.advance(now);
+        for (UUID key : due) {
+            target.schedule(key, now + HORIZON_MILLIS);
+        }
+        return due.size();
+    }
+
+    private interface Wheel {
+        void schedule(UUID key, long deadlineMillis);
+
+        void postpone(UUID key, long deadlineMillis);
+
+        List<UUID> advance(long nowMillis);
+    }
+
+    private static Wheel hashed(TimingWheel<UUID> wheel) {
+        return new Wheel() {
+            @Override
+            public void schedule(UUID key, long deadlineMillis) {
+                wheel.schedule(key, deadlineMillis);
+            }
+
+            @Override
+            public void postpone(UUID key, long deadlineMillis) {
+                // The hashed wheel has no postpone; rescheduling is how holds would extend
+                wheel.schedule(key, deadlineMillis);
+            }
+
+            @Override
+            public List<UUID> advance(long nowMillis) {
+                return wheel.advance(nowMillis);
+            }
+        };
+    }
+
+    private static Wheel hierarchical(HierarchicalTimingWheel<UUID> wheel) {
+        return new Wheel() {
+            @Override
+            public void schedule(UUID key, long deadlineMillis) {
+                wheel.schedule(key, deadlineMillis);
+            }
+
+            @Override
+            public void postpone(UUID key, long deadlineMillis) {
+                wheel.postpone(key, deadlineMillis);
+            }
+
+            @Override
+            public List<UUID> advance(long nowMillis) {
+                return wheel.advance(nowMillis);
+            }
+        };
+    }
+}
@@ -0,0 +1,148 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.dto.BatchTransferResponseDto;
+import com.vbank.account.dto.TransferDto;
+import com.vbank.account.model.Account;
+import com.vbank.account.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput across the service's write paths: the locked JPA path,
+ * group commit, the in-memory ledger and the direct path with transfer limits
+ * enforced.
+ *
+ * The slots benchmarks split the hot account into 1 to 16 balance slots, and
+ * the sharded benchmarks hash accounts over 1 to 8 databases, where most
+ * transfers cross shards, so throughput can be read against either count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TransferBenchmark {
+
+    private static final int BATCH_SIZE = 16;
+
+    public abstract static class FixtureState {
+
+        @Param({"1000", "100000"})
+        public int accounts;
+
+        @Param({"0", "0.5", "0.9"})
+        public double hotShare;
+
+        AccountFixture fixture;
+        AccountService accountService;
+
+        abstract AccountFixture start();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            fixture = start();
+            accountService = fixture.bean(AccountService.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            fixture.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Paths extends FixtureState {
+
+        @Param({"direct", "pipeline", "ledger", "limits"})
+        public String mode;
+
+        @Override
+        AccountFixture start() {
+            return AccountFixture.start(mode, accounts, Account.AccountType.CHECKING, Map.of());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HotSlots extends FixtureState {
+
+        @Param({"1", "2", "4", "8", "16"})
+        public int slots;
+
+        @Override
+        AccountFixture start() {
+            return AccountFixture.start("slots", accounts, Account.AccountType.CHECKING, Map.of(), slots);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Shards extends FixtureState {
+
+        @Param({"1", "2", "4", "8"})
+        public int shards;
+
+        @Override
+        AccountFixture start() {
+            return AccountFixture.start("sharded", accounts, Account.AccountType.CHECKING, Map.of(), shards);
+        }
+    }
+
+    @Benchmark
+    public String transferFunds(Paths state) {
+        return transferOne(state);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchTransferResponseDto transferBatch(Paths state) {
+        return transferMany(state);
+    }
+
+    @Benchmark
+    public String slotsTransferFunds(HotSlots state) {
+        return transferOne(state);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchTransferResponseDto slotsTransferBatch(HotSlots state) {
+        return transferMany(state);
+    }
+
+    @Benchmark
+    public String shardedTransferFunds(Shards state) {
+        return transferOne(state);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BatchTransferResponseDto shardedTransferBatch(Shards state) {
+        return transferMany(state);
+    }
+
+    private static String transferOne(FixtureState state) {
+        return state.accountService.transferFunds(state.fixture.nextTransfer(state.hotShare));
+    }
+
+    private static BatchTransferResponseDto transferMany(FixtureState state) {
+        List<TransferDto> legs = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            legs.add(state.fixture.nextTransfer(state.hotShare));
+        }
+        return state.accountService.transferBatch(legs);
+    }
+}
@@ -0,0 +1,88 @@
+package com.vbank.benchmarks;
+
+import com.vbank.account.limit.TransferLimiter;
+import com.vbank.account.model.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory limit check on its own, without the transfer around it.
+ * Senders are random ids that are not in the database; every one has its
+ * slot claimed during setup, so the measurement is the steady-state probe
+ * and window updates. The limits are set out of reach, as in the limits
+ * mode of {@link TransferBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class TransferLimiterBenchmark {
+
+    private static final long AMOUNT_MINOR = 100;
+
+    @Param({"1000", "100000"})
+    public int accounts;
+
+    @Param({"0", "0.9"})
+    public double hotShare;
+
+    private AccountFixture fixture;
+    private TransferLimiter transferLimiter;
+    private UUID[] senders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = AccountFixture.start("limits", 2, Account.AccountType.CHECKING, Map.of());
+        transferLimiter = fixture.bean(TransferLimiter.class);
+        senders = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            senders[i] = UUID.randomUUID();
+            transferLimiter.release(senders[i], AMOUNT_MINOR, transferLimiter.tryAcquire(senders[i], AMOUNT_MINOR));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    /**
+     * A check for a transfer that goes through.
+     */
+    @Benchmark
+    public long tryAcquire() {
+        return transferLimiter.tryAcquire(pickSender(), AMOUNT_MINOR);
+    }
+
+    /**
+     * A check for a transfer that then fails and is taken back.
+     */
+    @Benchmark
+    public long tryAcquireAndRelease() {
+        UUID sender = pickSender();
+        long stamp = transferLimiter.tryAcquire(sender, AMOUNT_MINOR);
+        transferLimiter.release(sender, AMOUNT_MINOR, stamp);
+        return stamp;
+    }
+
+    private UUID pickSender() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextDouble() < hotShare ? senders[0] : senders[random.nextInt(senders.length)];
+    }
+}
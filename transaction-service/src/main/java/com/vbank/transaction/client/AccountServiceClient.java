@@ -1,23 +1,47 @@
 package com.vbank.transaction.client;
 
+import com.vbank.transaction.exception.InvalidTransactionException;
+import com.vbank.transaction.logging.LogThrottle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.reactive.function.BodyInserters;
+import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+
 @Service
 public class AccountServiceClient {
 
+    private static final Logger logger = LoggerFactory.getLogger(AccountServiceClient.class);
+    private static final LogThrottle failureLog = new LogThrottle(Duration.ofSeconds(30));
+
     @Autowired
     private WebClient.Builder webClientBuilder;
 
     @Value("${account.service.url:http://localhost:8082}")
     private String accountServiceUrl;
 
+    @Value("${account.service.transfer-retries:3}")
+    private int transferRetries;
+
+    @Value("${account.service.transfer-retry-backoff-ms:200}")
+    private long transferRetryBackoffMs;
+
+    @Value("${account.service.hold-ttl-seconds:900}")
+    private int holdTtlSeconds;
+
     public boolean accountExists(UUID accountId) {
         try {
             WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
@@ -34,7 +58,36 @@ public class AccountServiceClient {
         }
     }
 
-    public boolean performTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount) {
+    /**
+     * Checks that every account exists with one batch lookup instead of a GET per account.
+     */
+    public boolean allAccountsExist(Collection<UUID> accountIds) {
+        try {
+            WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
+
+            Map<String, Object> lookupRequest = Map.of(
+                    "accountIds", accountIds,
+                    "compact", true
+            );
+
+            Map<String, Object> response = webClient.post()
+                    .uri("/accounts/lookup")
+                    .body(BodyInserters.fromValue(lookupRequest))
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                    .block();
+
+            return response != null && response.get("missing") instanceof List<?> missing && missing.isEmpty();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Performs the transfer under the given Idempotency-Key, so a retry after a
+     * timeout or dropped connection cannot move the money twice.
+     */
+    public boolean performTransfer(UUID fromAccountId, UUID toAccountId, BigDecimal amount, String idempotencyKey) {
         try {
             WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
 
@@ -46,14 +99,207 @@ public class AccountServiceClient {
 
             String response = webClient.put()
                     .uri("/accounts/transfer")
+                    .header("Idempotency-Key", idempotencyKey)
                     .body(BodyInserters.fromValue(transferRequest))
                     .retrieve()
                     .bodyToMono(String.class)
+                    .retryWhen(Retry.backoff(transferRetries, Duration.ofMillis(transferRetryBackoffMs))
+                            .filter(AccountServiceClient::isRetryable))
                     .block();
 
             return response != null && response.contains("successfully");
         } catch (Exception e) {
+            logFailure("transfer " + amount + " from account " + fromAccountId, e);
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reserves the amount on the account so the later transfer cannot fail for lack of funds.
+     * Placing again under the same Idempotency-Key returns the hold the first call placed,
+     * which is how a caller finds out about a hold whose response it never received.
+     *
+     * @throws InvalidTransactionException if the account does not have enough available funds
+     */
+    public HoldPlacement placeHold(UUID accountId, BigDecimal amount, String idempotencyKey) {
+        try {
+            WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
+
+            Map<String, Object> holdRequest = Map.of(
+                    "amount", amount,
+                    "ttlSeconds", holdTtlSeconds
+            );
+
+            Map<String, Object> response = webClient.post()
+                    .uri("/accounts/{accountId}/holds", accountId)
+                    .header("Idempotency-Key", idempotencyKey)
+                    .body(BodyInserters.fromValue(holdRequest))
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                    .retryWhen(Retry.backoff(transferRetries, Duration.ofMillis(transferRetryBackoffMs))
+                            .filter(AccountServiceClient::isRetryable))
+                    .block();
+
+            return response != null && response.get("holdId") != null
+                    ? HoldPlacement.placed(UUID.fromString(response.get("holdId").toString()))
+                    : HoldPlacement.uncertain();
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().value() == 400 && e.getResponseBodyAsString().contains("Insufficient funds")) {
+                throw new InvalidTransactionException("Insufficient funds in the from account.");
+            }
+            logFailure("place hold on account " + accountId, e);
+            // Retries are exhausted on 5xx and 409, where the hold may exist; other statuses rejected it
+            return isRetryable(e) ? HoldPlacement.uncertain() : HoldPlacement.rejected();
+        } catch (Exception e) {
+            logFailure("place hold on account " + accountId, e);
+            return HoldPlacement.uncertain();
+        }
+    }
+
+    /**
+     * Moves the held amount to the destination. Capture is idempotent, so it is safe to retry.
+     */
+    public CaptureResult captureHold(UUID holdId, UUID toAccountId) {
+        try {
+            WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
+
+            String response = webClient.post()
+                    .uri("/accounts/holds/{holdId}/capture", holdId)
+                    .body(BodyInserters.fromValue(Map.of("toAccountId", toAccountId)))
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .retryWhen(Retry.backoff(transferRetries, Duration.ofMillis(transferRetryBackoffMs))
+                            .filter(AccountServiceClient::isRetryable))
+                    .block();
+
+            return response != null && response.contains("successfully") ? CaptureResult.CAPTURED : CaptureResult.FAILED;
+        } catch (WebClientResponseException e) {
+            logFailure("capture hold " + holdId, e);
+            String body = e.getResponseBodyAsString();
+            // Nothing is reserved any more, so the transfer can still be made without the hold
+            if (e.getStatusCode().value() == 404
+                    || (e.getStatusCode().value() == 400 && (body.contains("expired") || body.contains("released")))) {
+                return CaptureResult.HOLD_GONE;
+            }
+            return CaptureResult.FAILED;
+        } catch (Exception e) {
+            logFailure("capture hold " + holdId, e);
+            return CaptureResult.FAILED;
+        }
+    }
+
+    /**
+     * Releases the hold and reports what became of it. When the release is
+     * refused or fails, the hold is looked up, since a capture whose reply was
+     * lost may have moved the money after all.
+     */
+    public HoldState releaseHold(UUID holdId) {
+        try {
+            WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
+
+            webClient.delete()
+                    .uri("/accounts/holds/{holdId}", holdId)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .block();
+            return HoldState.RELEASED;
+        } catch (Exception e) {
+            logFailure("release hold " + holdId, e);
+        }
+        return getHoldState(holdId);
+    }
+
+    private HoldState getHoldState(UUID holdId) {
+        try {
+            WebClient webClient = webClientBuilder.baseUrl(accountServiceUrl).build();
+
+            Map<String, Object> response = webClient.get()
+                    .uri("/accounts/holds/{holdId}", holdId)
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {})
+                    .retryWhen(Retry.backoff(transferRetries, Duration.ofMillis(transferRetryBackoffMs))
+                            .filter(AccountServiceClient::isRetryable))
+                    .block();
+
+            Object status = response == null ? null : response.get("status");
+            if ("CAPTURED".equals(status)) {
+                return HoldState.CAPTURED;
+            }
+            if ("RELEASED".equals(status) || "EXPIRED".equals(status)) {
+                return HoldState.RELEASED;
+            }
+            return HoldState.UNKNOWN;
+        } catch (WebClientResponseException.NotFound e) {
+            // Holds are never deleted, so nothing was reserved under this id
+            return HoldState.RELEASED;
+        } catch (Exception e) {
+            logFailure("look up hold " + holdId, e);
+            return HoldState.UNKNOWN;
+        }
+    }
+
+    public enum HoldState {
+        // Nothing moved: the hold was released, expired or never existed
+        RELEASED,
+        CAPTURED,
+        // Still active or being captured, or account-service could not be reached
+        UNKNOWN
+    }
+
+    public enum CaptureResult {
+        CAPTURED,
+        // The hold expired, was released or is unknown; no funds are reserved for it
+        HOLD_GONE,
+        FAILED
+    }
+
+    /**
+     * Outcome of {@link #placeHold}: the hold id, or null when no hold was placed
+     * ({@code uncertain} false) or it is unknown whether one was.
+     */
+    public record HoldPlacement(UUID holdId, boolean uncertain) {
+
+        static HoldPlacement placed(UUID holdId) {
+            return new HoldPlacement(holdId, false);
+        }
+
+        static HoldPlacement rejected() {
+            return new HoldPlacement(null, false);
+        }
+
+        static HoldPlacement uncertain() {
+            return new HoldPlacement(null, true);
+        }
+    }
+
+    /**
+     * Status and body of an error response, otherwise the exception and its cause.
+     */
+    private static String describe(Exception e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() + " " + response.getResponseBodyAsString();
+        }
+        return e.getCause() != null ? e + " caused by " + e.getCause() : e.toString();
+    }
+
+    /**
+     * Warns about a failed call, at most once per interval while account-service is down.
+     */
+    private static void logFailure(String action, Exception e) {
+        long suppressed = failureLog.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("Failed to {}: {} ({} similar suppressed)", action, describe(e), suppressed);
+        }
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientRequestException) {
+            return true;
+        }
+        if (error instanceof WebClientResponseException response) {
+            // 409 means the first attempt is still running under the same key
+            return response.getStatusCode().is5xxServerError() || response.getStatusCode().value() == 409;
+        }
+        return false;
+    }
+}
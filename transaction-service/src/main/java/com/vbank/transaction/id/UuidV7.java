@@ -0,0 +1,36 @@
+package com.vbank.transaction.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time-ordered UUID version 7 (RFC 9562) generator. The 48-bit millisecond
+ * timestamp and a 12-bit counter are taken from one monotonically increasing
+ * value, so ids from this process always sort in creation order even within a
+ * millisecond; the remaining 62 bits are random.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // (unix millis << 12) | counter of the last id handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    private UuidV7() {}
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp;
+        long previous;
+        do {
+            previous = LAST.get();
+            // A full counter carries into the millisecond, borrowing from the next one
+            stamp = Math.max(now, previous + 1);
+        } while (!LAST.compareAndSet(previous, stamp));
+
+        long msb = ((stamp >>> 12) << 16) | 0x7000L | (stamp & 0xFFFL);
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,34 @@
+package com.vbank.transaction.logging;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets a repeating log line through at most once per interval and counts
+ * the occurrences it held back, so an outage is reported without flooding
+ * the log from a hot path or a fast scheduler.
+ */
+public final class LogThrottle {
+
+    private final long intervalNanos;
+    private final AtomicLong nextAt;
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogThrottle(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+        this.nextAt = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * @return -1 if the line should be dropped, otherwise how many were dropped since the last one let through
+     */
+    public long tryAcquire() {
+        long now = System.nanoTime();
+        long next = nextAt.get();
+        if (now - next < 0 || !nextAt.compareAndSet(next, now + intervalNanos)) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -1,5 +1,6 @@
 package com.vbank.transaction.model;
 
+import com.vbank.transaction.id.UuidV7Id;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
@@ -22,6 +23,7 @@ import java.util.UUID;
 public class Transaction {
 
     @Id
+    @UuidV7Id
     @Column(name = "transaction_id", length = 36, nullable = false)
     private UUID transactionId;
 
@@ -51,6 +53,10 @@ public class Transaction {
     @NotNull(message = "Timestamp cannot be null")
     private LocalDateTime timestamp;
 
+    // Funds hold placed in account-service at initiation; null if the transfer was not pre-authorized
+    @Column(name = "hold_id", length = 36)
+    private UUID holdId;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -179,6 +185,14 @@ public class Transaction {
         this.timestamp = timestamp;
     }
 
+    public UUID getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
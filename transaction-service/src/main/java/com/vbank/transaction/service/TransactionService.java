@@ -29,8 +29,8 @@ public class TransactionService {
 
     public TransactionResponseDto initiateTransfer(TransactionInitiationDto initiationDto) {
         // Validate accounts exist
-        if (!accountServiceClient.accountExists(initiationDto.getFromAccountId()) ||
-                !accountServiceClient.accountExists(initiationDto.getToAccountId())) {
+        if (!accountServiceClient.allAccountsExist(
+                List.of(initiationDto.getFromAccountId(), initiationDto.getToAccountId()))) {
             throw new InvalidTransactionException("Invalid 'from' or 'to' account ID.");
         }
 
@@ -44,6 +44,13 @@ public class TransactionService {
 
         Transaction savedTransaction = transactionRepository.save(transaction);
 
+        // Reserve the funds now so insufficient balances are rejected at initiation
+        // and execution only has to capture the hold
+        AccountServiceClient.HoldPlacement placement = accountServiceClient.placeHold(
+                savedTransaction.getFromAccountId(), savedTransaction.getAmount(),
+                savedTransaction.getTransactionId().toString());
+        savedTransaction.setHoldId(placement.holdId());
+
         return new TransactionResponseDto(savedTransaction.getTransactionId(), TransactionStatus.INITIATED,
                 savedTransaction.getTimestamp());
     }
@@ -57,12 +64,31 @@ public class TransactionService {
         }
 
         try {
-            // Call Account Service to perform the actual transfer
-            boolean transferResult = accountServiceClient.performTransfer(
-                    transaction.getFromAccountId(),
-                    transaction.getToAccountId(),
-                    transaction.getAmount()
-            );
+            if (transaction.getHoldId() == null) {
+                // Initiation may have placed a hold without hearing back; placing again under
+                // the same key returns that hold instead of reserving the funds twice
+                AccountServiceClient.HoldPlacement placement = accountServiceClient.placeHold(
+                        transaction.getFromAccountId(), transaction.getAmount(),
+                        transaction.getTransactionId().toString());
+                if (placement.uncertain()) {
+                    throw new InvalidTransactionException("Could not determine whether the funds are reserved.");
+                }
+                transaction.setHoldId(placement.holdId());
+            }
+
+            // Capture the hold, or perform the transfer if there is none or it is gone;
+            // holds expire after account.service.hold-ttl-seconds
+            AccountServiceClient.CaptureResult captureResult = transaction.getHoldId() != null
+                    ? accountServiceClient.captureHold(transaction.getHoldId(), transaction.getToAccountId())
+                    : AccountServiceClient.CaptureResult.HOLD_GONE;
+            boolean transferResult = captureResult == AccountServiceClient.CaptureResult.CAPTURED
+                    || (captureResult == AccountServiceClient.CaptureResult.HOLD_GONE
+                    && accountServiceClient.performTransfer(
+                            transaction.getFromAccountId(),
+                            transaction.getToAccountId(),
+                            transaction.getAmount(),
+                            transaction.getTransactionId().toString()
+                    ));
 
             if (transferResult) {
                 transaction.setStatus(TransactionStatus.SUCCESS);
@@ -74,6 +100,18 @@ public class TransactionService {
             transaction.setStatus(TransactionStatus.FAILED);
         }
 
+        if (transaction.getStatus() == TransactionStatus.FAILED && transaction.getHoldId() != null) {
+            // Give the funds back now instead of waiting for the hold to expire. A capture
+            // that timed out may still have gone through, so trust what the hold says
+            AccountServiceClient.HoldState holdState = accountServiceClient.releaseHold(transaction.getHoldId());
+            if (holdState == AccountServiceClient.HoldState.CAPTURED) {
+                transaction.setStatus(TransactionStatus.SUCCESS);
+            } else if (holdState == AccountServiceClient.HoldState.UNKNOWN) {
+                // Leave it INITIATED: executing again captures idempotently or transfers once the hold is gone
+                transaction.setStatus(TransactionStatus.INITIATED);
+            }
+        }
+
         Transaction updatedTransaction = transactionRepository.save(transaction);
 
         return new TransactionResponseDto(updatedTransaction.getTransactionId(), updatedTransaction.getStatus(),
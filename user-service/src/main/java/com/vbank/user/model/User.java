@@ -1,5 +1,6 @@
 package com.vbank.user.model;
 
+import com.vbank.user.id.UuidV7Id;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -11,7 +12,7 @@ import java.util.UUID;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     @Column(name="id",unique = true,updatable = false, nullable = false)
     private UUID id;
 